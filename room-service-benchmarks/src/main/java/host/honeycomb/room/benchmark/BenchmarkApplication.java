@@ -0,0 +1,64 @@
+package host.honeycomb.room.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import host.honeycomb.room.RoomServiceApplication;
+import host.honeycomb.room.model.RoomImportResult;
+import host.honeycomb.room.service.RoomImportService;
+
+/*
+ * Boots the room service against its embedded H2 database without a web
+ * server and fills the rooms table with a fixed, reproducible inventory.
+ */
+final class BenchmarkApplication {
+	static final int ROOMS_PER_FLOOR = 100;
+
+	private BenchmarkApplication() {
+	}
+
+	static ConfigurableApplicationContext start(int tableSize, String cacheType, String... properties) {
+		return load(builder(WebApplicationType.NONE, cacheType, properties).run(), tableSize);
+	}
+
+	static SpringApplicationBuilder builder(WebApplicationType webApplicationType, String cacheType,
+			String... properties) {
+		return new SpringApplicationBuilder(RoomServiceApplication.class).web(webApplicationType)
+				.properties("spring.cache.type=" + cacheType, "logging.level.root=WARN", "spring.main.banner-mode=off")
+				.properties(properties);
+	}
+
+	static String roomNumber(int index) {
+		return Integer.toString(100000 + index);
+	}
+
+	static String floor(int index) {
+		return Integer.toString(index / ROOMS_PER_FLOOR + 1);
+	}
+
+	static ConfigurableApplicationContext load(ConfigurableApplicationContext context, int tableSize) {
+		RoomImportService importService = context.getBean(RoomImportService.class);
+		StringBuilder csv = new StringBuilder("roomNumber,weekdayPrice,weekendPrice,roomType,floor\n");
+		String[] roomTypes = { "single", "double", "deluxe", "suite" };
+		for (int i = 0; i < tableSize; i++) {
+			csv.append(roomNumber(i)).append(',').append(90 + i % 60).append(".99,").append(120 + i % 80)
+					.append(".49,").append(roomTypes[i % roomTypes.length]).append(',').append(floor(i)).append('\n');
+		}
+		try {
+			RoomImportResult result = importService
+					.importCsv(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)));
+			if (result.getImported() != tableSize) {
+				throw new IllegalStateException("Loaded " + result.getImported() + " of " + tableSize + " rooms.");
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return context;
+	}
+
+}
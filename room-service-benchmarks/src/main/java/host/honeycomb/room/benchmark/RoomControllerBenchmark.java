@@ -0,0 +1,91 @@
+package host.honeycomb.room.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import host.honeycomb.room.controller.RoomController;
+import host.honeycomb.room.service.RoomService;
+
+/*
+ * The full DispatcherServlet path through RoomController: handler mapping,
+ * argument resolution, service call and JSON message conversion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomControllerBenchmark {
+	private static final int KEYS = 1024;
+
+	@Param({ "100", "10000", "100000" })
+	private int tableSize;
+
+	private ConfigurableApplicationContext context;
+	private MockMvc mockMvc;
+	private long[] ids;
+	private String[] roomNumbers;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start(tableSize, "caffeine");
+		mockMvc = MockMvcBuilders.standaloneSetup(context.getBean(RoomController.class))
+				.setMessageConverters(new MappingJackson2HttpMessageConverter(context.getBean(ObjectMapper.class)))
+				.build();
+
+		RoomService service = context.getBean(RoomService.class);
+		ids = new long[KEYS];
+		roomNumbers = new String[KEYS];
+		for (int i = 0; i < KEYS; i++) {
+			int index = (int) ((i * 2654435761L) % tableSize);
+			roomNumbers[i] = BenchmarkApplication.roomNumber(index);
+			ids[i] = service.findByRoomNumber(roomNumbers[i]).get().getId();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public String getRoomById() throws Exception {
+		return mockMvc.perform(get("/rooms/{id}", ids[next++ & (KEYS - 1)])).andReturn().getResponse()
+				.getContentAsString();
+	}
+
+	@Benchmark
+	public String searchByRoomNumber() throws Exception {
+		return mockMvc.perform(get("/rooms/search/byRoomNumber").param("roomNumber", roomNumbers[next++ & (KEYS - 1)]))
+				.andReturn().getResponse().getContentAsString();
+	}
+
+	@Benchmark
+	public String getFirstPage() throws Exception {
+		return mockMvc.perform(get("/rooms")).andReturn().getResponse().getContentAsString();
+	}
+
+}
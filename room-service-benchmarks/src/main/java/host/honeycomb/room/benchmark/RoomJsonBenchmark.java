@@ -0,0 +1,84 @@
+package host.honeycomb.room.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomJson;
+
+/*
+ * Jackson (de)serialization of Room with the same ObjectMapper defaults Spring
+ * Boot configures for the controllers, through databind's bean serializer or
+ * the streaming RoomJson component. Run with -prof gc (the exec:exec default)
+ * to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomJsonBenchmark {
+
+	@Param({ "100", "10000" })
+	private int listSize;
+
+	@Param({ "databind", "streaming" })
+	private String codec;
+
+	private ObjectMapper objectMapper;
+	private Room room;
+	private List<Room> rooms;
+	private byte[] roomJson;
+
+	@Setup
+	public void setUp() throws JsonProcessingException {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+		if (codec.equals("streaming")) {
+			builder.modulesToInstall(new SimpleModule().addSerializer(Room.class, new RoomJson.Serializer())
+					.addDeserializer(Room.class, new RoomJson.Deserializer()));
+		}
+		objectMapper = builder.build();
+		room = new Room(1L, "100001", 102.99, 135.49, "double", "1");
+		rooms = new ArrayList<>(listSize);
+		for (int i = 0; i < listSize; i++) {
+			rooms.add(new Room(i + 1, BenchmarkApplication.roomNumber(i), 90 + i % 60 + 0.99, 120 + i % 80 + 0.49,
+					"double", BenchmarkApplication.floor(i)));
+		}
+		roomJson = objectMapper.writeValueAsBytes(room);
+	}
+
+	@Benchmark
+	public byte[] serializeRoom() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(room);
+	}
+
+	@Benchmark
+	public byte[] serializeRoomList() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(rooms);
+	}
+
+	@Benchmark
+	public Room deserializeRoom() throws Exception {
+		return objectMapper.readValue(roomJson, Room.class);
+	}
+
+}
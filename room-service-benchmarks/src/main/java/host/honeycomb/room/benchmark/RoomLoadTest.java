@@ -0,0 +1,196 @@
+package host.honeycomb.room.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/*
+ * Closed-loop HTTP load test of GET /rooms/{id} against the embedded Tomcat,
+ * once on Tomcat's platform worker pool and once with
+ * room.web.virtual-threads=true. Each database call holds its pooled
+ * connection for an extra dbLatencyMillis to stand in for a remote database.
+ * The lookup cache is off so every request reaches the repository.
+ *
+ * Arguments (all optional): concurrency, seconds, dbLatencyMillis, tableSize.
+ * Results are written as JSON to target/loadtest-result.json. The virtual
+ * thread run needs Java 21 or later and is reported as an error otherwise.
+ */
+public class RoomLoadTest {
+
+	public static void main(String[] args) throws Exception {
+		int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		int dbLatencyMillis = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+		int tableSize = args.length > 3 ? Integer.parseInt(args[3]) : 10000;
+		System.setProperty("http.maxConnections", Integer.toString(concurrency));
+
+		List<Map<String, Object>> results = new ArrayList<>();
+		for (String mode : new String[] { "platform", "virtual" }) {
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("mode", mode);
+			result.put("concurrency", concurrency);
+			result.put("dbLatencyMillis", dbLatencyMillis);
+			result.put("java", System.getProperty("java.version"));
+			try (ConfigurableApplicationContext context = start(mode, tableSize, dbLatencyMillis)) {
+				int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+				run(port, concurrency, Math.min(5, seconds), tableSize, null);
+				run(port, concurrency, seconds, tableSize, result);
+			} catch (RuntimeException e) {
+				result.put("error", e.toString());
+			}
+			System.out.println(result);
+			results.add(result);
+		}
+
+		File out = new File("target/loadtest-result.json");
+		out.getParentFile().mkdirs();
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, results);
+	}
+
+	private static ConfigurableApplicationContext start(String mode, int tableSize, int dbLatencyMillis) {
+		SpringApplicationBuilder builder = BenchmarkApplication.builder(WebApplicationType.SERVLET, "none",
+				"server.port=0", "room.web.virtual-threads=" + mode.equals("virtual"));
+		builder.initializers(context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return bean instanceof DataSource && dbLatencyMillis > 0 ? new SlowDataSource((DataSource) bean, dbLatencyMillis)
+						: bean;
+			}
+		}));
+		return BenchmarkApplication.load(builder.run(), tableSize);
+	}
+
+	/*
+	 * Runs the closed loop for the given time. Warm-up runs pass a null result.
+	 */
+	private static void run(int port, int concurrency, int seconds, int tableSize, Map<String, Object> result)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		long[][] latencies = new long[concurrency][];
+		int[] counts = new int[concurrency];
+		AtomicLong errors = new AtomicLong();
+		CountDownLatch done = new CountDownLatch(concurrency);
+		for (int t = 0; t < concurrency; t++) {
+			int client = t;
+			Thread thread = new Thread(() -> {
+				long[] samples = new long[1024];
+				int count = 0;
+				int next = client;
+				while (System.nanoTime() < deadline) {
+					String roomNumber = BenchmarkApplication.roomNumber(next++ % tableSize);
+					long start = System.nanoTime();
+					if (!get(port, "/rooms/search/byRoomNumber?roomNumber=" + roomNumber)) {
+						errors.incrementAndGet();
+						continue;
+					}
+					if (count == samples.length) {
+						samples = Arrays.copyOf(samples, count * 2);
+					}
+					samples[count++] = System.nanoTime() - start;
+				}
+				latencies[client] = samples;
+				counts[client] = count;
+				done.countDown();
+			}, "load-" + t);
+			thread.setDaemon(true);
+			thread.start();
+		}
+		done.await();
+		if (result == null) {
+			return;
+		}
+
+		int total = 0;
+		for (int count : counts) {
+			total += count;
+		}
+		long[] all = new long[total];
+		int offset = 0;
+		for (int t = 0; t < concurrency; t++) {
+			System.arraycopy(latencies[t], 0, all, offset, counts[t]);
+			offset += counts[t];
+		}
+		Arrays.sort(all);
+		result.put("requests", total);
+		result.put("errors", errors.get());
+		result.put("throughputPerSecond", total / (double) seconds);
+		result.put("p50Millis", percentile(all, 0.50));
+		result.put("p99Millis", percentile(all, 0.99));
+		result.put("maxMillis", total == 0 ? 0 : all[total - 1] / 1e6);
+	}
+
+	private static double percentile(long[] sorted, double percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+	}
+
+	private static boolean get(int port, String path) {
+		try {
+			HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path)
+					.openConnection();
+			int status = connection.getResponseCode();
+			try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+				if (body != null) {
+					byte[] buffer = new byte[4096];
+					while (body.read(buffer) >= 0) {
+						// drain so the connection can be kept alive
+					}
+				}
+			}
+			return status == 200;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/*
+	 * Holds each borrowed connection for a fixed time before handing it out, as
+	 * a stand-in for the network round trip to a remote database.
+	 */
+	static class SlowDataSource extends DelegatingDataSource {
+		private final long latencyMillis;
+
+		SlowDataSource(DataSource target, long latencyMillis) {
+			super(target);
+			this.latencyMillis = latencyMillis;
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			Connection connection = super.getConnection();
+			try {
+				Thread.sleep(latencyMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return connection;
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+package host.honeycomb.room.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomJson;
+
+/*
+ * Encoding and decoding rooms in each media type the controllers negotiate,
+ * with the mappers configured as BinaryMediaTypeConfiguration builds them.
+ * Payload sizes are printed once per fork, as they do not vary between runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomMediaTypeBenchmark {
+
+	@Param({ "json", "cbor", "smile" })
+	private String mediaType;
+
+	@Param({ "10000" })
+	private int listSize;
+
+	private ObjectMapper objectMapper;
+	private JavaType listType;
+	private Room room;
+	private List<Room> rooms;
+	private byte[] roomBytes;
+	private byte[] roomsBytes;
+
+	@Setup
+	public void setUp() throws IOException {
+		JsonFactory factory = mediaType.equals("cbor") ? new CBORFactory()
+				: mediaType.equals("smile") ? new SmileFactory() : new JsonFactory();
+		objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory)
+				.modulesToInstall(new SimpleModule().addSerializer(Room.class, new RoomJson.Serializer())
+						.addDeserializer(Room.class, new RoomJson.Deserializer()))
+				.build();
+		listType = objectMapper.getTypeFactory().constructCollectionType(List.class, Room.class);
+		room = new Room(1L, "100001", 102.99, 135.49, "double", "1");
+		rooms = new ArrayList<>(listSize);
+		for (int i = 0; i < listSize; i++) {
+			rooms.add(new Room(i + 1, BenchmarkApplication.roomNumber(i), 90 + i % 60 + 0.99, 120 + i % 80 + 0.49,
+					"double", BenchmarkApplication.floor(i)));
+		}
+		roomBytes = objectMapper.writeValueAsBytes(room);
+		roomsBytes = objectMapper.writeValueAsBytes(rooms);
+		System.out.printf("%s payload: room %d bytes, %d rooms %d bytes%n", mediaType, roomBytes.length, listSize,
+				roomsBytes.length);
+	}
+
+	@Benchmark
+	public byte[] encodeRoom() throws IOException {
+		return objectMapper.writeValueAsBytes(room);
+	}
+
+	@Benchmark
+	public byte[] encodeRoomList() throws IOException {
+		return objectMapper.writeValueAsBytes(rooms);
+	}
+
+	@Benchmark
+	public Room decodeRoom() throws IOException {
+		return objectMapper.readValue(roomBytes, Room.class);
+	}
+
+	@Benchmark
+	public List<Room> decodeRoomList() throws IOException {
+		return objectMapper.readValue(roomsBytes, listType);
+	}
+
+}
@@ -0,0 +1,83 @@
+package host.honeycomb.room.benchmark;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.Stay;
+
+/*
+ * Quoting one stay over a few thousand rooms, as the bulk quote endpoint does,
+ * against pricing every night of the stay with BigDecimal. Run with
+ * -prof gc to confirm the Stay path allocates nothing per room.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomQuoteBenchmark {
+
+	@Param({ "5000" })
+	private int roomCount;
+
+	@Param({ "3", "30", "365" })
+	private int nights;
+
+	private List<Room> rooms;
+	private LocalDate from;
+	private LocalDate to;
+
+	@Setup
+	public void setUp() {
+		rooms = new ArrayList<>(roomCount);
+		for (int i = 0; i < roomCount; i++) {
+			rooms.add(new Room(i + 1, BenchmarkApplication.roomNumber(i), 90 + i % 60 + 0.99, 120 + i % 80 + 0.49,
+					"double", BenchmarkApplication.floor(i)));
+		}
+		from = LocalDate.of(2024, 3, 1);
+		to = from.plusDays(nights);
+	}
+
+	@Benchmark
+	public void quoteStay(Blackhole blackhole) {
+		Stay stay = Stay.of(from, to);
+		for (int i = 0; i < rooms.size(); i++) {
+			blackhole.consume(stay.priceCents(rooms.get(i)));
+		}
+	}
+
+	@Benchmark
+	public void quoteDayByDay(Blackhole blackhole) {
+		for (int i = 0; i < rooms.size(); i++) {
+			Room room = rooms.get(i);
+			BigDecimal weekday = BigDecimal.valueOf(room.getWeekdayPrice());
+			BigDecimal weekend = BigDecimal.valueOf(room.getWeekendPrice());
+			BigDecimal total = BigDecimal.ZERO;
+			for (LocalDate night = from; night.isBefore(to); night = night.plusDays(1)) {
+				DayOfWeek day = night.getDayOfWeek();
+				total = total.add(day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY ? weekend : weekday);
+			}
+			blackhole.consume(total);
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+package host.honeycomb.room.benchmark;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import host.honeycomb.room.model.RoomReservation;
+import host.honeycomb.room.service.RoomAvailabilityService;
+import host.honeycomb.room.service.RoomReservationService;
+import host.honeycomb.room.service.RoomService;
+
+/*
+ * Checkout reservations taken and cancelled by every benchmark thread at
+ * once, spread over one room (every thread contends for the same nights) or
+ * many. Run it with -Djmh.threads=1, 2, 4 and so on to see how throughput
+ * scales with cores. Each thread reserves a random stay of one to four nights
+ * in the next eight weeks and cancels it if it got it; conflicts count as
+ * operations too. After each iteration every night must be free again, or
+ * the iteration fails.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomReservationBenchmark {
+	private static final int TABLE_SIZE = 64;
+	private static final int WINDOW_DAYS = 56;
+
+	@Param({ "1", "64" })
+	private int rooms;
+
+	private ConfigurableApplicationContext context;
+	private RoomReservationService reservationService;
+	private RoomAvailabilityService availabilityService;
+	private long[] roomIds;
+	private LocalDate firstNight;
+
+	@State(Scope.Thread)
+	public static class Stays {
+		private long seed = System.nanoTime();
+
+		int next(int bound) {
+			seed = seed * 6364136223846793005L + 1442695040888963407L;
+			return (int) ((seed >>> 33) % bound);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		// Cancelled reservations are kept until they would have expired
+		context = BenchmarkApplication.start(TABLE_SIZE, "none", "room.reservation.ttl=1s");
+		reservationService = context.getBean(RoomReservationService.class);
+		availabilityService = context.getBean(RoomAvailabilityService.class);
+		RoomService service = context.getBean(RoomService.class);
+		roomIds = new long[rooms];
+		for (int i = 0; i < rooms; i++) {
+			roomIds[i] = service.findByRoomNumber(BenchmarkApplication.roomNumber(i)).get().getId();
+		}
+		firstNight = LocalDate.now().plusDays(1);
+	}
+
+	@TearDown(Level.Iteration)
+	public void checkAllFree() {
+		for (long roomId : roomIds) {
+			if (!availabilityService.getAvailability(roomId, firstNight, firstNight.plusDays(WINDOW_DAYS + 4))
+					.isFree()) {
+				throw new IllegalStateException("Room " + roomId + " has nights left reserved.");
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public boolean reserveAndCancel(Stays stays) {
+		LocalDate from = firstNight.plusDays(stays.next(WINDOW_DAYS));
+		Optional<RoomReservation> reservation = reservationService.reserve(roomIds[stays.next(rooms)], from,
+				from.plusDays(1 + stays.next(4)));
+		if (!reservation.isPresent()) {
+			return false;
+		}
+		reservationService.cancel(reservation.get().getId());
+		return true;
+	}
+
+}
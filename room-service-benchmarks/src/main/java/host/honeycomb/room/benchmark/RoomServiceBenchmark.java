@@ -0,0 +1,100 @@
+package host.honeycomb.room.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.service.RoomService;
+
+/*
+ * RoomService lookups against embedded H2, with the lookup cache on and off
+ * and with the in-memory inventory snapshot on and off.
+ * Keys are taken round robin from a fixed pseudo-random sequence so every run
+ * touches the same rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomServiceBenchmark {
+	private static final int KEYS = 1024;
+
+	@Param({ "100", "10000", "100000" })
+	private int tableSize;
+
+	@Param({ "caffeine", "none" })
+	private String cacheType;
+
+	@Param({ "false", "true" })
+	private boolean snapshot;
+
+	private ConfigurableApplicationContext context;
+	private RoomService service;
+	private long[] ids;
+	private String[] roomNumbers;
+	private String[] floors;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start(tableSize, cacheType, "room.inventory.snapshot=" + snapshot);
+		service = context.getBean(RoomService.class);
+
+		ids = new long[KEYS];
+		roomNumbers = new String[KEYS];
+		floors = new String[KEYS];
+		long seed = 42;
+		for (int i = 0; i < KEYS; i++) {
+			seed = seed * 6364136223846793005L + 1442695040888963407L;
+			int index = (int) ((seed >>> 33) % tableSize);
+			Room room = service.findByRoomNumber(BenchmarkApplication.roomNumber(index)).get();
+			ids[i] = room.getId();
+			roomNumbers[i] = room.getRoomNumber();
+			floors[i] = room.getFloor();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Optional<Room> findRoom() {
+		return service.findRoom(ids[next++ & (KEYS - 1)]);
+	}
+
+	@Benchmark
+	public Optional<Room> findByRoomNumber() {
+		return service.findByRoomNumber(roomNumbers[next++ & (KEYS - 1)]);
+	}
+
+	@Benchmark
+	public List<Room> findRoomsByFloor() {
+		return service.findRoomsByFloor(floors[next++ & (KEYS - 1)]);
+	}
+
+	@Benchmark
+	public Iterable<Room> getAllRooms() {
+		return service.getAllRooms();
+	}
+
+}
@@ -0,0 +1,206 @@
+package host.honeycomb.room.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/*
+ * Cold start measurement of room-service. Every run starts a fresh JVM and
+ * records the time from launch until Spring Boot reports the application
+ * started, then the latency of the first and second GET /rooms?limit=1, since
+ * lazy initialization moves work from startup to the first request.
+ *
+ * Modes: default, fast-startup (the Spring profile) and fast-startup-cds (the
+ * profile plus the class data sharing archive recorded by
+ * mvn -pl room-service -P fast-startup package). All modes use the class path
+ * that Maven profile lays out under room-service/target/cds when it exists,
+ * and this module's class path, without the cds mode, otherwise.
+ *
+ * Arguments (all optional): runs, room-service target directory. Medians and
+ * the individual runs are written as JSON to target/startup-result.json.
+ */
+public class StartupBenchmark {
+	private static final Pattern STARTED = Pattern
+			.compile("Started RoomServiceApplication in ([0-9.]+) seconds \\(JVM running for ([0-9.]+)\\)");
+	private static final String MAIN_CLASS = "host.honeycomb.room.RoomServiceApplication";
+
+	public static void main(String[] args) throws Exception {
+		int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		File roomServiceTarget = new File(args.length > 1 ? args[1] : "../room-service/target").getCanonicalFile();
+
+		File cdsDirectory = new File(roomServiceTarget, "cds");
+		File[] classesJars = roomServiceTarget.listFiles((dir, name) -> name.endsWith("-classes.jar"));
+		String classPath = System.getProperty("java.class.path");
+		boolean cdsLayout = new File(cdsDirectory, "lib").isDirectory() && classesJars != null
+				&& classesJars.length == 1;
+		if (cdsLayout) {
+			// Must match the class path the archive was recorded with
+			classPath = classesJars[0].getPath() + File.pathSeparator + new File(cdsDirectory, "lib").getPath()
+					+ File.separator + "*";
+		}
+		File archive = new File(cdsDirectory, "room-service.jsa");
+
+		List<Mode> modes = new ArrayList<>();
+		modes.add(new Mode("default", Collections.emptyList(), Collections.emptyList()));
+		modes.add(new Mode("fast-startup", Collections.emptyList(),
+				Collections.singletonList("--spring.profiles.active=fast-startup")));
+		if (cdsLayout && archive.isFile()) {
+			modes.add(new Mode("fast-startup-cds",
+					Collections.singletonList("-XX:SharedArchiveFile=" + archive.getPath()),
+					Collections.singletonList("--spring.profiles.active=fast-startup")));
+		}
+
+		// Warms the file system cache so the first measured run is not an outlier
+		launch(classPath, modes.get(0));
+
+		List<Map<String, Object>> results = new ArrayList<>();
+		for (Mode mode : modes) {
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("mode", mode.name);
+			result.put("java", System.getProperty("java.version"));
+			List<Map<String, Object>> samples = new ArrayList<>();
+			try {
+				for (int run = 0; run < runs; run++) {
+					samples.add(launch(classPath, mode));
+				}
+				for (String metric : new String[] { "readyMillis", "firstRequestMillis", "secondRequestMillis",
+						"readyToFirstResponseMillis" }) {
+					result.put(metric, median(samples, metric));
+				}
+			} catch (IOException | RuntimeException e) {
+				result.put("error", e.toString());
+			}
+			result.put("runs", samples);
+			System.out.println(result);
+			results.add(result);
+		}
+
+		File out = new File("target/startup-result.json");
+		out.getParentFile().mkdirs();
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, results);
+	}
+
+	/*
+	 * Starts room-service in its own JVM and stops it once both requests are
+	 * timed.
+	 */
+	private static Map<String, Object> launch(String classPath, Mode mode) throws IOException, InterruptedException {
+		int port = freePort();
+		List<String> command = new ArrayList<>();
+		command.add(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getPath());
+		command.addAll(mode.jvmOptions);
+		command.add("-classpath");
+		command.add(classPath);
+		command.add(MAIN_CLASS);
+		command.add("--server.port=" + port);
+		command.addAll(mode.arguments);
+
+		long launched = System.nanoTime();
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+		CountDownLatch started = new CountDownLatch(1);
+		Map<String, Object> sample = new LinkedHashMap<>();
+		Thread output = new Thread(() -> readOutput(process.getInputStream(), launched, sample, started),
+				"startup-output");
+		output.setDaemon(true);
+		output.start();
+		try {
+			if (!started.await(2, TimeUnit.MINUTES)) {
+				synchronized (sample) {
+					throw new IllegalStateException("room-service did not start: " + sample.get("lastLine"));
+				}
+			}
+			double first = timeRequest(port);
+			sample.put("firstRequestMillis", first);
+			sample.put("secondRequestMillis", timeRequest(port));
+			sample.put("readyToFirstResponseMillis", (double) sample.get("readyMillis") + first);
+			sample.remove("lastLine");
+			return sample;
+		} finally {
+			process.destroy();
+			if (!process.waitFor(30, TimeUnit.SECONDS)) {
+				process.destroyForcibly();
+			}
+		}
+	}
+
+	private static void readOutput(InputStream in, long launched, Map<String, Object> sample,
+			CountDownLatch started) {
+		try (BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+				Matcher matcher = STARTED.matcher(line);
+				if (started.getCount() > 0 && matcher.find()) {
+					synchronized (sample) {
+						sample.put("readyMillis", (System.nanoTime() - launched) / 1e6);
+						sample.put("reportedStartupSeconds", Double.parseDouble(matcher.group(1)));
+						sample.put("reportedJvmSeconds", Double.parseDouble(matcher.group(2)));
+					}
+					started.countDown();
+				} else if (started.getCount() > 0) {
+					synchronized (sample) {
+						sample.put("lastLine", line);
+					}
+				}
+			}
+		} catch (IOException e) {
+			// The process was stopped
+		}
+	}
+
+	private static double timeRequest(int port) throws IOException {
+		long start = System.nanoTime();
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/rooms?limit=1")
+				.openConnection();
+		if (connection.getResponseCode() != 200) {
+			throw new IllegalStateException("GET /rooms returned " + connection.getResponseCode());
+		}
+		try (InputStream body = connection.getInputStream()) {
+			byte[] buffer = new byte[4096];
+			while (body.read(buffer) >= 0) {
+				// read the whole response
+			}
+		}
+		return (System.nanoTime() - start) / 1e6;
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static double median(List<Map<String, Object>> samples, String metric) {
+		double[] values = samples.stream().mapToDouble(sample -> (double) sample.get(metric)).sorted().toArray();
+		return values.length == 0 ? 0 : values[values.length / 2];
+	}
+
+	private static class Mode {
+		private final String name;
+		private final List<String> jvmOptions;
+		private final List<String> arguments;
+
+		Mode(String name, List<String> jvmOptions, List<String> arguments) {
+			this.name = name;
+			this.jvmOptions = jvmOptions;
+			this.arguments = arguments;
+		}
+	}
+
+}
@@ -0,0 +1,40 @@
+package host.honeycomb.room.reactive;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+
+import reactor.netty.resources.LoopResources;
+
+@SpringBootApplication
+public class ReactiveRoomServiceApplication {
+
+	/*
+	 * Applies the room-service migrations over plain JDBC. R2DBC has no
+	 * migration support of its own.
+	 */
+	@Bean(initMethod = "migrate")
+	public Flyway flyway(@Value("${room.reactive.schema.url}") String url,
+			@Value("${room.reactive.schema.username}") String username,
+			@Value("${room.reactive.schema.password:}") String password) {
+		return Flyway.configure().dataSource(url, username, password).load();
+	}
+
+	@Bean(destroyMethod = "dispose")
+	public LoopResources roomEventLoops(@Value("${room.reactive.event-loop-threads}") int threads) {
+		return LoopResources.create("room-http", threads, true);
+	}
+
+	@Bean
+	public NettyServerCustomizer eventLoopCustomizer(LoopResources roomEventLoops) {
+		return server -> server.runOn(roomEventLoops);
+	}
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveRoomServiceApplication.class, args);
+	}
+
+}
@@ -0,0 +1,47 @@
+package host.honeycomb.room.reactive.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import host.honeycomb.room.reactive.model.Room;
+import host.honeycomb.room.reactive.repository.ReactiveRoomRepo;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/rooms")
+public class ReactiveRoomController {
+	private ReactiveRoomRepo repo;
+
+	public ReactiveRoomController(ReactiveRoomRepo repo) {
+		this.repo = repo;
+	}
+
+	/*
+	 * application/x-ndjson and text/event-stream write each room as it is read,
+	 * with backpressure from the client connection. application/json collects
+	 * the rooms into a single array first.
+	 */
+	@GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+			MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<Room> getRooms(@RequestParam(value = "floor", required = false) String floor) {
+		return floor == null ? repo.findAll() : repo.findRoomsByFloor(floor);
+	}
+
+	@GetMapping("/{id}")
+	public Mono<ResponseEntity<Room>> findRoomById(@PathVariable long id) {
+		return repo.findById(id).map(ResponseEntity::ok).defaultIfEmpty(ResponseEntity.notFound().build());
+	}
+
+	@GetMapping("/search/byRoomNumber")
+	public Mono<ResponseEntity<Room>> findRoomByRoomNumber(@RequestParam("roomNumber") String roomNumber) {
+		return repo.findByRoomNumber(roomNumber).map(ResponseEntity::ok)
+				.defaultIfEmpty(ResponseEntity.notFound().build());
+	}
+
+}
@@ -0,0 +1,48 @@
+package host.honeycomb.room.reactive.model;
+
+/*
+ * Read-only view of a row in the rooms table, serialized with the same fields
+ * as room-service's Room.
+ */
+public class Room {
+	private final long id;
+	private final String roomNumber;
+	private final double weekdayPrice;
+	private final double weekendPrice;
+	private final String roomType;
+	private final String floor;
+
+	public Room(long id, String roomNumber, double weekdayPrice, double weekendPrice, String roomType,
+			String floor) {
+		this.id = id;
+		this.roomNumber = roomNumber;
+		this.weekdayPrice = weekdayPrice;
+		this.weekendPrice = weekendPrice;
+		this.roomType = roomType;
+		this.floor = floor;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getRoomNumber() {
+		return roomNumber;
+	}
+
+	public double getWeekdayPrice() {
+		return weekdayPrice;
+	}
+
+	public double getWeekendPrice() {
+		return weekendPrice;
+	}
+
+	public String getRoomType() {
+		return roomType;
+	}
+
+	public String getFloor() {
+		return floor;
+	}
+}
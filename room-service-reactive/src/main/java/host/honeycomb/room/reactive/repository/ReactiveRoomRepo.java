@@ -0,0 +1,49 @@
+package host.honeycomb.room.reactive.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import host.honeycomb.room.reactive.model.Room;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * Non-blocking counterpart of room-service's RoomRepo. Results are emitted as
+ * rows arrive, at the pace the subscriber requests them.
+ */
+@Repository
+public class ReactiveRoomRepo {
+	private static final String SELECT_ROOMS = "SELECT id, room_number, weekday_price, weekend_price, room_type, floor FROM rooms";
+
+	private DatabaseClient client;
+
+	public ReactiveRoomRepo(DatabaseClient client) {
+		this.client = client;
+	}
+
+	public Mono<Room> findById(long id) {
+		return client.sql(SELECT_ROOMS + " WHERE id = :id").bind("id", id).map(ReactiveRoomRepo::toRoom).one();
+	}
+
+	public Mono<Room> findByRoomNumber(String roomNumber) {
+		return client.sql(SELECT_ROOMS + " WHERE room_number = :roomNumber").bind("roomNumber", roomNumber)
+				.map(ReactiveRoomRepo::toRoom).one();
+	}
+
+	public Flux<Room> findRoomsByFloor(String floorNumber) {
+		return client.sql(SELECT_ROOMS + " WHERE floor = :floor ORDER BY id").bind("floor", floorNumber)
+				.map(ReactiveRoomRepo::toRoom).all();
+	}
+
+	public Flux<Room> findAll() {
+		return client.sql(SELECT_ROOMS + " ORDER BY id").map(ReactiveRoomRepo::toRoom).all();
+	}
+
+	private static Room toRoom(Row row, RowMetadata metadata) {
+		return new Room(row.get(0, Long.class), row.get(1, String.class), row.get(2, Double.class),
+				row.get(3, Double.class), row.get(4, String.class), row.get(5, String.class));
+	}
+
+}
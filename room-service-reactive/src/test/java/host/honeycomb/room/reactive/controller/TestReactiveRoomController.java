@@ -0,0 +1,73 @@
+package host.honeycomb.room.reactive.controller;
+
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import host.honeycomb.room.reactive.model.Room;
+import host.honeycomb.room.reactive.repository.ReactiveRoomRepo;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@WebFluxTest(controllers = ReactiveRoomController.class)
+class TestReactiveRoomController {
+
+	@MockBean
+	private ReactiveRoomRepo repo;
+
+	@Autowired
+	private WebTestClient client;
+
+	@Test
+	@DisplayName("GET /rooms - success")
+	void testGetAllRooms() {
+		Room room1 = new Room(1L, "202", 102.00, 135.00, "double", "2");
+		Room room2 = new Room(2L, "302", 112.00, 155.00, "deluxe", "3");
+		when(repo.findAll()).thenReturn(Flux.just(room1, room2));
+		client.get().uri("/rooms").accept(MediaType.APPLICATION_JSON).exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.length()").isEqualTo(2).jsonPath("$[1].roomNumber").isEqualTo("302");
+	}
+
+	@Test
+	@DisplayName("GET /rooms?floor=2 - NDJSON stream")
+	void testStreamRoomsByFloor() {
+		Room room1 = new Room(1L, "201", 102.00, 135.00, "double", "2");
+		Room room2 = new Room(2L, "202", 112.00, 155.00, "deluxe", "2");
+		when(repo.findRoomsByFloor("2")).thenReturn(Flux.just(room1, room2));
+		Flux<Room> body = client.get().uri("/rooms?floor=2").accept(MediaType.APPLICATION_NDJSON).exchange()
+				.expectStatus().isOk().expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.returnResult(Room.class).getResponseBody();
+		StepVerifier.create(body.map(Room::getRoomNumber)).expectNext("201", "202").verifyComplete();
+	}
+
+	@Test
+	@DisplayName("GET /rooms/1 - success")
+	void testGetRoomByIdFound() {
+		when(repo.findById(1L)).thenReturn(Mono.just(new Room(1L, "202", 102.00, 135.00, "double", "2")));
+		client.get().uri("/rooms/{id}", 1).exchange().expectStatus().isOk().expectBody().jsonPath("$.id")
+				.isEqualTo(1).jsonPath("$.roomType").isEqualTo("double");
+	}
+
+	@Test
+	@DisplayName("GET /rooms/1 - not found")
+	void testGetRoomByIdNotFound() {
+		when(repo.findById(1L)).thenReturn(Mono.empty());
+		client.get().uri("/rooms/{id}", 1).exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	@DisplayName("GET /rooms/search/byRoomNumber - success")
+	void testGetRoomByRoomNumber() {
+		when(repo.findByRoomNumber("202")).thenReturn(Mono.just(new Room(1L, "202", 102.00, 135.00, "double", "2")));
+		client.get().uri("/rooms/search/byRoomNumber?roomNumber=202").exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.floor").isEqualTo("2");
+	}
+
+}
@@ -0,0 +1,68 @@
+package host.honeycomb.room.reactive.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import host.honeycomb.room.reactive.model.Room;
+import reactor.test.StepVerifier;
+
+/*
+ * Runs against the schema created by the shared room-service migrations.
+ */
+@SpringBootTest
+class TestReactiveRoomRepo {
+
+	@Autowired
+	private ReactiveRoomRepo repo;
+
+	@Autowired
+	private DatabaseClient client;
+
+	@BeforeEach
+	void insertRooms() {
+		insert(1, "201", "2");
+		insert(2, "301", "3");
+		insert(3, "202", "2");
+	}
+
+	@AfterEach
+	void deleteRooms() {
+		client.sql("DELETE FROM rooms").then().block();
+	}
+
+	@Test
+	void testFindById() {
+		StepVerifier.create(repo.findById(2)).expectNextMatches(room -> "301".equals(room.getRoomNumber()))
+				.verifyComplete();
+		StepVerifier.create(repo.findById(42)).verifyComplete();
+	}
+
+	@Test
+	void testFindByRoomNumber() {
+		StepVerifier.create(repo.findByRoomNumber("202")).expectNextMatches(room -> room.getId() == 3)
+				.verifyComplete();
+	}
+
+	@Test
+	void testFindRoomsByFloor() {
+		StepVerifier.create(repo.findRoomsByFloor("2").map(Room::getRoomNumber)).expectNext("201", "202")
+				.verifyComplete();
+	}
+
+	@Test
+	void testFindAllHonoursDemand() {
+		StepVerifier.create(repo.findAll().map(Room::getId), 1).expectNext(1L).thenRequest(2).expectNext(2L, 3L)
+				.verifyComplete();
+	}
+
+	private void insert(long id, String roomNumber, String floor) {
+		client.sql("INSERT INTO rooms (id, room_number, weekday_price, weekend_price, room_type, floor) "
+				+ "VALUES (:id, :roomNumber, 100.0, 120.0, 'double', :floor)").bind("id", id)
+				.bind("roomNumber", roomNumber).bind("floor", floor).then().block();
+	}
+
+}
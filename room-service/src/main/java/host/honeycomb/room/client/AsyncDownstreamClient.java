@@ -0,0 +1,183 @@
+package host.honeycomb.room.client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import host.honeycomb.room.exception.DownstreamUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Non-blocking GETs on the pooled async HTTP client, with the same circuit
+ * breakers and retry policy as the RestTemplate. No thread waits on a
+ * response or a backoff: retries are scheduled, and the returned future
+ * completes on an I/O dispatcher thread. Attempts are timed as
+ * http.client.requests with the tags Spring Boot uses for RestTemplate.
+ */
+public class AsyncDownstreamClient {
+	private final CloseableHttpAsyncClient httpClient;
+	private final ObjectMapper objectMapper;
+	private final Downstreams downstreams;
+	private final ScheduledExecutorService retryScheduler;
+	private final MeterRegistry registry;
+	private final DefaultUriBuilderFactory uriFactory = new DefaultUriBuilderFactory();
+
+	public AsyncDownstreamClient(CloseableHttpAsyncClient httpClient, ObjectMapper objectMapper,
+			Downstreams downstreams, MeterRegistry registry) {
+		this.httpClient = httpClient;
+		this.objectMapper = objectMapper;
+		this.downstreams = downstreams;
+		this.registry = registry;
+		// Not a bean: an Executor bean would stand in for Spring Boot's applicationTaskExecutor
+		this.retryScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "downstream-retry");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/*
+	 * Completes with the JSON response body read as the given type, or
+	 * exceptionally with a RestClientException as RestTemplate would throw.
+	 * The URI template is expanded with the variables as RestTemplate would,
+	 * and its path, not the expanded one, is the uri tag, so the tag has one
+	 * value per endpoint rather than one per resource.
+	 */
+	public <T> CompletableFuture<T> get(String uriTemplate, Class<T> type, Object... uriVariables) {
+		URI uri = uriFactory.expand(uriTemplate, uriVariables);
+		String path = uriTemplate.replaceFirst("^[a-zA-Z][a-zA-Z0-9+.-]*://[^/?#]*", "");
+		Request request = new Request(uri, path.startsWith("/") ? path : "/" + path);
+		CompletableFuture<byte[]> body = new CompletableFuture<>();
+		attempt(request, Downstreams.name(uri), 1, body);
+		return body.thenApply(bytes -> {
+			try {
+				return objectMapper.readValue(bytes, type);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	private void attempt(Request request, String downstream, int attempts, CompletableFuture<byte[]> result) {
+		CircuitBreaker breaker = downstreams.circuitBreaker(downstream);
+		if (!breaker.tryAcquire()) {
+			result.completeExceptionally(new DownstreamUnavailableException(downstream));
+			return;
+		}
+		Timer.Sample sample = Timer.start(registry);
+		httpClient.execute(new HttpGet(request.uri), new FutureCallback<HttpResponse>() {
+			@Override
+			public void completed(HttpResponse response) {
+				int status = response.getStatusLine().getStatusCode();
+				stop(sample, request, String.valueOf(status), outcome(status));
+				if (Downstreams.isFailure(status)) {
+					breaker.onFailure();
+				} else {
+					breaker.onSuccess();
+				}
+				if (RetryPolicy.isRetryable(status) && downstreams.getRetryPolicy().canRetry("GET", attempts)) {
+					EntityUtils.consumeQuietly(response.getEntity());
+					retry(request, downstream, attempts, result);
+					return;
+				}
+				try {
+					// The default consumer has already buffered the whole entity
+					byte[] body = response.getEntity() == null ? new byte[0]
+							: EntityUtils.toByteArray(response.getEntity());
+					if (status >= 400) {
+						result.completeExceptionally(new RestClientResponseException(
+								status + " " + response.getStatusLine().getReasonPhrase(), status,
+								response.getStatusLine().getReasonPhrase(), new HttpHeaders(), body,
+								StandardCharsets.UTF_8));
+					} else {
+						result.complete(body);
+					}
+				} catch (IOException e) {
+					result.completeExceptionally(new ResourceAccessException(e.getMessage(), e));
+				}
+			}
+
+			@Override
+			public void failed(Exception e) {
+				stop(sample, request, "IO_ERROR", "UNKNOWN");
+				breaker.onFailure();
+				if (downstreams.getRetryPolicy().canRetry("GET", attempts)) {
+					retry(request, downstream, attempts, result);
+				} else {
+					result.completeExceptionally(e instanceof IOException
+							? new ResourceAccessException("I/O error on GET request for \"" + request.uri + "\"",
+									(IOException) e)
+							: e);
+				}
+			}
+
+			@Override
+			public void cancelled() {
+				// Not a verdict on the downstream, but a trial call must still report back
+				breaker.onSuccess();
+				result.cancel(false);
+			}
+		});
+	}
+
+	private void retry(Request request, String downstream, int attempts, CompletableFuture<byte[]> result) {
+		downstreams.retried(downstream);
+		retryScheduler.schedule(() -> attempt(request, downstream, attempts + 1, result),
+				downstreams.getRetryPolicy().backoffNanos(attempts), TimeUnit.NANOSECONDS);
+	}
+
+	@PreDestroy
+	public void close() {
+		retryScheduler.shutdownNow();
+	}
+
+	private void stop(Timer.Sample sample, Request request, String status, String outcome) {
+		sample.stop(Timer.builder("http.client.requests").tag("method", "GET").tag("uri", request.uriTemplate)
+				.tag("status", status).tag("clientName", request.uri.getHost()).tag("outcome", outcome)
+				.description("Timer of RestTemplate operation").register(registry));
+	}
+
+	private static String outcome(int status) {
+		if (status >= 500) {
+			return "SERVER_ERROR";
+		}
+		if (status >= 400) {
+			return "CLIENT_ERROR";
+		}
+		if (status >= 300) {
+			return "REDIRECTION";
+		}
+		return status >= 200 ? "SUCCESS" : "INFORMATIONAL";
+	}
+
+	private static final class Request {
+		private final URI uri;
+		private final String uriTemplate;
+
+		Request(URI uri, String uriTemplate) {
+			this.uri = uri;
+			this.uriTemplate = uriTemplate;
+		}
+	}
+
+}
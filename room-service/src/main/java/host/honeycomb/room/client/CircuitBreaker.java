@@ -0,0 +1,76 @@
+package host.honeycomb.room.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/*
+ * Opens after failureThreshold consecutive failures and rejects calls for
+ * openDuration. The first call after that is let through as a trial: its
+ * success closes the breaker, its failure opens it again. Every call that
+ * tryAcquire lets through must report onSuccess or onFailure.
+ */
+public class CircuitBreaker {
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final int failureThreshold;
+	private final long openNanos;
+	private final LongSupplier nanoClock;
+	private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+	private volatile long openedAt;
+
+	public CircuitBreaker(int failureThreshold, long openNanos) {
+		this(failureThreshold, openNanos, System::nanoTime);
+	}
+
+	CircuitBreaker(int failureThreshold, long openNanos, LongSupplier nanoClock) {
+		this.failureThreshold = failureThreshold;
+		this.openNanos = openNanos;
+		this.nanoClock = nanoClock;
+	}
+
+	public boolean tryAcquire() {
+		switch (state.get()) {
+		case CLOSED:
+			return true;
+		case OPEN:
+			// Only the caller that moves the breaker to half open gets the trial call
+			return nanoClock.getAsLong() - openedAt >= openNanos && state.compareAndSet(State.OPEN, State.HALF_OPEN);
+		default:
+			return false;
+		}
+	}
+
+	public void onSuccess() {
+		consecutiveFailures.set(0);
+		state.compareAndSet(State.HALF_OPEN, State.CLOSED);
+	}
+
+	public void onFailure() {
+		if (state.get() == State.HALF_OPEN) {
+			open(State.HALF_OPEN);
+		} else if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+			open(State.CLOSED);
+		}
+	}
+
+	public State getState() {
+		return state.get();
+	}
+
+	private void open(State from) {
+		// Written before the state so a caller that sees OPEN also sees when it opened
+		long now = nanoClock.getAsLong();
+		if (state.get() == from) {
+			openedAt = now;
+			if (state.compareAndSet(from, State.OPEN)) {
+				consecutiveFailures.set(0);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package host.honeycomb.room.client;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * One circuit breaker per downstream, identified by the host and port it is
+ * called on, with its state published as http.client.circuit.state (0 closed,
+ * 1 open, 2 half open) and its retries counted as http.client.retries.
+ */
+public class Downstreams {
+	private final MeterRegistry registry;
+	private final RetryPolicy retryPolicy;
+	private final int failureThreshold;
+	private final long openNanos;
+	private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+	public Downstreams(MeterRegistry registry, RetryPolicy retryPolicy, int failureThreshold, long openNanos) {
+		this.registry = registry;
+		this.retryPolicy = retryPolicy;
+		this.failureThreshold = failureThreshold;
+		this.openNanos = openNanos;
+	}
+
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	public CircuitBreaker circuitBreaker(String downstream) {
+		return breakers.computeIfAbsent(downstream, name -> {
+			CircuitBreaker breaker = new CircuitBreaker(failureThreshold, openNanos);
+			Gauge.builder("http.client.circuit.state", breaker, candidate -> candidate.getState().ordinal())
+					.tag("downstream", name).description("0 closed, 1 open, 2 half open").register(registry);
+			return breaker;
+		});
+	}
+
+	public void retried(String downstream) {
+		Counter.builder("http.client.retries").tag("downstream", downstream)
+				.description("Requests sent again after a failed attempt").register(registry).increment();
+	}
+
+	public static String name(URI uri) {
+		return uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+	}
+
+	/*
+	 * Server errors count against the circuit breaker, client errors do not:
+	 * they say nothing about the health of the downstream.
+	 */
+	public static boolean isFailure(int status) {
+		return status >= 500;
+	}
+
+}
@@ -0,0 +1,73 @@
+package host.honeycomb.room.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import host.honeycomb.room.exception.DownstreamUnavailableException;
+
+/*
+ * Applies the circuit breaker and retry policy of the downstream to every
+ * RestTemplate exchange. It must be the last interceptor, since each retry
+ * executes the request again from here.
+ */
+public class ResilienceInterceptor implements ClientHttpRequestInterceptor {
+	private final Downstreams downstreams;
+
+	public ResilienceInterceptor(Downstreams downstreams) {
+		this.downstreams = downstreams;
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		String downstream = Downstreams.name(request.getURI());
+		CircuitBreaker breaker = downstreams.circuitBreaker(downstream);
+		RetryPolicy retryPolicy = downstreams.getRetryPolicy();
+		String method = request.getMethodValue();
+		for (int attempts = 1;; attempts++) {
+			if (!breaker.tryAcquire()) {
+				throw new DownstreamUnavailableException(downstream);
+			}
+			ClientHttpResponse response;
+			try {
+				response = execution.execute(request, body);
+			} catch (IOException | RuntimeException e) {
+				breaker.onFailure();
+				if (!retryPolicy.canRetry(method, attempts)) {
+					throw e;
+				}
+				backoff(downstream, attempts);
+				continue;
+			}
+
+			int status = response.getRawStatusCode();
+			if (Downstreams.isFailure(status)) {
+				breaker.onFailure();
+			} else {
+				breaker.onSuccess();
+			}
+			if (!RetryPolicy.isRetryable(status) || !retryPolicy.canRetry(method, attempts)) {
+				return response;
+			}
+			response.close();
+			backoff(downstream, attempts);
+		}
+	}
+
+	private void backoff(String downstream, int attempts) throws InterruptedIOException {
+		downstreams.retried(downstream);
+		try {
+			TimeUnit.NANOSECONDS.sleep(downstreams.getRetryPolicy().backoffNanos(attempts));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted before retrying " + downstream);
+		}
+	}
+
+}
@@ -0,0 +1,56 @@
+package host.honeycomb.room.client;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Retries idempotent requests that failed with an I/O error or a status that
+ * says the downstream is briefly unable to answer, up to maxAttempts in all.
+ * Backoff is exponential with full jitter: a random delay between zero and
+ * baseDelay * 2^(attempt - 1), capped at maxDelay, so clients that failed
+ * together do not retry together.
+ */
+public class RetryPolicy {
+	private final int maxAttempts;
+	private final long baseDelayNanos;
+	private final long maxDelayNanos;
+
+	public RetryPolicy(int maxAttempts, long baseDelayNanos, long maxDelayNanos) {
+		this.maxAttempts = maxAttempts;
+		this.baseDelayNanos = baseDelayNanos;
+		this.maxDelayNanos = maxDelayNanos;
+	}
+
+	/*
+	 * Whether a request that has been attempted the given number of times may
+	 * be sent again.
+	 */
+	public boolean canRetry(String method, int attempts) {
+		return attempts < maxAttempts && isIdempotent(method);
+	}
+
+	public long backoffNanos(int attempts) {
+		long ceiling = baseDelayNanos << Math.min(attempts - 1, 30);
+		if (ceiling <= 0 || ceiling > maxDelayNanos) {
+			ceiling = maxDelayNanos;
+		}
+		return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+	}
+
+	public static boolean isRetryable(int status) {
+		return status == 429 || status == 502 || status == 503 || status == 504;
+	}
+
+	private static boolean isIdempotent(String method) {
+		switch (method) {
+		case "GET":
+		case "HEAD":
+		case "OPTIONS":
+		case "PUT":
+		case "DELETE":
+			return true;
+		default:
+			return false;
+		}
+	}
+
+}
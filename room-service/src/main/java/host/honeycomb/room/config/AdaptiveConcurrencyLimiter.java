@@ -0,0 +1,108 @@
+package host.honeycomb.room.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * Bounds the requests in flight by a limit that follows measured latency,
+ * additive increase and multiplicative decrease as in TCP congestion control.
+ * A request slower than the target latency cuts the limit by a tenth, at
+ * most once per target latency so one slow burst does not collapse it. The
+ * limit grows by one for every limit requests that finish within the target
+ * while at least half of it is in use. Requests over the limit are turned
+ * away at once, before they can queue for threads and connections.
+ */
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+	private static final double BACKOFF = 0.9;
+
+	private final long targetNanos;
+	private final int minLimit;
+	private final int maxLimit;
+	private final LongSupplier nanoClock;
+	private final AtomicInteger limit;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger fastSinceIncrease = new AtomicInteger();
+	private final AtomicLong lastDecrease;
+
+	private final LongAdder rejected = new LongAdder();
+
+	public AdaptiveConcurrencyLimiter(long targetNanos, int initialLimit, int minLimit, int maxLimit) {
+		this(targetNanos, initialLimit, minLimit, maxLimit, System::nanoTime);
+	}
+
+	AdaptiveConcurrencyLimiter(long targetNanos, int initialLimit, int minLimit, int maxLimit,
+			LongSupplier nanoClock) {
+		this.targetNanos = targetNanos;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.nanoClock = nanoClock;
+		this.limit = new AtomicInteger(Math.max(minLimit, Math.min(initialLimit, maxLimit)));
+		this.lastDecrease = new AtomicLong(nanoClock.getAsLong() - targetNanos);
+	}
+
+	/*
+	 * Every request let through must be released.
+	 */
+	public boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= limit.get()) {
+				rejected.increment();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/*
+	 * Releases a request whose latency says nothing about load, such as one
+	 * that went on asynchronously.
+	 */
+	public void release() {
+		inFlight.decrementAndGet();
+	}
+
+	public void release(long latencyNanos) {
+		int current = inFlight.getAndDecrement();
+		if (latencyNanos > targetNanos) {
+			long now = nanoClock.getAsLong();
+			long last = lastDecrease.get();
+			if (now - last >= targetNanos && lastDecrease.compareAndSet(last, now)) {
+				limit.updateAndGet(value -> Math.max(minLimit, (int) (value * BACKOFF)));
+				fastSinceIncrease.set(0);
+			}
+		} else if (current * 2 >= limit.get() && fastSinceIncrease.incrementAndGet() >= limit.get()) {
+			fastSinceIncrease.set(0);
+			limit.updateAndGet(value -> Math.min(maxLimit, value + 1));
+		}
+	}
+
+	public int getLimit() {
+		return limit.get();
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("room.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+				.description("Room API requests allowed in flight at once").register(registry);
+		Gauge.builder("room.concurrency.inflight", this, AdaptiveConcurrencyLimiter::getInFlight)
+				.description("Room API requests in flight").register(registry);
+		FunctionCounter.builder("room.concurrency.rejected", rejected, LongAdder::sum)
+				.description("Room API requests shed because the concurrency limit was reached")
+				.register(registry);
+	}
+
+}
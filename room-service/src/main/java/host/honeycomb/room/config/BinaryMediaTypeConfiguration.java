@@ -0,0 +1,40 @@
+package host.honeycomb.room.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/*
+ * Lets other services read and send rooms as CBOR (application/cbor) or Smile
+ * (application/x-jackson-smile) by asking for it in the Accept or
+ * Content-Type header. The mappers come from Spring Boot's builder, so they
+ * carry the same settings and RoomJson component as the JSON one. Added after
+ * the JSON converter, so JSON stays the answer to requests that accept any
+ * media type or send no Accept header.
+ */
+@Configuration(proxyBeanMethods = false)
+public class BinaryMediaTypeConfiguration implements WebMvcConfigurer {
+	private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+	public BinaryMediaTypeConfiguration(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+		this.builders = builders;
+	}
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.add(new MappingJackson2CborHttpMessageConverter(
+				builders.getObject().factory(new CBORFactory()).build()));
+		converters.add(new MappingJackson2SmileHttpMessageConverter(
+				builders.getObject().factory(new SmileFactory()).build()));
+	}
+
+}
@@ -0,0 +1,31 @@
+package host.honeycomb.room.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import host.honeycomb.room.service.impl.RoomCacheManager;
+
+/*
+ * Stands in for Spring Boot's Caffeine cache manager, configured from the
+ * same spring.cache properties, so that the room caches can check versions
+ * on put.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfiguration {
+
+	@Bean
+	public RoomCacheManager cacheManager(CacheProperties properties) {
+		RoomCacheManager cacheManager = new RoomCacheManager();
+		String specification = properties.getCaffeine().getSpec();
+		if (StringUtils.hasText(specification)) {
+			cacheManager.setCacheSpecification(specification);
+		}
+		cacheManager.setCacheNames(properties.getCacheNames());
+		return cacheManager;
+	}
+
+}
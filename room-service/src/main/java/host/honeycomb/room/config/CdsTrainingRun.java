@@ -0,0 +1,48 @@
+package host.honeycomb.room.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/*
+ * Training run for the class data sharing archive built by the fast-startup
+ * Maven profile (room.startup.training-run=true). Once the application is
+ * ready it sends itself one request, so the classes loaded lazily behind the
+ * first request are archived as well, and then exits.
+ */
+@Component
+@ConditionalOnProperty(name = "room.startup.training-run", havingValue = "true")
+public class CdsTrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		ConfigurableApplicationContext context = event.getApplicationContext();
+		int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+		try {
+			HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/rooms?limit=1")
+					.openConnection();
+			if (connection.getResponseCode() != 200) {
+				throw new IllegalStateException("Training request failed with " + connection.getResponseCode());
+			}
+			try (InputStream body = connection.getInputStream()) {
+				while (body.read() >= 0) {
+					// drain the response
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		System.exit(SpringApplication.exit(context));
+	}
+
+}
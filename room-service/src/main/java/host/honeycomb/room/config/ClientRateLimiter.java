@@ -0,0 +1,81 @@
+package host.honeycomb.room.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * A token bucket per client that refills at rate tokens a second and holds
+ * up to burst. Clients are hashed onto a fixed number of stripes, so memory
+ * stays bounded however many clients there are, at the cost of clients that
+ * share a stripe sharing its bucket. Each bucket is kept as the single
+ * timestamp at which it would be full again (the generic cell rate
+ * algorithm), so taking a token is one compare-and-set. Stripes are a cache
+ * line apart.
+ */
+public class ClientRateLimiter implements MeterBinder {
+	private static final int PADDING_SHIFT = 3;
+
+	private final long intervalNanos;
+	private final long toleranceNanos;
+	private final int stripeShift;
+	private final AtomicLongArray fullAt;
+	private final LongSupplier nanoClock;
+	private final long start;
+
+	private final LongAdder allowed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+
+	public ClientRateLimiter(double rate, int burst, int stripes) {
+		this(rate, burst, stripes, System::nanoTime);
+	}
+
+	ClientRateLimiter(double rate, int burst, int stripes, LongSupplier nanoClock) {
+		this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+		this.toleranceNanos = intervalNanos * (burst - 1);
+		int bits = 32 - Integer.numberOfLeadingZeros(Math.max(stripes, 2) - 1);
+		this.stripeShift = 32 - bits;
+		this.fullAt = new AtomicLongArray(1 << bits << PADDING_SHIFT);
+		this.nanoClock = nanoClock;
+		this.start = nanoClock.getAsLong();
+	}
+
+	/*
+	 * Takes a token from the client's bucket and answers 0, or answers how
+	 * many nanoseconds until the bucket has one, taking nothing.
+	 */
+	public long acquire(String client) {
+		int index = (client.hashCode() * 0x9E3779B9 >>> stripeShift) << PADDING_SHIFT;
+		long now = nanoClock.getAsLong() - start;
+		while (true) {
+			long full = fullAt.get(index);
+			long wait = full - toleranceNanos - now;
+			if (wait > 0) {
+				rejected.increment();
+				return wait;
+			}
+			if (fullAt.compareAndSet(index, full, Math.max(full, now) + intervalNanos)) {
+				allowed.increment();
+				return 0;
+			}
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		bindCounter(registry, "allowed", allowed);
+		bindCounter(registry, "rejected", rejected);
+	}
+
+	private static void bindCounter(MeterRegistry registry, String outcome, LongAdder counter) {
+		FunctionCounter.builder("room.ratelimit.requests", counter, LongAdder::sum).tag("outcome", outcome)
+				.description("Room API requests by whether the client's rate limit let them through")
+				.register(registry);
+	}
+
+}
@@ -0,0 +1,116 @@
+package host.honeycomb.room.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import host.honeycomb.room.client.AsyncDownstreamClient;
+import host.honeycomb.room.client.Downstreams;
+import host.honeycomb.room.client.ResilienceInterceptor;
+import host.honeycomb.room.client.RetryPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Clients for calls to other honeycomb services: a RestTemplate on a pooled
+ * blocking client and AsyncDownstreamClient on a pooled non-blocking one.
+ * Both keep connections alive, bound connections per downstream, time out
+ * connects, reads and waits for a pooled connection, and share a circuit
+ * breaker per downstream and the retry policy. Built on first injection, so
+ * instances that make no outbound calls pay nothing for them at startup.
+ */
+@Configuration(proxyBeanMethods = false)
+@Lazy
+public class HttpClientConfiguration {
+	@Value("${room.http.max-connections:200}")
+	private int maxConnections;
+	@Value("${room.http.max-connections-per-downstream:50}")
+	private int maxConnectionsPerDownstream;
+	@Value("${room.http.connect-timeout:1s}")
+	private Duration connectTimeout;
+	@Value("${room.http.read-timeout:2s}")
+	private Duration readTimeout;
+	@Value("${room.http.pool-timeout:500ms}")
+	private Duration poolTimeout;
+	@Value("${room.http.keep-alive:30s}")
+	private Duration keepAlive;
+
+	@Bean
+	public Downstreams downstreams(MeterRegistry registry,
+			@Value("${room.http.retry.max-attempts:3}") int maxAttempts,
+			@Value("${room.http.retry.base-delay:50ms}") Duration baseDelay,
+			@Value("${room.http.retry.max-delay:1s}") Duration maxDelay,
+			@Value("${room.http.circuit-breaker.failure-threshold:5}") int failureThreshold,
+			@Value("${room.http.circuit-breaker.open-duration:10s}") Duration openDuration) {
+		return new Downstreams(registry, new RetryPolicy(maxAttempts, baseDelay.toNanos(), maxDelay.toNanos()),
+				failureThreshold, openDuration.toNanos());
+	}
+
+	@Bean(destroyMethod = "close")
+	public CloseableHttpClient pooledHttpClient() {
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+				keepAlive.toMillis(), TimeUnit.MILLISECONDS);
+		connectionManager.setMaxTotal(maxConnections);
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerDownstream);
+		// Retries are left to ResilienceInterceptor, which also applies the circuit breaker
+		return HttpClients.custom().setConnectionManager(connectionManager).setDefaultRequestConfig(requestConfig())
+				.setKeepAliveStrategy((response, context) -> keepAlive.toMillis()).disableAutomaticRetries()
+				.evictIdleConnections(keepAlive.toMillis(), TimeUnit.MILLISECONDS).evictExpiredConnections().build();
+	}
+
+	/*
+	 * Built through RestTemplateBuilder, so Spring Boot times every call,
+	 * retries included, as http.client.requests tagged with the downstream
+	 * host as clientName.
+	 */
+	@Bean
+	public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient pooledHttpClient,
+			Downstreams downstreams) {
+		return builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(pooledHttpClient))
+				.additionalInterceptors(new ResilienceInterceptor(downstreams)).build();
+	}
+
+	@Bean(initMethod = "start", destroyMethod = "close")
+	public CloseableHttpAsyncClient pooledHttpAsyncClient() throws IOReactorException {
+		PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+				new DefaultConnectingIOReactor(IOReactorConfig.custom()
+						.setConnectTimeout((int) connectTimeout.toMillis())
+						.setSoTimeout((int) readTimeout.toMillis()).build()));
+		connectionManager.setMaxTotal(maxConnections);
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerDownstream);
+		return HttpAsyncClients.custom().setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig())
+				.setKeepAliveStrategy((response, context) -> keepAlive.toMillis()).build();
+	}
+
+	@Bean
+	public AsyncDownstreamClient asyncDownstreamClient(CloseableHttpAsyncClient pooledHttpAsyncClient,
+			ObjectMapper objectMapper, Downstreams downstreams, MeterRegistry registry) {
+		return new AsyncDownstreamClient(pooledHttpAsyncClient, objectMapper, downstreams, registry);
+	}
+
+	private RequestConfig requestConfig() {
+		return RequestConfig.custom().setConnectTimeout((int) connectTimeout.toMillis())
+				.setSocketTimeout((int) readTimeout.toMillis())
+				.setConnectionRequestTimeout((int) poolTimeout.toMillis()).build();
+	}
+
+}
@@ -0,0 +1,53 @@
+package host.honeycomb.room.config;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Opt-in protection for the room API against clients that send more than
+ * it can serve: per-client rate limits (room.rate-limit.enabled=true) and
+ * adaptive concurrency limiting (room.concurrency.enabled=true). Actuator
+ * endpoints are not limited.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LoadSheddingConfiguration {
+
+	@Bean
+	@ConditionalOnProperty(name = "room.rate-limit.enabled", havingValue = "true")
+	public ClientRateLimiter clientRateLimiter(@Value("${room.rate-limit.rate:50}") double rate,
+			@Value("${room.rate-limit.burst:100}") int burst,
+			@Value("${room.rate-limit.stripes:4096}") int stripes) {
+		return new ClientRateLimiter(rate, burst, stripes);
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "room.concurrency.enabled", havingValue = "true")
+	public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(
+			@Value("${room.concurrency.target-latency:100ms}") Duration targetLatency,
+			@Value("${room.concurrency.initial-limit:20}") int initialLimit,
+			@Value("${room.concurrency.min-limit:4}") int minLimit,
+			@Value("${room.concurrency.max-limit:200}") int maxLimit) {
+		return new AdaptiveConcurrencyLimiter(targetLatency.toNanos(), initialLimit, minLimit, maxLimit);
+	}
+
+	/*
+	 * Not registered unless one of the limits is on.
+	 */
+	@Bean
+	public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(Optional<ClientRateLimiter> rateLimiter,
+			Optional<AdaptiveConcurrencyLimiter> concurrencyLimiter,
+			@Value("${room.rate-limit.api-key-header:}") String apiKeyHeader) {
+		FilterRegistrationBean<LoadSheddingFilter> registration = new FilterRegistrationBean<>(
+				new LoadSheddingFilter(rateLimiter, concurrencyLimiter, apiKeyHeader));
+		registration.addUrlPatterns("/rooms/*");
+		registration.setEnabled(rateLimiter.isPresent() || concurrencyLimiter.isPresent());
+		return registration;
+	}
+
+}
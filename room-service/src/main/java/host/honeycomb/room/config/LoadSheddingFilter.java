@@ -0,0 +1,77 @@
+package host.honeycomb.room.config;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/*
+ * Turns requests away before they reach a controller: 429 once the client
+ * has spent its rate limit, and 503 once the adaptive concurrency limit is
+ * reached. Both answer with Retry-After. Clients are known by their address,
+ * which Tomcat takes from X-Forwarded-For when the request came through a
+ * trusted proxy. A client could dodge its limit by sending a new key on each
+ * request, so the API key header is only used when one is configured, for a
+ * gateway that removes the header from client requests and sets it to the
+ * key it has verified.
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter {
+	private final Optional<ClientRateLimiter> rateLimiter;
+	private final Optional<AdaptiveConcurrencyLimiter> concurrencyLimiter;
+	private final String apiKeyHeader;
+
+	public LoadSheddingFilter(Optional<ClientRateLimiter> rateLimiter,
+			Optional<AdaptiveConcurrencyLimiter> concurrencyLimiter, String apiKeyHeader) {
+		this.rateLimiter = rateLimiter;
+		this.concurrencyLimiter = concurrencyLimiter;
+		this.apiKeyHeader = apiKeyHeader;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (rateLimiter.isPresent()) {
+			String apiKey = apiKeyHeader.isEmpty() ? null : request.getHeader(apiKeyHeader);
+			long waitNanos = rateLimiter.get().acquire(apiKey != null ? apiKey : request.getRemoteAddr());
+			if (waitNanos > 0) {
+				reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos);
+				return;
+			}
+		}
+		if (!concurrencyLimiter.isPresent()) {
+			chain.doFilter(request, response);
+			return;
+		}
+		AdaptiveConcurrencyLimiter limiter = concurrencyLimiter.get();
+		if (!limiter.tryAcquire()) {
+			reject(response, HttpStatus.SERVICE_UNAVAILABLE, 0);
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			// Failures count too: under overload they are mostly timeouts waiting for a connection
+			if (request.isAsyncStarted()) {
+				limiter.release();
+			} else {
+				limiter.release(System.nanoTime() - start);
+			}
+		}
+	}
+
+	private static void reject(HttpServletResponse response, HttpStatus status, long waitNanos) {
+		long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+		response.setStatus(status.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+	}
+
+}
@@ -0,0 +1,56 @@
+package host.honeycomb.room.config;
+
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Records every invocation as a timer tagged with the component, the method
+ * name and the simple name of the exception thrown, or "none".
+ */
+public class MethodTimingInterceptor implements MethodInterceptor {
+	private final Supplier<MeterRegistry> registry;
+	private final String metricName;
+	private final String componentTag;
+	private final String component;
+
+	/*
+	 * Tags invocations with the user class of the invoked target.
+	 */
+	public MethodTimingInterceptor(Supplier<MeterRegistry> registry, String metricName, String componentTag) {
+		this(registry, metricName, componentTag, null);
+	}
+
+	public MethodTimingInterceptor(Supplier<MeterRegistry> registry, String metricName, String componentTag,
+			String component) {
+		this.registry = registry;
+		this.metricName = metricName;
+		this.componentTag = componentTag;
+		this.component = component;
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		MeterRegistry meterRegistry = registry.get();
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String exception = "none";
+		try {
+			return invocation.proceed();
+		} catch (Throwable e) {
+			exception = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			String componentName = component != null ? component
+					: ClassUtils.getUserClass(invocation.getThis().getClass()).getSimpleName();
+			sample.stop(Timer.builder(metricName).tag(componentTag, componentName)
+					.tag("method", invocation.getMethod().getName()).tag("exception", exception)
+					.register(meterRegistry));
+		}
+	}
+
+}
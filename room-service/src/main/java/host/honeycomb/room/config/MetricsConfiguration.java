@@ -0,0 +1,124 @@
+package host.honeycomb.room.config;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.function.SingletonSupplier;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import host.honeycomb.room.service.RoomService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * Timers for the service and repository layers, alongside the
+ * http.server.requests timers Spring Boot records for every endpoint.
+ * Percentile histograms are switched on per metric in application.yml.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfiguration {
+	public static final String SERVICE_METRIC = "room.service.invocations";
+	public static final String REPOSITORY_METRIC = "spring.data.repository.invocations";
+
+	/*
+	 * Static, and resolving the registry on first use, so that registering the
+	 * post processors does not initialize the registry ahead of the beans that
+	 * configure it.
+	 */
+	@Bean
+	public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+		Supplier<MeterRegistry> meterRegistry = SingletonSupplier.of(registry::getObject);
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				if (bean instanceof RepositoryFactoryBeanSupport) {
+					((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+							factory -> factory.addRepositoryProxyPostProcessor((proxyFactory,
+									repositoryInformation) -> proxyFactory.addAdvice(new MethodTimingInterceptor(
+											meterRegistry, REPOSITORY_METRIC, "repository",
+											repositoryInformation.getRepositoryInterface().getSimpleName()))));
+				}
+				return bean;
+			}
+		};
+	}
+
+	@Bean
+	public static ServiceMetricsPostProcessor serviceMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+		return new ServiceMetricsPostProcessor(SingletonSupplier.of(registry::getObject));
+	}
+
+	@Bean
+	public MeterBinder connectionPoolUtilizationMetrics(ObjectProvider<DataSource> dataSource) {
+		return registry -> dataSource.ifAvailable(candidate -> {
+			HikariDataSource hikari = DataSourceUnwrapper.unwrap(candidate, HikariDataSource.class);
+			if (hikari != null) {
+				// Hikari only names an unnamed pool when it starts, which lazy initialization may defer
+				String pool = hikari.getPoolName() != null ? hikari.getPoolName() : "default";
+				Gauge.builder("hikaricp.connections.utilization", hikari, MetricsConfiguration::utilization)
+						.tag("pool", pool)
+						.description("Share of the maximum pool size currently in use").register(registry);
+			}
+		});
+	}
+
+	private static double utilization(HikariDataSource hikari) {
+		HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+		return pool == null ? 0 : (double) pool.getActiveConnections() / hikari.getMaximumPoolSize();
+	}
+
+	/*
+	 * Times calls to the service interfaces of @Service beans, outside any
+	 * caching or transaction advice, so cache hits are measured too.
+	 */
+	public static class ServiceMetricsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+		private static final long serialVersionUID = 1L;
+
+		ServiceMetricsPostProcessor(Supplier<MeterRegistry> registry) {
+			this.advisor = new DefaultPointcutAdvisor(new ServiceMethodPointcut(),
+					new MethodTimingInterceptor(registry, SERVICE_METRIC, "service"));
+			setBeforeExistingAdvisors(true);
+			setProxyTargetClass(true);
+		}
+
+	}
+
+	private static class ServiceMethodPointcut extends StaticMethodMatcherPointcut {
+		private static final String SERVICE_PACKAGE = ClassUtils.getPackageName(RoomService.class);
+
+		@Override
+		public boolean matches(Method method, Class<?> targetClass) {
+			if (!AnnotatedElementUtils.hasAnnotation(targetClass, Service.class)) {
+				return false;
+			}
+			for (Class<?> serviceInterface : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+				if (ClassUtils.getPackageName(serviceInterface).equals(SERVICE_PACKAGE) && ReflectionUtils
+						.findMethod(serviceInterface, method.getName(), method.getParameterTypes()) != null) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+	}
+
+}
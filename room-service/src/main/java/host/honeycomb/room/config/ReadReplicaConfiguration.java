@@ -0,0 +1,68 @@
+package host.honeycomb.room.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/*
+ * Opt-in (room.replicas.enabled=true) routing of room reads to read replicas.
+ * The primary is still configured by spring.datasource, and Flyway migrates
+ * only the primary; the replicas at room.replicas.urls are expected to follow
+ * it by replication, using the same credentials. Each replica has its own
+ * Hikari pool, started on first use.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "room.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+
+	@Bean
+	@FlywayDataSource
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean
+	public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+			DataSourceProperties properties,
+			@Value("${room.replicas.urls}") String[] urls,
+			@Value("${room.replicas.maximum-pool-size:10}") int maximumPoolSize,
+			@Value("${room.replicas.max-staleness:1s}") Duration maxStaleness) {
+		List<HikariDataSource> replicas = new ArrayList<>();
+		for (String url : urls) {
+			HikariDataSource replica = new HikariDataSource();
+			replica.setPoolName(primaryDataSource.getPoolName() + "-replica-" + (replicas.size() + 1));
+			replica.setJdbcUrl(url.trim());
+			replica.setUsername(properties.determineUsername());
+			replica.setPassword(properties.determinePassword());
+			replica.setMaximumPoolSize(maximumPoolSize);
+			replica.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+			replica.setReadOnly(true);
+			replicas.add(replica);
+		}
+		return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxStaleness);
+	}
+
+	/*
+	 * What JPA and JdbcTemplate use. A transaction's connection is only taken
+	 * at its first statement, when whether it is read-only is known.
+	 */
+	@Bean
+	@Primary
+	public LazyConnectionDataSourceProxy dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+		return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+	}
+
+}
@@ -0,0 +1,111 @@
+package host.honeycomb.room.config;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import host.honeycomb.room.service.impl.CacheRefill;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * Sends read-only transactions to the replicas in turn and everything else to
+ * the primary. Spring Data runs every repository read in a read-only
+ * transaction unless it joins a writing one. Replicas may trail the primary by
+ * up to maxStaleness, so for that long after a write starts and after it ends
+ * the thread that wrote reads from the primary, and so do cache refills on
+ * any thread, so the caches evicted by a change are not refilled from a
+ * replica that has yet to see it. Other reads keep going to the replicas
+ * however often the instance writes. Needs a LazyConnectionDataSourceProxy in
+ * front, so that a transaction takes its connection once it is known to be
+ * read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder, Closeable {
+	private static final String PRIMARY = "primary";
+
+	private final List<HikariDataSource> replicas;
+	private final long maxStalenessNanos;
+	private final AtomicInteger next = new AtomicInteger();
+	private final ThreadLocal<long[]> threadWrittenAt;
+	private volatile long writtenAt;
+
+	private final LongAdder replicaReads = new LongAdder();
+	private final LongAdder primaryReads = new LongAdder();
+
+	public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, Duration maxStaleness) {
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		for (int i = 0; i < replicas.size(); i++) {
+			targets.put(i, replicas.get(i));
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		this.replicas = replicas;
+		this.maxStalenessNanos = maxStaleness.toNanos();
+		this.writtenAt = System.nanoTime() - maxStalenessNanos;
+		this.threadWrittenAt = ThreadLocal.withInitial(() -> new long[] { writtenAt });
+	}
+
+	@Override
+	public void close() {
+		replicas.forEach(HikariDataSource::close);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		// Hikari only takes a registry before the pool starts, which waits for the first replica read
+		replicas.forEach(replica -> replica.setMetricRegistry(registry));
+		bindCounter(registry, "replica", replicaReads);
+		bindCounter(registry, "primary", primaryReads);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			return PRIMARY;
+		}
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			written();
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					written();
+				}
+			});
+			return PRIMARY;
+		}
+		long now = System.nanoTime();
+		if (now - threadWrittenAt.get()[0] < maxStalenessNanos
+				|| CacheRefill.isActive() && now - writtenAt < maxStalenessNanos) {
+			primaryReads.increment();
+			return PRIMARY;
+		}
+		replicaReads.increment();
+		return Math.floorMod(next.getAndIncrement(), replicas.size());
+	}
+
+	private void written() {
+		long now = System.nanoTime();
+		threadWrittenAt.get()[0] = now;
+		writtenAt = now;
+	}
+
+	private static void bindCounter(MeterRegistry registry, String target, LongAdder counter) {
+		FunctionCounter.builder("room.datasource.reads", counter, LongAdder::sum).tag("target", target)
+				.description("Read-only transactions by the datasource they were sent to").register(registry);
+	}
+
+}
@@ -0,0 +1,57 @@
+package host.honeycomb.room.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/*
+ * Opt-in mode (room.web.virtual-threads=true) that runs every Tomcat request,
+ * and the async work behind streamed responses, on its own virtual thread.
+ * Concurrency is then bounded by the Hikari pool rather than by Tomcat's
+ * worker pool. Needs Java 21 or later at runtime; startup fails otherwise.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "room.web.virtual-threads", havingValue = "true")
+public class VirtualThreadConfiguration implements WebMvcConfigurer {
+
+	private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+		return protocolHandler -> protocolHandler.setExecutor(executor);
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService virtualThreadExecutor() {
+		return executor;
+	}
+
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+	}
+
+	/*
+	 * Looked up reflectively so the service still compiles for and runs on
+	 * Java 8 when this mode is off.
+	 */
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("room.web.virtual-threads requires Java 21 or later, running on "
+					+ System.getProperty("java.version"), e);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Could not create a virtual thread executor", e);
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+package host.honeycomb.room.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomAvailability;
+import host.honeycomb.room.service.RoomAvailabilityService;
+import host.honeycomb.room.service.RoomService;
+
+/*
+ * Stays run from check-in (from) up to check-out (to), which must start
+ * today or later and end within room.availability.horizon-days. Holds and
+ * bookings answer 409 Conflict when a night of the stay is taken.
+ */
+@RestController
+@RequestMapping("/rooms")
+public class RoomAvailabilityController {
+	private RoomService service;
+	private RoomAvailabilityService availabilityService;
+
+	public RoomAvailabilityController(RoomService service, RoomAvailabilityService availabilityService) {
+		this.service = service;
+		this.availabilityService = availabilityService;
+	}
+
+	@GetMapping("/{id}/availability")
+	public ResponseEntity<RoomAvailability> getAvailability(@PathVariable long id,
+			@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return apply(id, from, to, () -> true);
+	}
+
+	@PostMapping("/{id}/holds")
+	public ResponseEntity<RoomAvailability> holdRoom(@PathVariable long id,
+			@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return apply(id, from, to, () -> availabilityService.hold(id, from, to));
+	}
+
+	@PostMapping("/{id}/bookings")
+	public ResponseEntity<RoomAvailability> bookRoom(@PathVariable long id,
+			@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return apply(id, from, to, () -> availabilityService.book(id, from, to));
+	}
+
+	@PostMapping("/{id}/release")
+	public ResponseEntity<RoomAvailability> releaseRoom(@PathVariable long id,
+			@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return apply(id, from, to, () -> {
+			availabilityService.release(id, from, to);
+			return true;
+		});
+	}
+
+	@GetMapping("/search/available")
+	public ResponseEntity<List<Room>> findAvailableRooms(@RequestParam("floor") String floor,
+			@RequestParam(value = "roomType", required = false) String roomType,
+			@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		if (!availabilityService.isBookable(from, to)) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(availabilityService.findAvailableRooms(floor, roomType, from, to));
+	}
+
+	/*
+	 * Answers with the availability of the stay after the change, or as it is
+	 * when the change could not be made.
+	 */
+	private ResponseEntity<RoomAvailability> apply(long id, LocalDate from, LocalDate to, BooleanSupplier change) {
+		if (!availabilityService.isBookable(from, to)) {
+			return ResponseEntity.badRequest().build();
+		}
+		if (!service.findRoom(id).isPresent()) {
+			return ResponseEntity.notFound().build();
+		}
+		HttpStatus status = change.getAsBoolean() ? HttpStatus.OK : HttpStatus.CONFLICT;
+		return ResponseEntity.status(status).body(availabilityService.getAvailability(id, from, to));
+	}
+
+}
@@ -0,0 +1,139 @@
+package host.honeycomb.room.controller;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import host.honeycomb.room.model.RoomChange;
+import host.honeycomb.room.model.RoomChangeBatch;
+import host.honeycomb.room.service.RoomChangeFeed;
+
+/*
+ * The room change feed, for services that cache rooms. Consumers take a
+ * snapshot, note the feed's offset and then follow the changes after it,
+ * either by polling GET /rooms/changes (with wait, a long poll) or on the
+ * Server-Sent Events stream. Neither holds a request thread while waiting.
+ * Offsets ahead of the feed answer 400 and offsets whose changes are no
+ * longer retained 410 Gone: the consumer has to take a new snapshot.
+ */
+@RestController
+@RequestMapping("/rooms/changes")
+@ConditionalOnProperty(name = "room.changes.feed", havingValue = "true")
+public class RoomChangeController {
+	private RoomChangeFeed feed;
+	private ObjectMapper objectMapper;
+	private final int batchSize;
+	private final long maxWaitSeconds;
+	private final long streamTimeoutMillis;
+	private final long heartbeatMillis;
+	private final ScheduledExecutorService streams;
+
+	public RoomChangeController(RoomChangeFeed feed, ObjectMapper objectMapper,
+			@Value("${room.changes.batch-size:500}") int batchSize,
+			@Value("${room.changes.max-wait:30s}") Duration maxWait,
+			@Value("${room.changes.stream-timeout:10m}") Duration streamTimeout,
+			@Value("${room.changes.heartbeat:15s}") Duration heartbeat,
+			@Value("${room.changes.stream-threads:2}") int streamThreads) {
+		this.feed = feed;
+		this.objectMapper = objectMapper;
+		this.batchSize = batchSize;
+		this.maxWaitSeconds = maxWait.getSeconds();
+		this.streamTimeoutMillis = streamTimeout.toMillis();
+		this.heartbeatMillis = heartbeat.toMillis();
+		// Not a bean: an Executor bean would stand in for Spring Boot's applicationTaskExecutor
+		this.streams = Executors.newScheduledThreadPool(streamThreads, task -> {
+			Thread thread = new Thread(task, "room-change-stream");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	public void close() {
+		streams.shutdownNow();
+	}
+
+	/*
+	 * Up to limit changes after the offset, by default the feed's current
+	 * end. With no changes yet, waits up to wait seconds (at most
+	 * room.changes.max-wait) for some before answering with none.
+	 */
+	@GetMapping
+	public DeferredResult<ResponseEntity<RoomChangeBatch>> getChanges(
+			@RequestParam(value = "after", required = false) Long after,
+			@RequestParam(value = "limit", required = false) Integer limit,
+			@RequestParam(value = "wait", defaultValue = "0") long wait) {
+		long from = after == null ? feed.getLastOffset() : after;
+		int count = limit == null ? batchSize : Math.min(limit, batchSize);
+		long waitSeconds = Math.min(wait, maxWaitSeconds);
+		HttpStatus rejected = count < 1 ? HttpStatus.BAD_REQUEST : check(from);
+		if (rejected != null) {
+			return completed(ResponseEntity.status(rejected).build());
+		}
+		if (waitSeconds <= 0) {
+			return completed(batch(from, count));
+		}
+
+		DeferredResult<ResponseEntity<RoomChangeBatch>> result = new DeferredResult<>(waitSeconds * 1000,
+				() -> batch(from, count));
+		Runnable unregister = feed.onChangesAfter(from, () -> result.setResult(batch(from, count)));
+		result.onCompletion(unregister);
+		return result;
+	}
+
+	/*
+	 * Streams changes after the Last-Event-ID header, the after parameter or,
+	 * without either, the feed's current end.
+	 */
+	@GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> streamChanges(
+			@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+			@RequestParam(value = "after", required = false) Long after) {
+		long from = lastEventId != null ? lastEventId : after != null ? after : feed.getLastOffset();
+		HttpStatus rejected = check(from);
+		if (rejected != null) {
+			return ResponseEntity.status(rejected).build();
+		}
+		SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+		new RoomChangeStream(feed, emitter, streams, objectMapper, batchSize, from).start(heartbeatMillis);
+		return ResponseEntity.ok(emitter);
+	}
+
+	private HttpStatus check(long after) {
+		if (after < 0 || after > feed.getLastOffset()) {
+			return HttpStatus.BAD_REQUEST;
+		}
+		return after < feed.getFirstOffset() - 1 ? HttpStatus.GONE : null;
+	}
+
+	private static <T> DeferredResult<T> completed(T value) {
+		DeferredResult<T> result = new DeferredResult<>();
+		result.setResult(value);
+		return result;
+	}
+
+	private ResponseEntity<RoomChangeBatch> batch(long after, int limit) {
+		List<RoomChange> changes = feed.read(after, limit);
+		long next = changes.isEmpty() ? after : changes.get(changes.size() - 1).getOffset();
+		return ResponseEntity.ok(new RoomChangeBatch(changes, next));
+	}
+
+}
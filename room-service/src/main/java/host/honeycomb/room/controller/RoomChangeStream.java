@@ -0,0 +1,192 @@
+package host.honeycomb.room.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import host.honeycomb.room.model.RoomChange;
+import host.honeycomb.room.service.RoomChangeFeed;
+
+/*
+ * Sends the room change feed to one Server-Sent Events client from a cursor.
+ * The stream waits on the feed without holding a thread. When changes arrive
+ * it sends up to batch-size of them as one write on the shared stream
+ * executor, then waits again, so a busy feed reaches each client in batches
+ * and a slow client only ever has one batch in flight. Each event has the
+ * change's offset as its id, so a reconnecting EventSource resumes with
+ * Last-Event-ID. A comment is sent every heartbeat to keep idle connections
+ * open and notice clients that have gone.
+ */
+final class RoomChangeStream {
+	private final RoomChangeFeed feed;
+	private final SseEmitter emitter;
+	private final ScheduledExecutorService executor;
+	private final ObjectMapper objectMapper;
+	private final int batchSize;
+	private final AtomicBoolean sending = new AtomicBoolean();
+	private volatile long cursor;
+	private volatile boolean closed;
+	private volatile Runnable unregister = () -> {
+	};
+	private ScheduledFuture<?> heartbeat;
+
+	RoomChangeStream(RoomChangeFeed feed, SseEmitter emitter, ScheduledExecutorService executor,
+			ObjectMapper objectMapper, int batchSize, long after) {
+		this.feed = feed;
+		this.emitter = emitter;
+		this.executor = executor;
+		this.objectMapper = objectMapper;
+		this.batchSize = batchSize;
+		this.cursor = after;
+	}
+
+	void start(long heartbeatMillis) {
+		emitter.onCompletion(this::close);
+		emitter.onTimeout(this::close);
+		emitter.onError(e -> close());
+		heartbeat = executor.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis,
+				TimeUnit.MILLISECONDS);
+		await();
+	}
+
+	private void await() {
+		unregister = feed.onChangesAfter(cursor, this::schedule);
+	}
+
+	private void schedule() {
+		if (!closed && sending.compareAndSet(false, true)) {
+			executor.execute(this::send);
+		}
+	}
+
+	private void send() {
+		try {
+			List<RoomChange> changes = feed.read(cursor, batchSize);
+			if (!changes.isEmpty()) {
+				RenderedEvents events = new RenderedEvents(objectMapper);
+				for (RoomChange change : changes) {
+					events.id(String.valueOf(change.getOffset())).name("room").data(change).next();
+				}
+				emitter.send(events);
+				cursor = changes.get(changes.size() - 1).getOffset();
+			}
+		} catch (IOException | RuntimeException e) {
+			close();
+			emitter.completeWithError(e);
+			return;
+		} finally {
+			sending.set(false);
+		}
+		if (!closed) {
+			await();
+		}
+	}
+
+	private void heartbeat() {
+		try {
+			emitter.send(SseEmitter.event().comment(""));
+		} catch (IOException | RuntimeException e) {
+			close();
+			emitter.completeWithError(e);
+		}
+	}
+
+	private void close() {
+		closed = true;
+		unregister.run();
+		if (heartbeat != null) {
+			heartbeat.cancel(false);
+		}
+	}
+
+	/*
+	 * Events rendered to one string ahead of time. SseEmitter's own builder
+	 * writes and flushes every field of every event separately. Fields are
+	 * appended to the event being built, next() ends it, and data other than
+	 * text is written as JSON.
+	 */
+	private static final class RenderedEvents implements SseEmitter.SseEventBuilder {
+		private final ObjectMapper objectMapper;
+		private final StringBuilder text = new StringBuilder();
+		private boolean pending;
+
+		RenderedEvents(ObjectMapper objectMapper) {
+			this.objectMapper = objectMapper;
+		}
+
+		RenderedEvents next() {
+			if (pending) {
+				text.append('\n');
+				pending = false;
+			}
+			return this;
+		}
+
+		@Override
+		public Set<DataWithMediaType> build() {
+			next();
+			return Collections.singleton(new DataWithMediaType(text.toString(), MediaType.TEXT_PLAIN));
+		}
+
+		@Override
+		public RenderedEvents id(String id) {
+			return field("id", id);
+		}
+
+		@Override
+		public RenderedEvents name(String eventName) {
+			return field("event", eventName);
+		}
+
+		@Override
+		public RenderedEvents reconnectTime(long reconnectTimeMillis) {
+			return field("retry", String.valueOf(reconnectTimeMillis));
+		}
+
+		@Override
+		public RenderedEvents comment(String comment) {
+			return field("", comment);
+		}
+
+		@Override
+		public RenderedEvents data(Object object) {
+			return data(object, null);
+		}
+
+		@Override
+		public RenderedEvents data(Object object, MediaType mediaType) {
+			String data;
+			try {
+				data = object instanceof CharSequence ? object.toString() : objectMapper.writeValueAsString(object);
+			} catch (JsonProcessingException e) {
+				throw new UncheckedIOException(e);
+			}
+			// A line break would end the field, so each line is a data field of its own
+			for (String line : data.split("\r\n|\r|\n", -1)) {
+				field("data", line);
+			}
+			return this;
+		}
+
+		private RenderedEvents field(String name, String value) {
+			text.append(name).append(':').append(value).append('\n');
+			pending = true;
+			return this;
+		}
+
+	}
+
+}
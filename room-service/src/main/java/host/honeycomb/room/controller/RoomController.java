@@ -1,64 +1,245 @@
 package host.honeycomb.room.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import host.honeycomb.room.model.CompressedListing;
 import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomBatchRequest;
+import host.honeycomb.room.model.RoomBatchResult;
+import host.honeycomb.room.model.RoomImportResult;
+import host.honeycomb.room.model.RoomQuote;
+import host.honeycomb.room.model.RoomQuoteRequest;
+import host.honeycomb.room.model.RoomQuoteResult;
+import host.honeycomb.room.model.RoomSearchCriteria;
+import host.honeycomb.room.service.RoomImportService;
+import host.honeycomb.room.service.RoomListingCache;
+import host.honeycomb.room.service.RoomQuoteService;
 import host.honeycomb.room.service.RoomService;
+import host.honeycomb.room.service.RoomUpdateQueue;
 
 @RestController
 @RequestMapping("/rooms")
 public class RoomController {
+	static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+	static final String TEXT_CSV_VALUE = "text/csv";
+	static final int DEFAULT_PAGE_SIZE = 100;
+	static final int MAX_PAGE_SIZE = 1000;
+	static final int MAX_BATCH_SIZE = 500;
+	static final int MAX_QUOTE_SIZE = 1000;
+	/*
+	 * The media types rooms are written as, in the order of their message
+	 * converters.
+	 */
+	static final List<MediaType> REPRESENTATIONS = Arrays.asList(MediaType.APPLICATION_JSON,
+			MediaType.APPLICATION_CBOR, MediaType.valueOf("application/x-jackson-smile"));
+	static final Set<String> SORTABLE_PROPERTIES = new HashSet<>(
+			Arrays.asList("id", "roomNumber", "weekdayPrice", "weekendPrice", "roomType", "floor"));
+
 	private RoomService service;
+	private RoomImportService importService;
+	private RoomQuoteService quoteService;
+	private ObjectMapper objectMapper;
+	private Optional<RoomUpdateQueue> updateQueue;
+	private Optional<RoomListingCache> listingCache;
 
-	public RoomController(RoomService service) {
+	public RoomController(RoomService service, RoomImportService importService, RoomQuoteService quoteService,
+			ObjectMapper objectMapper, Optional<RoomUpdateQueue> updateQueue, Optional<RoomListingCache> listingCache) {
 		this.service = service;
+		this.importService = importService;
+		this.quoteService = quoteService;
+		this.objectMapper = objectMapper;
+		this.updateQueue = updateQueue;
+		this.listingCache = listingCache;
 	}
 
 	@GetMapping
-	public ResponseEntity<Iterable<Room>> getAllRooms() {
+	public ResponseEntity<List<Room>> getAllRooms(@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		Long afterId = decodeCursor(cursor);
+		if (afterId == null || limit < 1) {
+			return ResponseEntity.badRequest().build();
+		}
+		int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+
+		// Fetch one extra row to find out whether there is a next page
+		List<Room> rooms = service.findRoomsAfter(afterId, pageSize + 1);
+		HttpHeaders headers = new HttpHeaders();
+		if (rooms.size() > pageSize) {
+			rooms = rooms.subList(0, pageSize);
+			String next = UriComponentsBuilder.fromPath("/rooms")
+					.queryParam("cursor", encodeCursor(rooms.get(pageSize - 1).getId()))
+					.queryParam("limit", pageSize).toUriString();
+			headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+		}
+
 		try {
-			return ResponseEntity.ok().location((new URI("/rooms"))).body(service.getAllRooms());
+			return conditional(ResponseEntity.ok().location((new URI("/rooms"))).headers(headers), rooms, accept)
+					.body(rooms);
 		} catch (URISyntaxException e) {
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 		}
 	}
 
+	@GetMapping(produces = APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAllRooms(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+			WebRequest request) {
+		if (listingCache.isPresent() && acceptsGzip(acceptEncoding)) {
+			CompressedListing listing = listingCache.get().getNdjsonListing();
+			// Streamed bodies skip Spring's conditional request handling, so check here
+			if (request.checkNotModified(listing.getETag())) {
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+			}
+			// Already compressed, so Tomcat's compression leaves it alone
+			byte[] gzipBody = listing.getGzipBody();
+			return ResponseEntity.ok().header(HttpHeaders.CONTENT_TYPE, APPLICATION_NDJSON_VALUE)
+					.header(HttpHeaders.CONTENT_ENCODING, "gzip").varyBy(HttpHeaders.ACCEPT_ENCODING)
+					.eTag(listing.getETag()).contentLength(gzipBody.length).body(out -> out.write(gzipBody));
+		}
+		StreamingResponseBody body = out -> {
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+				generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+				service.forEachRoom(room -> {
+					try {
+						generator.writeObject(room);
+						generator.writeRaw('\n');
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		};
+		return ResponseEntity.ok().header(HttpHeaders.CONTENT_TYPE, APPLICATION_NDJSON_VALUE)
+				.varyBy(HttpHeaders.ACCEPT_ENCODING).body(body);
+	}
+
 	@GetMapping("/{id}")
-	public ResponseEntity<?> findRoomById(@PathVariable long id) {
+	public ResponseEntity<?> findRoomById(@PathVariable long id,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 		return service.findRoom(id).map(room -> {
 			try {
-				return ResponseEntity.ok().location(new URI("/rooms/" + room.getId())).body(room);
+				return conditional(ResponseEntity.ok().location(new URI("/rooms/" + room.getId())), room, accept)
+						.body(room);
 			} catch (URISyntaxException e) {
 				return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 			}
 		}).orElse(ResponseEntity.notFound().build());
 	}
 
+	@GetMapping("/{id}/quote")
+	public ResponseEntity<RoomQuote> quoteRoom(@PathVariable long id,
+			@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		if (!to.isAfter(from)) {
+			return ResponseEntity.badRequest().build();
+		}
+		return quoteService.quoteRoom(id, from, to).map(ResponseEntity::ok)
+				.orElse(ResponseEntity.notFound().build());
+	}
+
+	@PostMapping("/quote")
+	public ResponseEntity<RoomQuoteResult> quoteRooms(@RequestBody RoomQuoteRequest request) {
+		if (request.getFrom() == null || request.getTo() == null || !request.getTo().isAfter(request.getFrom())
+				|| request.getIds().size() > MAX_QUOTE_SIZE) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(quoteService.quoteRooms(request.getIds(), request.getFrom(), request.getTo()));
+	}
+
 	@GetMapping("/search/byRoomNumber")
 	public ResponseEntity<?> findRoomByRoomNumber(
-			@RequestParam(value = "roomNumber", required = false) String roomNumber) {
+			@RequestParam(value = "roomNumber", required = false) String roomNumber,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 		return service.findByRoomNumber(roomNumber).map(room -> {
 			try {
-				return ResponseEntity.ok().location(new URI("/rooms/" + room.getId())).body(room);
+				return conditional(ResponseEntity.ok().location(new URI("/rooms/" + room.getId())), room, accept)
+						.body(room);
 			} catch (URISyntaxException e) {
 				return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 			}
 		}).orElse(ResponseEntity.notFound().build());
 	}
 
+	/*
+	 * Filters on any of floor, roomType, min/maxWeekdayPrice and
+	 * min/maxWeekendPrice, sorted by a comma separated list of properties,
+	 * each prefixed with - to sort descending.
+	 */
+	@GetMapping("/search")
+	public ResponseEntity<List<Room>> searchRooms(RoomSearchCriteria criteria,
+			@RequestParam(value = "sort", required = false) List<String> sort,
+			@RequestParam(value = "page", defaultValue = "0") int page,
+			@RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+			@RequestParam MultiValueMap<String, String> parameters,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		Sort order = parseSort(sort);
+		int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+		// The query's first row is an int, so pages past it cannot be read
+		if (order == null || page < 0 || limit < 1 || (long) page * pageSize > Integer.MAX_VALUE) {
+			return ResponseEntity.badRequest().build();
+		}
+
+		Slice<Room> rooms = service.searchRooms(criteria, PageRequest.of(page, pageSize, order));
+		HttpHeaders headers = new HttpHeaders();
+		if (rooms.hasNext()) {
+			String next = UriComponentsBuilder.fromPath("/rooms/search").queryParams(parameters)
+					.replaceQueryParam("page", page + 1).replaceQueryParam("limit", pageSize).encode().toUriString();
+			headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+		}
+		return conditional(ResponseEntity.ok().headers(headers), rooms.getContent(), accept).body(rooms.getContent());
+	}
+
+	@GetMapping("/search/byFloor")
+	public ResponseEntity<List<Room>> findRoomsByFloor(@RequestParam("floor") String floor,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		List<Room> rooms = service.findRoomsByFloor(floor);
+		return conditional(ResponseEntity.ok(), rooms, accept).body(rooms);
+	}
+
 	@PostMapping
 	public ResponseEntity<?> addRoom(Room room) {
 		Room newRoom = service.addRoom(room);
@@ -70,23 +251,229 @@ public class RoomController {
 		}
 	}
 
+	@PostMapping("/batch")
+	public ResponseEntity<RoomBatchResult> findRooms(@RequestBody RoomBatchRequest request) {
+		if (request.getIds().size() + request.getRoomNumbers().size() > MAX_BATCH_SIZE) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(service.findRooms(request.getIds(), request.getRoomNumbers()));
+	}
+
+	@PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<RoomImportResult> importRoomsFromJson(InputStream body) throws IOException {
+		return ResponseEntity.ok(importService.importJson(body));
+	}
+
+	@PostMapping(value = "/bulk", consumes = TEXT_CSV_VALUE)
+	public ResponseEntity<RoomImportResult> importRoomsFromCsv(InputStream body) throws IOException {
+		return ResponseEntity.ok(importService.importCsv(body));
+	}
+
 	@PutMapping("/{id}")
-	public ResponseEntity<?> updateRoom(@RequestBody Room room, @PathVariable long id) {
+	public ResponseEntity<?> updateRoom(@RequestBody Room room, @PathVariable long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 		// Get the room with the specified id
 		Optional<Room> existingRoom = service.findRoom(id);
 		if (!existingRoom.isPresent()) {
 			return ResponseEntity.notFound().build();
 		}
+		// Any representation's entity tag identifies the version being replaced
+		Room current = existingRoom.get();
+		if (ifMatch != null && REPRESENTATIONS.stream().noneMatch(type -> matches(ifMatch, eTag(current, type)))) {
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+		}
 
-		// Update the room
 		room.setId(id);
-		room = service.updateRoom(room);
+		room.setVersion(existingRoom.get().getVersion());
+		// A queued update is written over whatever version the row has by then, so conditional ones are not queued
+		if (updateQueue.isPresent() && ifMatch == null) {
+			return queueUpdate(room);
+		}
+
+		// Update the room, failing if it changed since the version we checked
+		try {
+			room = service.updateRoom(room);
+		} catch (OptimisticLockingFailureException e) {
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+		}
 
 		try {
 			// Return a 200 response with the updated room
-			return ResponseEntity.ok().location(new URI("/rooms/" + room.getId())).body(room);
+			return conditional(ResponseEntity.ok().location(new URI("/rooms/" + room.getId())), room, accept)
+					.body(room);
+		} catch (URISyntaxException e) {
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+
+	/*
+	 * With write-behind enabled, updates without If-Match are queued and the
+	 * last update queued for a room wins.
+	 */
+	private ResponseEntity<?> queueUpdate(Room room) {
+		if (!updateQueue.get().offer(room)) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+		}
+		try {
+			// Return a 202 response, the room is written in a later batch
+			return ResponseEntity.accepted().location(new URI("/rooms/" + room.getId())).body(room);
 		} catch (URISyntaxException e) {
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 		}
 	}
+
+	/*
+	 * Returns null when a property is not one rooms can be sorted by.
+	 */
+	static Sort parseSort(List<String> properties) {
+		Sort sort = Sort.unsorted();
+		if (properties == null) {
+			return sort;
+		}
+		for (String property : properties) {
+			boolean descending = property.startsWith("-");
+			String name = descending ? property.substring(1) : property;
+			if (!SORTABLE_PROPERTIES.contains(name)) {
+				return null;
+			}
+			sort = sort.and(descending ? Sort.by(name).descending() : Sort.by(name));
+		}
+		return sort;
+	}
+
+	/*
+	 * The room's version, suffixed with the representation unless it is JSON,
+	 * since the JSON, CBOR and Smile bodies of a version are different bytes.
+	 */
+	static String eTag(Room room, MediaType representation) {
+		return "\"" + room.getVersion() + suffix(representation) + "\"";
+	}
+
+	/*
+	 * Derived from the id and version of every room, in order, so it changes
+	 * whenever a room in the list is added, removed or updated. Weak, since
+	 * the same list is sent gzip-compressed or not (Tomcat does not compress
+	 * responses with a strong ETag), and lists are never used with If-Match.
+	 */
+	static String eTag(List<Room> rooms, MediaType representation) {
+		long hash = 1;
+		for (Room room : rooms) {
+			hash = 31 * hash + room.getId();
+			hash = 31 * hash + room.getVersion();
+		}
+		return "W/\"" + Long.toHexString(hash) + "-" + rooms.size() + suffix(representation) + "\"";
+	}
+
+	private static String suffix(MediaType representation) {
+		return representation.equals(MediaType.APPLICATION_JSON) ? "" : "+" + representation.getSubtype();
+	}
+
+	/*
+	 * The representation content negotiation will pick for an Accept header,
+	 * out of those the message converters write rooms as, in their order.
+	 */
+	static MediaType representation(String accept) {
+		if (accept == null) {
+			return MediaType.APPLICATION_JSON;
+		}
+		List<MediaType> accepted;
+		try {
+			accepted = MediaType.parseMediaTypes(accept);
+		} catch (InvalidMediaTypeException e) {
+			// Answered with 406 Not Acceptable once the body is written
+			return MediaType.APPLICATION_JSON;
+		}
+		MediaType.sortBySpecificityAndQuality(accepted);
+		for (MediaType type : accepted) {
+			if (type.getQualityValue() > 0) {
+				for (MediaType representation : REPRESENTATIONS) {
+					if (type.isCompatibleWith(representation)) {
+						return representation;
+					}
+				}
+			}
+		}
+		return MediaType.APPLICATION_JSON;
+	}
+
+	/*
+	 * Strong comparison against an If-Match header, which may list several
+	 * entity tags or be "*".
+	 */
+	static boolean matches(String ifMatch, String eTag) {
+		for (String candidate : ifMatch.split(",")) {
+			String trimmed = candidate.trim();
+			if (trimmed.equals("*") || trimmed.equals(eTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * Spring answers GET requests with 304 Not Modified, without writing the
+	 * body, when the If-None-Match or If-Modified-Since request headers match
+	 * these validators. The body depends on the Accept header, so caches are
+	 * told to key on it too.
+	 */
+	private static ResponseEntity.BodyBuilder conditional(ResponseEntity.BodyBuilder builder, Room room,
+			String accept) {
+		return lastModified(builder.eTag(eTag(room, representation(accept))).varyBy(HttpHeaders.ACCEPT),
+				room.getLastModified());
+	}
+
+	private static ResponseEntity.BodyBuilder conditional(ResponseEntity.BodyBuilder builder, List<Room> rooms,
+			String accept) {
+		Instant lastModified = rooms.stream().map(Room::getLastModified).filter(Objects::nonNull)
+				.max(Comparator.naturalOrder()).orElse(null);
+		return lastModified(builder.eTag(eTag(rooms, representation(accept))).varyBy(HttpHeaders.ACCEPT),
+				lastModified);
+	}
+
+	private static ResponseEntity.BodyBuilder lastModified(ResponseEntity.BodyBuilder builder, Instant lastModified) {
+		return lastModified == null ? builder : builder.lastModified(lastModified);
+	}
+
+	/*
+	 * Whether an Accept-Encoding header lists gzip, or *, without q=0.
+	 */
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parameters = coding.split(";");
+			String name = parameters[0].trim();
+			if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+				for (int i = 1; i < parameters.length; i++) {
+					if (parameters[i].replace(" ", "").matches("q=0(\\.0*)?")) {
+						return false;
+					}
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+	static String encodeCursor(long id) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/*
+	 * Returns the id the next page starts after, 0 for the first page, or null
+	 * when the cursor is not one we handed out.
+	 */
+	static Long decodeCursor(String cursor) {
+		if (cursor == null || cursor.isEmpty()) {
+			return 0L;
+		}
+		try {
+			long id = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+			return id < 0 ? null : id;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
 }
@@ -0,0 +1,90 @@
+package host.honeycomb.room.controller;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import host.honeycomb.room.model.RoomReservation;
+import host.honeycomb.room.service.RoomAvailabilityService;
+import host.honeycomb.room.service.RoomReservationService;
+import host.honeycomb.room.service.RoomService;
+
+/*
+ * Checkout reservations. A reservation is taken for a stay with the same
+ * rules as holds, then confirmed or cancelled by id before it expires.
+ * Confirming one that has ended answers 410 Gone. Cancelling one that is
+ * confirmed, or being confirmed, answers 409 Conflict.
+ */
+@RestController
+@RequestMapping("/rooms")
+public class RoomReservationController {
+	private RoomService service;
+	private RoomAvailabilityService availabilityService;
+	private RoomReservationService reservationService;
+
+	public RoomReservationController(RoomService service, RoomAvailabilityService availabilityService,
+			RoomReservationService reservationService) {
+		this.service = service;
+		this.availabilityService = availabilityService;
+		this.reservationService = reservationService;
+	}
+
+	@PostMapping("/{id}/reservations")
+	public ResponseEntity<RoomReservation> reserveRoom(@PathVariable long id,
+			@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		if (!availabilityService.isBookable(from, to)) {
+			return ResponseEntity.badRequest().build();
+		}
+		if (!service.findRoom(id).isPresent()) {
+			return ResponseEntity.notFound().build();
+		}
+		Optional<RoomReservation> reservation = reservationService.reserve(id, from, to);
+		if (!reservation.isPresent()) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
+		return ResponseEntity.created(URI.create("/rooms/reservations/" + reservation.get().getId()))
+				.body(reservation.get());
+	}
+
+	@GetMapping("/reservations/{reservationId}")
+	public ResponseEntity<RoomReservation> getReservation(@PathVariable String reservationId) {
+		return ResponseEntity.of(reservationService.getReservation(reservationId));
+	}
+
+	@PostMapping("/reservations/{reservationId}/confirm")
+	public ResponseEntity<RoomReservation> confirmReservation(@PathVariable String reservationId) {
+		return reservationService.confirm(reservationId).map(reservation -> {
+			switch (reservation.getStatus()) {
+			case CONFIRMED:
+				return ResponseEntity.ok(reservation);
+			case PENDING:
+				// Another confirmation of it is being written
+				return ResponseEntity.status(HttpStatus.CONFLICT).body(reservation);
+			default:
+				return ResponseEntity.status(HttpStatus.GONE).body(reservation);
+			}
+		}).orElse(ResponseEntity.notFound().build());
+	}
+
+	@DeleteMapping("/reservations/{reservationId}")
+	public ResponseEntity<RoomReservation> cancelReservation(@PathVariable String reservationId) {
+		return reservationService.cancel(reservationId).map(reservation -> {
+			boolean ended = reservation.getStatus() == RoomReservation.Status.CANCELLED
+					|| reservation.getStatus() == RoomReservation.Status.EXPIRED;
+			return ResponseEntity.status(ended ? HttpStatus.OK : HttpStatus.CONFLICT).body(reservation);
+		}).orElse(ResponseEntity.notFound().build());
+	}
+
+}
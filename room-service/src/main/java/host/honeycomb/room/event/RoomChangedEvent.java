@@ -0,0 +1,35 @@
+package host.honeycomb.room.event;
+
+import host.honeycomb.room.model.Room;
+
+/*
+ * Published whenever a room is added or updated. previousRoomNumber is the
+ * room number before the change, null for a newly added room but also for an
+ * updated room that had no number, so whether the room was added is told
+ * apart by the added flag.
+ */
+public class RoomChangedEvent {
+
+	private final Room room;
+	private final String previousRoomNumber;
+	private final boolean added;
+
+	public RoomChangedEvent(Room room, String previousRoomNumber, boolean added) {
+		this.room = room;
+		this.previousRoomNumber = previousRoomNumber;
+		this.added = added;
+	}
+
+	public Room getRoom() {
+		return room;
+	}
+
+	public String getPreviousRoomNumber() {
+		return previousRoomNumber;
+	}
+
+	public boolean isAdded() {
+		return added;
+	}
+
+}
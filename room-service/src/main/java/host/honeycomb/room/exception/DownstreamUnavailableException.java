@@ -0,0 +1,16 @@
+package host.honeycomb.room.exception;
+
+import org.springframework.web.client.RestClientException;
+
+/*
+ * Thrown without calling the downstream while its circuit breaker is open.
+ */
+public class DownstreamUnavailableException extends RestClientException {
+
+	private static final long serialVersionUID = -6105315623021640211L;
+
+	public DownstreamUnavailableException(String downstream) {
+		super("Circuit breaker for " + downstream + " is open");
+	}
+
+}
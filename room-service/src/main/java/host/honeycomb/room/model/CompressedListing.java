@@ -0,0 +1,24 @@
+package host.honeycomb.room.model;
+
+/*
+ * A gzip-compressed response body with the entity tag of its uncompressed
+ * content.
+ */
+public class CompressedListing {
+	private final byte[] gzipBody;
+	private final String eTag;
+
+	public CompressedListing(byte[] gzipBody, String eTag) {
+		this.gzipBody = gzipBody;
+		this.eTag = eTag;
+	}
+
+	public byte[] getGzipBody() {
+		return gzipBody;
+	}
+
+	public String getETag() {
+		return eTag;
+	}
+
+}
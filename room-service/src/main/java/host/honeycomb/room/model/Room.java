@@ -1,20 +1,33 @@
 package host.honeycomb.room.model;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
-@Table(name = "rooms")
+@Table(name = "rooms", indexes = { @Index(name = "ux_rooms_room_number", columnList = "room_number", unique = true),
+		@Index(name = "ix_rooms_floor", columnList = "floor"),
+		@Index(name = "ix_rooms_room_type_weekday_price", columnList = "room_type, weekday_price"),
+		@Index(name = "ix_rooms_weekday_price", columnList = "weekday_price") })
 public class Room {
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rooms_seq")
+	@SequenceGenerator(name = "rooms_seq", sequenceName = "rooms_seq", allocationSize = 50)
 	private long id;
 	@Column(name = "room_number")
 	private String roomNumber;
@@ -26,6 +39,13 @@ public class Room {
 	private String roomType;
 	@Column(name = "floor")
 	private String floor;
+	// Exposed as the ETag and Last-Modified headers rather than in the body
+	@Version
+	@JsonIgnore
+	private long version;
+	@Column(name = "last_modified")
+	@JsonIgnore
+	private Instant lastModified;
 
 	public Room() {
 		super();
@@ -93,4 +113,26 @@ public class Room {
 	public void setFloor(String floor) {
 		this.floor = floor;
 	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+	public Instant getLastModified() {
+		return lastModified;
+	}
+
+	public void setLastModified(Instant lastModified) {
+		this.lastModified = lastModified;
+	}
+
+	@PrePersist
+	@PreUpdate
+	void touch() {
+		lastModified = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+	}
 }
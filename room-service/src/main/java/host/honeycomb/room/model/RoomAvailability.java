@@ -0,0 +1,49 @@
+package host.honeycomb.room.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/*
+ * The nights from check-in (from) up to check-out (to) on which a room is
+ * held or booked. It is free for the stay when neither list has a night.
+ */
+public class RoomAvailability {
+	private final long roomId;
+	private final LocalDate from;
+	private final LocalDate to;
+	private final List<LocalDate> held;
+	private final List<LocalDate> booked;
+
+	public RoomAvailability(long roomId, LocalDate from, LocalDate to, List<LocalDate> held, List<LocalDate> booked) {
+		this.roomId = roomId;
+		this.from = from;
+		this.to = to;
+		this.held = held;
+		this.booked = booked;
+	}
+
+	public long getRoomId() {
+		return roomId;
+	}
+
+	public LocalDate getFrom() {
+		return from;
+	}
+
+	public LocalDate getTo() {
+		return to;
+	}
+
+	public boolean isFree() {
+		return held.isEmpty() && booked.isEmpty();
+	}
+
+	public List<LocalDate> getHeld() {
+		return held;
+	}
+
+	public List<LocalDate> getBooked() {
+		return booked;
+	}
+
+}
@@ -0,0 +1,34 @@
+package host.honeycomb.room.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RoomBatchRequest {
+	private List<Long> ids = new ArrayList<>();
+	private List<String> roomNumbers = new ArrayList<>();
+
+	public RoomBatchRequest() {
+	}
+
+	public RoomBatchRequest(List<Long> ids, List<String> roomNumbers) {
+		this.ids = ids;
+		this.roomNumbers = roomNumbers;
+	}
+
+	public List<Long> getIds() {
+		return ids;
+	}
+
+	public void setIds(List<Long> ids) {
+		this.ids = ids == null ? new ArrayList<>() : ids;
+	}
+
+	public List<String> getRoomNumbers() {
+		return roomNumbers;
+	}
+
+	public void setRoomNumbers(List<String> roomNumbers) {
+		this.roomNumbers = roomNumbers == null ? new ArrayList<>() : roomNumbers;
+	}
+
+}
@@ -0,0 +1,52 @@
+package host.honeycomb.room.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Rooms keyed by the identifier they were requested with. Every requested
+ * identifier appears exactly once, either as a key or in the matching missing
+ * list, in the order it was first requested.
+ */
+public class RoomBatchResult {
+	private final Map<Long, Room> byId = new LinkedHashMap<>();
+	private final Map<String, Room> byRoomNumber = new LinkedHashMap<>();
+	private final List<Long> missingIds = new ArrayList<>();
+	private final List<String> missingRoomNumbers = new ArrayList<>();
+
+	public Map<Long, Room> getById() {
+		return Collections.unmodifiableMap(byId);
+	}
+
+	public Map<String, Room> getByRoomNumber() {
+		return Collections.unmodifiableMap(byRoomNumber);
+	}
+
+	public List<Long> getMissingIds() {
+		return Collections.unmodifiableList(missingIds);
+	}
+
+	public List<String> getMissingRoomNumbers() {
+		return Collections.unmodifiableList(missingRoomNumbers);
+	}
+
+	public void addById(Long id, Room room) {
+		if (room == null) {
+			missingIds.add(id);
+		} else {
+			byId.put(id, room);
+		}
+	}
+
+	public void addByRoomNumber(String roomNumber, Room room) {
+		if (room == null) {
+			missingRoomNumbers.add(roomNumber);
+		} else {
+			byRoomNumber.put(roomNumber, room);
+		}
+	}
+
+}
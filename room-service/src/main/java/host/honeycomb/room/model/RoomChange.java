@@ -0,0 +1,44 @@
+package host.honeycomb.room.model;
+
+import java.time.Instant;
+
+/*
+ * One entry of the room change feed: the room as it was right after it was
+ * added or updated. Offsets count up from 1 in the order the changes were
+ * committed, with no gaps.
+ */
+public class RoomChange {
+
+	public enum Type {
+		ADDED, UPDATED
+	}
+
+	private final long offset;
+	private final Type type;
+	private final Room room;
+	private final Instant changedAt;
+
+	public RoomChange(long offset, Type type, Room room, Instant changedAt) {
+		this.offset = offset;
+		this.type = type;
+		this.room = room;
+		this.changedAt = changedAt;
+	}
+
+	public long getOffset() {
+		return offset;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public Room getRoom() {
+		return room;
+	}
+
+	public Instant getChangedAt() {
+		return changedAt;
+	}
+
+}
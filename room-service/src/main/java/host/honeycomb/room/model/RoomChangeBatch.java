@@ -0,0 +1,27 @@
+package host.honeycomb.room.model;
+
+import java.util.List;
+
+/*
+ * Changes after an offset, in offset order. next is the offset to ask for
+ * changes after next time: the last change's, or the one asked for when
+ * there were none.
+ */
+public class RoomChangeBatch {
+	private final List<RoomChange> changes;
+	private final long next;
+
+	public RoomChangeBatch(List<RoomChange> changes, long next) {
+		this.changes = changes;
+		this.next = next;
+	}
+
+	public List<RoomChange> getChanges() {
+		return changes;
+	}
+
+	public long getNext() {
+		return next;
+	}
+
+}
@@ -0,0 +1,66 @@
+package host.honeycomb.room.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class RoomImportResult {
+	public static final int MAX_REPORTED_FAILURES = 1000;
+
+	private int imported;
+	private int failed;
+	private final List<Failure> failures = new ArrayList<>();
+
+	public int getImported() {
+		return imported;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	/*
+	 * The first MAX_REPORTED_FAILURES failures found. Rows rejected while parsing
+	 * are reported as they are read, rows rejected by the database when their
+	 * chunk is written. getFailed() always holds the full count.
+	 */
+	public List<Failure> getFailures() {
+		return Collections.unmodifiableList(failures);
+	}
+
+	public void addImported(int count) {
+		imported += count;
+	}
+
+	public void addFailure(int row, String roomNumber, String reason) {
+		failed++;
+		if (failures.size() < MAX_REPORTED_FAILURES) {
+			failures.add(new Failure(row, roomNumber, reason));
+		}
+	}
+
+	public static class Failure {
+		private final int row;
+		private final String roomNumber;
+		private final String reason;
+
+		public Failure(int row, String roomNumber, String reason) {
+			this.row = row;
+			this.roomNumber = roomNumber;
+			this.reason = reason;
+		}
+
+		public int getRow() {
+			return row;
+		}
+
+		public String getRoomNumber() {
+			return roomNumber;
+		}
+
+		public String getReason() {
+			return reason;
+		}
+	}
+
+}
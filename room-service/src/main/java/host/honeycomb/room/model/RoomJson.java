@@ -0,0 +1,158 @@
+package host.honeycomb.room.model;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/*
+ * Reads and writes Room directly on the streaming parser and generator, in
+ * place of databind's reflective bean serializer and creator. The output is
+ * byte for byte what databind writes for the annotated Room, and input is
+ * read with the same rules: roomNumber, weekdayPrice, weekendPrice, roomType
+ * and floor are required, id defaults to 0 and version and lastModified are
+ * ignored. Lists of rooms reuse the serializer for each element, and Spring
+ * MVC writes the generator straight to the response output stream.
+ */
+@JsonComponent
+public class RoomJson {
+	// Field names are pre-encoded once instead of quoted and escaped per room
+	static final SerializedString ID = new SerializedString("id");
+	static final SerializedString ROOM_NUMBER = new SerializedString("roomNumber");
+	static final SerializedString WEEKDAY_PRICE = new SerializedString("weekdayPrice");
+	static final SerializedString WEEKEND_PRICE = new SerializedString("weekendPrice");
+	static final SerializedString ROOM_TYPE = new SerializedString("roomType");
+	static final SerializedString FLOOR = new SerializedString("floor");
+
+	public static class Serializer extends JsonSerializer<Room> {
+
+		@Override
+		public void serialize(Room room, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			generator.writeStartObject(room);
+			generator.writeFieldName(ID);
+			generator.writeNumber(room.getId());
+			generator.writeFieldName(ROOM_NUMBER);
+			generator.writeString(room.getRoomNumber());
+			generator.writeFieldName(WEEKDAY_PRICE);
+			generator.writeNumber(room.getWeekdayPrice());
+			generator.writeFieldName(WEEKEND_PRICE);
+			generator.writeNumber(room.getWeekendPrice());
+			generator.writeFieldName(ROOM_TYPE);
+			generator.writeString(room.getRoomType());
+			generator.writeFieldName(FLOOR);
+			generator.writeString(room.getFloor());
+			generator.writeEndObject();
+		}
+
+		@Override
+		public Class<Room> handledType() {
+			return Room.class;
+		}
+
+	}
+
+	public static class Deserializer extends JsonDeserializer<Room> {
+		// Creator properties in index order, each read one sets the bit at its index
+		private static final String[] PROPERTIES = { "id", "roomNumber", "weekdayPrice", "weekendPrice", "roomType",
+				"floor" };
+		private static final int REQUIRED = 0b111110;
+
+		@Override
+		public Room deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+			JsonToken token = parser.currentToken();
+			if (token == JsonToken.START_OBJECT) {
+				token = parser.nextToken();
+			} else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+				return (Room) context.handleUnexpectedToken(Room.class, parser);
+			}
+
+			long id = 0;
+			String roomNumber = null;
+			double weekdayPrice = 0;
+			double weekendPrice = 0;
+			String roomType = null;
+			String floor = null;
+			int seen = 0;
+			for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+				String name = parser.getCurrentName();
+				parser.nextToken();
+				switch (name) {
+				case "id":
+					id = id(parser, context);
+					seen |= 1;
+					break;
+				case "roomNumber":
+					roomNumber = string(parser, context);
+					seen |= 1 << 1;
+					break;
+				case "weekdayPrice":
+					weekdayPrice = price(parser, context);
+					seen |= 1 << 2;
+					break;
+				case "weekendPrice":
+					weekendPrice = price(parser, context);
+					seen |= 1 << 3;
+					break;
+				case "roomType":
+					roomType = string(parser, context);
+					seen |= 1 << 4;
+					break;
+				case "floor":
+					floor = string(parser, context);
+					seen |= 1 << 5;
+					break;
+				case "version":
+				case "lastModified":
+					// Ignored on input, as the @JsonIgnore on the fields says
+					parser.skipChildren();
+					break;
+				default:
+					context.handleUnknownProperty(parser, this, Room.class, name);
+				}
+			}
+
+			if ((seen & REQUIRED) != REQUIRED) {
+				int missing = Integer.numberOfTrailingZeros(~seen & REQUIRED);
+				return context.reportInputMismatch(Room.class, "Missing required creator property '%s' (index %d)",
+						PROPERTIES[missing], missing);
+			}
+			return new Room(id, roomNumber, weekdayPrice, weekendPrice, roomType, floor);
+		}
+
+		@Override
+		public Class<?> handledType() {
+			return Room.class;
+		}
+
+		private static long id(JsonParser parser, DeserializationContext context) throws IOException {
+			if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+				return parser.getLongValue();
+			}
+			return parser.currentToken() == JsonToken.VALUE_NULL ? 0 : context.readValue(parser, Long.TYPE);
+		}
+
+		private static String string(JsonParser parser, DeserializationContext context) throws IOException {
+			if (parser.currentToken() == JsonToken.VALUE_STRING) {
+				return parser.getText();
+			}
+			return parser.currentToken() == JsonToken.VALUE_NULL ? null : context.readValue(parser, String.class);
+		}
+
+		private static double price(JsonParser parser, DeserializationContext context) throws IOException {
+			if (parser.currentToken().isNumeric()) {
+				return parser.getDoubleValue();
+			}
+			return parser.currentToken() == JsonToken.VALUE_NULL ? 0 : context.readValue(parser, Double.TYPE);
+		}
+
+	}
+
+}
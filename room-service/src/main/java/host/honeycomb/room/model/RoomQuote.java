@@ -0,0 +1,41 @@
+package host.honeycomb.room.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class RoomQuote {
+	private final long roomId;
+	private final Stay stay;
+	private final long totalCents;
+
+	public RoomQuote(long roomId, Stay stay, long totalCents) {
+		this.roomId = roomId;
+		this.stay = stay;
+		this.totalCents = totalCents;
+	}
+
+	public long getRoomId() {
+		return roomId;
+	}
+
+	public LocalDate getFrom() {
+		return stay.getFrom();
+	}
+
+	public LocalDate getTo() {
+		return stay.getTo();
+	}
+
+	public int getWeekdayNights() {
+		return stay.getWeekdayNights();
+	}
+
+	public int getWeekendNights() {
+		return stay.getWeekendNights();
+	}
+
+	public BigDecimal getTotal() {
+		return Stay.fromCents(totalCents);
+	}
+
+}
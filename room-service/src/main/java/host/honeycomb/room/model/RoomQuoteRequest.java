@@ -0,0 +1,45 @@
+package host.honeycomb.room.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RoomQuoteRequest {
+	private List<Long> ids = new ArrayList<>();
+	private LocalDate from;
+	private LocalDate to;
+
+	public RoomQuoteRequest() {
+	}
+
+	public RoomQuoteRequest(List<Long> ids, LocalDate from, LocalDate to) {
+		this.ids = ids;
+		this.from = from;
+		this.to = to;
+	}
+
+	public List<Long> getIds() {
+		return ids;
+	}
+
+	public void setIds(List<Long> ids) {
+		this.ids = ids == null ? new ArrayList<>() : ids;
+	}
+
+	public LocalDate getFrom() {
+		return from;
+	}
+
+	public void setFrom(LocalDate from) {
+		this.from = from;
+	}
+
+	public LocalDate getTo() {
+		return to;
+	}
+
+	public void setTo(LocalDate to) {
+		this.to = to;
+	}
+
+}
@@ -0,0 +1,56 @@
+package host.honeycomb.room.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Totals for one stay over many rooms, keyed by room id in the order the ids
+ * were requested, with ids that matched no room listed as missing.
+ */
+public class RoomQuoteResult {
+	private final Stay stay;
+	private final Map<Long, BigDecimal> totals = new LinkedHashMap<>();
+	private final List<Long> missingIds = new ArrayList<>();
+
+	public RoomQuoteResult(Stay stay) {
+		this.stay = stay;
+	}
+
+	public LocalDate getFrom() {
+		return stay.getFrom();
+	}
+
+	public LocalDate getTo() {
+		return stay.getTo();
+	}
+
+	public int getWeekdayNights() {
+		return stay.getWeekdayNights();
+	}
+
+	public int getWeekendNights() {
+		return stay.getWeekendNights();
+	}
+
+	public Map<Long, BigDecimal> getTotals() {
+		return Collections.unmodifiableMap(totals);
+	}
+
+	public List<Long> getMissingIds() {
+		return Collections.unmodifiableList(missingIds);
+	}
+
+	public void addTotal(long roomId, long totalCents) {
+		totals.put(roomId, Stay.fromCents(totalCents));
+	}
+
+	public void addMissing(long roomId) {
+		missingIds.add(roomId);
+	}
+
+}
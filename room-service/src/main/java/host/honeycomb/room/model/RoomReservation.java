@@ -0,0 +1,57 @@
+package host.honeycomb.room.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/*
+ * Nights of a room set aside during checkout, from check-in (from) up to
+ * check-out (to). A pending reservation keeps the nights from everyone else
+ * until it is confirmed, which books them, or cancelled, or it expires.
+ */
+public class RoomReservation {
+
+	public enum Status {
+		PENDING, CONFIRMED, CANCELLED, EXPIRED
+	}
+
+	private final String id;
+	private final long roomId;
+	private final LocalDate from;
+	private final LocalDate to;
+	private final Instant expiresAt;
+	private final Status status;
+
+	public RoomReservation(String id, long roomId, LocalDate from, LocalDate to, Instant expiresAt, Status status) {
+		this.id = id;
+		this.roomId = roomId;
+		this.from = from;
+		this.to = to;
+		this.expiresAt = expiresAt;
+		this.status = status;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public long getRoomId() {
+		return roomId;
+	}
+
+	public LocalDate getFrom() {
+		return from;
+	}
+
+	public LocalDate getTo() {
+		return to;
+	}
+
+	public Instant getExpiresAt() {
+		return expiresAt;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+}
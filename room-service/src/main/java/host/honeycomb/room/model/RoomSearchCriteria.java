@@ -0,0 +1,63 @@
+package host.honeycomb.room.model;
+
+/*
+ * Filters for a room search. Every field is optional and the filters that
+ * are set must all match.
+ */
+public class RoomSearchCriteria {
+	private String floor;
+	private String roomType;
+	private Double minWeekdayPrice;
+	private Double maxWeekdayPrice;
+	private Double minWeekendPrice;
+	private Double maxWeekendPrice;
+
+	public String getFloor() {
+		return floor;
+	}
+
+	public void setFloor(String floor) {
+		this.floor = floor;
+	}
+
+	public String getRoomType() {
+		return roomType;
+	}
+
+	public void setRoomType(String roomType) {
+		this.roomType = roomType;
+	}
+
+	public Double getMinWeekdayPrice() {
+		return minWeekdayPrice;
+	}
+
+	public void setMinWeekdayPrice(Double minWeekdayPrice) {
+		this.minWeekdayPrice = minWeekdayPrice;
+	}
+
+	public Double getMaxWeekdayPrice() {
+		return maxWeekdayPrice;
+	}
+
+	public void setMaxWeekdayPrice(Double maxWeekdayPrice) {
+		this.maxWeekdayPrice = maxWeekdayPrice;
+	}
+
+	public Double getMinWeekendPrice() {
+		return minWeekendPrice;
+	}
+
+	public void setMinWeekendPrice(Double minWeekendPrice) {
+		this.minWeekendPrice = minWeekendPrice;
+	}
+
+	public Double getMaxWeekendPrice() {
+		return maxWeekendPrice;
+	}
+
+	public void setMaxWeekendPrice(Double maxWeekendPrice) {
+		this.maxWeekendPrice = maxWeekendPrice;
+	}
+
+}
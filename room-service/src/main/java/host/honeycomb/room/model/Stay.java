@@ -0,0 +1,102 @@
+package host.honeycomb.room.model;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/*
+ * The nights from check-in (from) up to check-out (to). Friday and Saturday
+ * nights are charged at the weekend price, every other night at the weekday
+ * price. Prices are handled as whole cents in longs so quoting is exact and
+ * allocation free.
+ */
+public final class Stay {
+	/*
+	 * WEEKEND_NIGHTS_BEFORE[i] counts the weekend nights among the i nights
+	 * starting on a Monday, for i up to two weeks. Any run of fewer than seven
+	 * nights is then the difference of two entries.
+	 */
+	private static final int[] WEEKEND_NIGHTS_BEFORE = new int[15];
+
+	static {
+		for (int i = 0; i < 14; i++) {
+			int day = i % 7 + 1;
+			boolean weekend = day == DayOfWeek.FRIDAY.getValue() || day == DayOfWeek.SATURDAY.getValue();
+			WEEKEND_NIGHTS_BEFORE[i + 1] = WEEKEND_NIGHTS_BEFORE[i] + (weekend ? 1 : 0);
+		}
+	}
+
+	private final LocalDate from;
+	private final LocalDate to;
+	private final int weekdayNights;
+	private final int weekendNights;
+
+	private Stay(LocalDate from, LocalDate to, int weekdayNights, int weekendNights) {
+		this.from = from;
+		this.to = to;
+		this.weekdayNights = weekdayNights;
+		this.weekendNights = weekendNights;
+	}
+
+	public static Stay of(LocalDate from, LocalDate to) {
+		if (!to.isAfter(from)) {
+			throw new IllegalArgumentException("Check-out " + to + " is not after check-in " + from + ".");
+		}
+		int nights = Math.toIntExact(ChronoUnit.DAYS.between(from, to));
+		int weekendNights = weekendNights(from.getDayOfWeek(), nights);
+		return new Stay(from, to, nights - weekendNights, weekendNights);
+	}
+
+	/*
+	 * Weekend nights in a run of nights starting on the given day, in constant
+	 * time: two per full week plus a table lookup for the remainder.
+	 */
+	public static int weekendNights(DayOfWeek firstNight, int nights) {
+		int start = firstNight.getValue() - 1;
+		int remainder = nights % 7;
+		return nights / 7 * 2 + WEEKEND_NIGHTS_BEFORE[start + remainder] - WEEKEND_NIGHTS_BEFORE[start];
+	}
+
+	/*
+	 * Rounds to the nearest cent, which is exact for prices with at most two
+	 * decimal places.
+	 */
+	public static long toCents(double price) {
+		return Math.round(price * 100);
+	}
+
+	public static BigDecimal fromCents(long cents) {
+		return BigDecimal.valueOf(cents, 2);
+	}
+
+	public long priceCents(long weekdayCents, long weekendCents) {
+		return Math.addExact(Math.multiplyExact(weekdayCents, weekdayNights),
+				Math.multiplyExact(weekendCents, weekendNights));
+	}
+
+	public long priceCents(Room room) {
+		return priceCents(toCents(room.getWeekdayPrice()), toCents(room.getWeekendPrice()));
+	}
+
+	public LocalDate getFrom() {
+		return from;
+	}
+
+	public LocalDate getTo() {
+		return to;
+	}
+
+	public int getNights() {
+		return weekdayNights + weekendNights;
+	}
+
+	public int getWeekdayNights() {
+		return weekdayNights;
+	}
+
+	public int getWeekendNights() {
+		return weekendNights;
+	}
+
+}
@@ -1,16 +1,34 @@
 package host.honeycomb.room.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import host.honeycomb.room.model.Room;
 
-public interface RoomRepo extends CrudRepository<Room, Long> {
+/*
+ * Query methods are read-only transactions like the inherited finders, so
+ * that they can be sent to a read replica.
+ */
+public interface RoomRepo extends CrudRepository<Room, Long>, RoomStreamingRepo, RoomSearchRepo {
 
+	@Transactional(readOnly = true)
 	Optional<Room> findByRoomNumber(String anyString);
 
+	@Transactional(readOnly = true)
+	List<Room> findByRoomNumberIn(Collection<String> roomNumbers);
+
+	@Transactional(readOnly = true)
 	List<Room> findRoomsByFloor(String floorNumber);
 
-}
\ No newline at end of file
+	@Transactional(readOnly = true)
+	List<Room> findByFloorAndRoomType(String floor, String roomType);
+
+	@Transactional(readOnly = true)
+	List<Room> findByIdGreaterThanOrderByIdAsc(long afterId, Pageable pageable);
+
+}
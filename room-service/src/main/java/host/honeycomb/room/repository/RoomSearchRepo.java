@@ -0,0 +1,18 @@
+package host.honeycomb.room.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomSearchCriteria;
+
+public interface RoomSearchRepo {
+
+	/*
+	 * Finds the rooms matching every filter set in the criteria with a single
+	 * query. The query reads one row past the page to tell whether there is a
+	 * next slice, so no count query is run.
+	 */
+	Slice<Room> search(RoomSearchCriteria criteria, Pageable pageable);
+
+}
@@ -0,0 +1,88 @@
+package host.honeycomb.room.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomSearchCriteria;
+
+public class RoomSearchRepoImpl implements RoomSearchRepo {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public Slice<Room> search(RoomSearchCriteria criteria, Pageable pageable) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Room> query = builder.createQuery(Room.class);
+		Root<Room> room = query.from(Room.class);
+
+		// Values are bound rather than inlined so every search shape maps to one cached statement
+		List<Predicate> predicates = new ArrayList<>();
+		Map<ParameterExpression<?>, Object> parameters = new HashMap<>();
+		if (criteria.getFloor() != null) {
+			predicates.add(builder.equal(room.get("floor"), bind(builder, parameters, String.class, criteria.getFloor())));
+		}
+		if (criteria.getRoomType() != null) {
+			predicates.add(builder.equal(room.get("roomType"),
+					bind(builder, parameters, String.class, criteria.getRoomType())));
+		}
+		addRange(builder, parameters, predicates, room.get("weekdayPrice"), criteria.getMinWeekdayPrice(),
+				criteria.getMaxWeekdayPrice());
+		addRange(builder, parameters, predicates, room.get("weekendPrice"), criteria.getMinWeekendPrice(),
+				criteria.getMaxWeekendPrice());
+		query.where(predicates.toArray(new Predicate[0]));
+
+		// Ties are broken by id so that pages never overlap or skip rooms
+		List<Order> orders = new ArrayList<>();
+		for (Sort.Order order : pageable.getSort()) {
+			orders.add(order.isAscending() ? builder.asc(room.get(order.getProperty()))
+					: builder.desc(room.get(order.getProperty())));
+		}
+		orders.add(builder.asc(room.get("id")));
+		query.orderBy(orders);
+
+		TypedQuery<Room> typedQuery = entityManager.createQuery(query);
+		parameters.forEach((parameter, value) -> typedQuery.setParameter(parameter.getName(), value));
+		List<Room> rooms = typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()))
+				.setMaxResults(pageable.getPageSize() + 1).getResultList();
+		boolean hasNext = rooms.size() > pageable.getPageSize();
+		return new SliceImpl<>(hasNext ? rooms.subList(0, pageable.getPageSize()) : rooms, pageable, hasNext);
+	}
+
+	private static void addRange(CriteriaBuilder builder, Map<ParameterExpression<?>, Object> parameters,
+			List<Predicate> predicates, Path<Double> price, Double min, Double max) {
+		if (min != null) {
+			predicates.add(builder.greaterThanOrEqualTo(price, bind(builder, parameters, Double.class, min)));
+		}
+		if (max != null) {
+			predicates.add(builder.lessThanOrEqualTo(price, bind(builder, parameters, Double.class, max)));
+		}
+	}
+
+	private static <T> ParameterExpression<T> bind(CriteriaBuilder builder,
+			Map<ParameterExpression<?>, Object> parameters, Class<T> type, T value) {
+		ParameterExpression<T> parameter = builder.parameter(type, "p" + parameters.size());
+		parameters.put(parameter, value);
+		return parameter;
+	}
+
+}
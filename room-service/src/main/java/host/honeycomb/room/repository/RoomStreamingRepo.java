@@ -0,0 +1,16 @@
+package host.honeycomb.room.repository;
+
+import java.util.function.Consumer;
+
+import host.honeycomb.room.model.Room;
+
+public interface RoomStreamingRepo {
+
+	/*
+	 * Streams every room in id order through the given action. Each room is
+	 * detached from the persistence context once the action returns, so memory
+	 * use does not grow with the size of the table.
+	 */
+	void forEachRoom(Consumer<? super Room> action);
+
+}
@@ -0,0 +1,34 @@
+package host.honeycomb.room.repository;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import host.honeycomb.room.model.Room;
+
+public class RoomStreamingRepoImpl implements RoomStreamingRepo {
+
+	private static final int FETCH_SIZE = 500;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional(readOnly = true)
+	public void forEachRoom(Consumer<? super Room> action) {
+		try (Stream<Room> rooms = entityManager.createQuery("select r from Room r order by r.id", Room.class)
+				.setHint(QueryHints.HINT_FETCH_SIZE, FETCH_SIZE).setHint(QueryHints.HINT_READONLY, true)
+				.getResultStream()) {
+			rooms.forEach(room -> {
+				action.accept(room);
+				entityManager.detach(room);
+			});
+		}
+	}
+
+}
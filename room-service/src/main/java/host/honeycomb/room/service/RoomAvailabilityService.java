@@ -0,0 +1,47 @@
+package host.honeycomb.room.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomAvailability;
+
+/*
+ * Nights are counted from check-in (from) up to check-out (to), as for
+ * quotes. The booking layer is the only caller and keeps track of who placed
+ * a hold, so holds and bookings carry no owner here. Nights reserved through
+ * RoomReservationService count as held until the reservation ends.
+ */
+public interface RoomAvailabilityService {
+
+	/*
+	 * Whether the stay starts today or later and ends within the horizon
+	 * availability is kept for.
+	 */
+	boolean isBookable(LocalDate from, LocalDate to);
+
+	/*
+	 * Holds every night of the stay, or none if any of them is held or booked.
+	 */
+	boolean hold(long roomId, LocalDate from, LocalDate to);
+
+	/*
+	 * Books every night of the stay, replacing holds on them, or none if any
+	 * of them is booked.
+	 */
+	boolean book(long roomId, LocalDate from, LocalDate to);
+
+	/*
+	 * Frees every night of the stay, whether held or booked.
+	 */
+	void release(long roomId, LocalDate from, LocalDate to);
+
+	RoomAvailability getAvailability(long roomId, LocalDate from, LocalDate to);
+
+	/*
+	 * Rooms on the floor, of the room type if given, with every night of the
+	 * stay free.
+	 */
+	List<Room> findAvailableRooms(String floor, String roomType, LocalDate from, LocalDate to);
+
+}
@@ -0,0 +1,38 @@
+package host.honeycomb.room.service;
+
+import java.util.List;
+
+import host.honeycomb.room.model.RoomChange;
+
+/*
+ * Room changes in commit order, addressed by offset. Consumers keep the
+ * offset of the last change they handled and ask for the changes after it,
+ * so they can stop and resume at any point within the retention period.
+ */
+public interface RoomChangeFeed {
+
+	/*
+	 * The offset of the newest published change, 0 before the first.
+	 */
+	long getLastOffset();
+
+	/*
+	 * The oldest offset still retained. Changes after an offset below
+	 * getFirstOffset() - 1 can no longer all be replayed.
+	 */
+	long getFirstOffset();
+
+	/*
+	 * At most limit changes after the offset, in offset order.
+	 */
+	List<RoomChange> read(long after, int limit);
+
+	/*
+	 * Runs listener once as soon as there are changes after the offset, at
+	 * once on the calling thread if there already are. Listeners run on the
+	 * publishing thread otherwise and must not block. Answers a handle that
+	 * unregisters the listener if it has not run yet.
+	 */
+	Runnable onChangesAfter(long after, Runnable listener);
+
+}
@@ -0,0 +1,14 @@
+package host.honeycomb.room.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import host.honeycomb.room.model.RoomImportResult;
+
+public interface RoomImportService {
+
+	RoomImportResult importJson(InputStream json) throws IOException;
+
+	RoomImportResult importCsv(InputStream csv) throws IOException;
+
+}
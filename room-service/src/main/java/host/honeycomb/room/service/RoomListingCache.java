@@ -0,0 +1,13 @@
+package host.honeycomb.room.service;
+
+import host.honeycomb.room.model.CompressedListing;
+
+public interface RoomListingCache {
+
+	/*
+	 * The full inventory as gzip-compressed NDJSON, in the format of the
+	 * streamed GET /rooms listing. Built on first use after a room changes.
+	 */
+	CompressedListing getNdjsonListing();
+
+}
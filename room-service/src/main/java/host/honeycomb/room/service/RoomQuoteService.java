@@ -0,0 +1,16 @@
+package host.honeycomb.room.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+
+import host.honeycomb.room.model.RoomQuote;
+import host.honeycomb.room.model.RoomQuoteResult;
+
+public interface RoomQuoteService {
+
+	Optional<RoomQuote> quoteRoom(long roomId, LocalDate from, LocalDate to);
+
+	RoomQuoteResult quoteRooms(Collection<Long> roomIds, LocalDate from, LocalDate to);
+
+}
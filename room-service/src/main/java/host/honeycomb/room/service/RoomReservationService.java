@@ -0,0 +1,37 @@
+package host.honeycomb.room.service;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import host.honeycomb.room.model.RoomReservation;
+
+/*
+ * Short-lived reservations taken at checkout. Reservations are kept in memory
+ * and last room.reservation.ttl unless confirmed first; only confirmed ones
+ * are persisted, as bookings. All methods answer empty for reservation ids
+ * they do not know, including ones past the time they would have expired.
+ */
+public interface RoomReservationService {
+
+	/*
+	 * Reserves every night of the stay, or answers empty if any of them is
+	 * held, booked or reserved.
+	 */
+	Optional<RoomReservation> reserve(long roomId, LocalDate from, LocalDate to);
+
+	Optional<RoomReservation> getReservation(String id);
+
+	/*
+	 * Books the nights of a pending reservation. Answers the reservation as it
+	 * is after the attempt: CONFIRMED, or EXPIRED or CANCELLED if it had ended,
+	 * or PENDING while another confirmation of it is being written.
+	 */
+	Optional<RoomReservation> confirm(String id);
+
+	/*
+	 * Frees the nights of a pending reservation. Confirmed reservations stay
+	 * confirmed.
+	 */
+	Optional<RoomReservation> cancel(String id);
+
+}
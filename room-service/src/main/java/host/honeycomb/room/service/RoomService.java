@@ -1,9 +1,16 @@
 package host.honeycomb.room.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomBatchResult;
+import host.honeycomb.room.model.RoomSearchCriteria;
 
 public interface RoomService {
 
@@ -19,4 +26,12 @@ public interface RoomService {
 
 	List<Room> findRoomsByFloor(String floorNumber);
 
+	Slice<Room> searchRooms(RoomSearchCriteria criteria, Pageable pageable);
+
+	RoomBatchResult findRooms(Collection<Long> ids, Collection<String> roomNumbers);
+
+	List<Room> findRoomsAfter(long afterId, int limit);
+
+	void forEachRoom(Consumer<? super Room> action);
+
 }
@@ -0,0 +1,14 @@
+package host.honeycomb.room.service;
+
+import host.honeycomb.room.model.Room;
+
+public interface RoomUpdateQueue {
+
+	/*
+	 * Accepts the update to be written later, replacing any update to the same
+	 * room that has not been written yet. Returns false when the queue is still
+	 * full after the configured offer timeout.
+	 */
+	boolean offer(Room room);
+
+}
@@ -0,0 +1,33 @@
+package host.honeycomb.room.service.impl;
+
+import java.util.function.Supplier;
+
+/*
+ * Marks the reads a thread makes to fill a cache. A row read from a read
+ * replica that has yet to see a write would be served from the cache long
+ * after the replica caught up, so ReplicaRoutingDataSource keeps these reads
+ * on the primary for a while after any write, not only the thread's own.
+ */
+public final class CacheRefill {
+	private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+	private CacheRefill() {
+	}
+
+	public static boolean isActive() {
+		return ACTIVE.get() != null;
+	}
+
+	static <T> T run(Supplier<T> load) {
+		if (isActive()) {
+			return load.get();
+		}
+		ACTIVE.set(Boolean.TRUE);
+		try {
+			return load.get();
+		} finally {
+			ACTIVE.remove();
+		}
+	}
+
+}
@@ -0,0 +1,127 @@
+package host.honeycomb.room.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import host.honeycomb.room.model.Room;
+
+/*
+ * Reads rooms from CSV with a header line naming the roomNumber, weekdayPrice,
+ * weekendPrice, roomType and floor columns, in any order. Fields may be quoted
+ * with double quotes; quoted fields cannot span lines.
+ */
+class CsvRoomRowReader implements RoomRowReader {
+	private static final String[] COLUMNS = { "roomNumber", "weekdayPrice", "weekendPrice", "roomType", "floor" };
+
+	private final BufferedReader reader;
+	private int[] columnIndexes;
+	private int row;
+
+	CsvRoomRowReader(InputStream csv) {
+		this.reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public RoomRow next() throws IOException {
+		if (columnIndexes == null) {
+			readHeader();
+		}
+		String line;
+		do {
+			line = reader.readLine();
+			if (line == null) {
+				return null;
+			}
+		} while (line.trim().isEmpty());
+		row++;
+
+		List<String> fields = parseLine(line);
+		String roomNumber = field(fields, 0);
+		Double weekdayPrice = price(fields, 1);
+		Double weekendPrice = price(fields, 2);
+		if (weekdayPrice == null || weekendPrice == null) {
+			return RoomRow.failed(row, roomNumber, "Invalid or missing price.");
+		}
+		return RoomRow.parsed(row, new Room(0L, roomNumber, weekdayPrice, weekendPrice, field(fields, 3), field(fields, 4)));
+	}
+
+	private void readHeader() throws IOException {
+		String header = reader.readLine();
+		if (header == null) {
+			throw new MalformedImportException(0, "Missing CSV header.");
+		}
+		if (header.startsWith("\uFEFF")) {
+			header = header.substring(1);
+		}
+		List<String> names = parseLine(header);
+		columnIndexes = new int[COLUMNS.length];
+		for (int i = 0; i < COLUMNS.length; i++) {
+			columnIndexes[i] = -1;
+			for (int j = 0; j < names.size(); j++) {
+				if (COLUMNS[i].equalsIgnoreCase(names.get(j).trim())) {
+					columnIndexes[i] = j;
+				}
+			}
+			if (columnIndexes[i] < 0) {
+				throw new MalformedImportException(0, "Missing CSV column: " + COLUMNS[i]);
+			}
+		}
+	}
+
+	private String field(List<String> fields, int column) {
+		int index = columnIndexes[column];
+		if (index >= fields.size()) {
+			return null;
+		}
+		String value = fields.get(index).trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	private Double price(List<String> fields, int column) {
+		String value = field(fields, column);
+		try {
+			return value == null ? null : Double.valueOf(value);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	static List<String> parseLine(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+}
@@ -0,0 +1,107 @@
+package host.honeycomb.room.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import host.honeycomb.room.event.RoomChangedEvent;
+import host.honeycomb.room.model.CompressedListing;
+import host.honeycomb.room.service.RoomListingCache;
+import host.honeycomb.room.service.RoomService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * Opt-in (room.listing.precompressed=true) cache of the full inventory
+ * listing, serialized and compressed once and then served as is until a room
+ * changes. Every committed change bumps the generation; a listing is only
+ * kept if no change committed while it was being built, so a build that read
+ * the rooms before a commit is never served after it. Concurrent requests
+ * for a listing share one build.
+ */
+@Service
+@ConditionalOnProperty(name = "room.listing.precompressed", havingValue = "true")
+public class GzipRoomListingCache implements RoomListingCache, MeterBinder {
+	private final RoomService service;
+	private final ObjectMapper objectMapper;
+	private final AtomicLong generation = new AtomicLong();
+	private final SingleFlight<Long, Generation> builds = new SingleFlight<>();
+	private volatile Generation current;
+
+	public GzipRoomListingCache(RoomService service, ObjectMapper objectMapper) {
+		this.service = service;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public CompressedListing getNdjsonListing() {
+		long expected = generation.get();
+		Generation cached = current;
+		if (cached != null && cached.number == expected) {
+			return cached.listing;
+		}
+		Generation built = builds.load(expected, () -> CacheRefill.run(() -> build(expected)));
+		if (generation.get() == expected) {
+			current = built;
+		}
+		return built.listing;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onRoomChanged(RoomChangedEvent event) {
+		generation.incrementAndGet();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("room.listing.builds", builds, SingleFlight::executionCount)
+				.description("Full inventory listings serialized and compressed").register(registry);
+	}
+
+	private Generation build(long number) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		// The id and version of every room, in order, as the list endpoints' entity tags
+		long[] hash = { 1 };
+		long[] rooms = new long[1];
+		try (GZIPOutputStream gzip = new GZIPOutputStream(bytes, 8192);
+				JsonGenerator generator = objectMapper.getFactory().createGenerator(gzip)) {
+			generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+			service.forEachRoom(room -> {
+				try {
+					generator.writeObject(room);
+					generator.writeRaw('\n');
+					hash[0] = 31 * (31 * hash[0] + room.getId()) + room.getVersion();
+					rooms[0]++;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		String eTag = "\"" + Long.toHexString(hash[0]) + "-" + rooms[0] + "\"";
+		return new Generation(number, new CompressedListing(bytes.toByteArray(), eTag));
+	}
+
+	private static final class Generation {
+		private final long number;
+		private final CompressedListing listing;
+
+		private Generation(long number, CompressedListing listing) {
+			this.number = number;
+			this.listing = listing;
+		}
+	}
+
+}
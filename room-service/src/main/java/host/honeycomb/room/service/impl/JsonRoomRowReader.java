@@ -0,0 +1,57 @@
+package host.honeycomb.room.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import host.honeycomb.room.model.Room;
+
+/*
+ * Reads a JSON array of rooms one element at a time, so only the current
+ * element is ever held in memory.
+ */
+class JsonRoomRowReader implements RoomRowReader {
+	private final ObjectMapper objectMapper;
+	private final JsonParser parser;
+	private int row;
+
+	JsonRoomRowReader(ObjectMapper objectMapper, InputStream json) throws IOException {
+		this.objectMapper = objectMapper;
+		this.parser = objectMapper.getFactory().createParser(json);
+	}
+
+	@Override
+	public RoomRow next() throws IOException {
+		JsonNode node;
+		try {
+			if (row == 0 && parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new MalformedImportException(1, "Expected a JSON array of rooms.");
+			}
+			JsonToken token = parser.nextToken();
+			if (token == null || token == JsonToken.END_ARRAY) {
+				return null;
+			}
+			node = objectMapper.readTree(parser);
+			row++;
+		} catch (JsonProcessingException e) {
+			throw new MalformedImportException(row + 1, "Malformed JSON: " + e.getOriginalMessage());
+		}
+
+		try {
+			return RoomRow.parsed(row, objectMapper.treeToValue(node, Room.class));
+		} catch (JsonProcessingException e) {
+			return RoomRow.failed(row, node.path("roomNumber").asText(null), e.getOriginalMessage());
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		parser.close();
+	}
+
+}
@@ -0,0 +1,20 @@
+package host.honeycomb.room.service.impl;
+
+import java.io.IOException;
+
+class MalformedImportException extends IOException {
+
+	private static final long serialVersionUID = -4581967470713527032L;
+
+	private final int row;
+
+	MalformedImportException(int row, String message) {
+		super(message);
+		this.row = row;
+	}
+
+	int getRow() {
+		return row;
+	}
+
+}
@@ -0,0 +1,112 @@
+package host.honeycomb.room.service.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/*
+ * The nights of each room claimed by pending reservations, one bit per night
+ * in an AtomicLongArray used as a ring: night d (an epoch day) is bit
+ * d mod (64 * words). The ring spans the availability horizon plus at least
+ * 64 nights, and claims never outlive their reservation's ttl, so two live
+ * claims never share a bit. Claims and releases are compare-and-set loops
+ * on whole words, with no locks. A claim sets its words one at a time and
+ * backs out the ones it set when it meets a claimed night, so a concurrent
+ * claim may see part of one that later fails and refuse too; two claims on
+ * the same night never both succeed.
+ */
+@Component
+class NightClaims {
+	private final int words;
+	private final ConcurrentMap<Long, AtomicLongArray> rooms = new ConcurrentHashMap<>();
+
+	NightClaims(@Value("${room.availability.horizon-days:730}") int horizonDays) {
+		this.words = (horizonDays >>> 6) + 2;
+	}
+
+	/*
+	 * Claims every night in [from, to), or none if any is claimed.
+	 */
+	boolean claim(long roomId, long from, long to) {
+		AtomicLongArray bits = rooms.computeIfAbsent(roomId, id -> new AtomicLongArray(words));
+		for (long day = from; day < to; day = next(day)) {
+			int word = word(day);
+			long mask = mask(day, to);
+			for (;;) {
+				long current = bits.get(word);
+				if ((current & mask) != 0) {
+					clear(bits, from, day);
+					return false;
+				}
+				if (bits.compareAndSet(word, current, current | mask)) {
+					break;
+				}
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Frees nights in [from, to). Only the holder of the claim may release it.
+	 */
+	void release(long roomId, long from, long to) {
+		AtomicLongArray bits = rooms.get(roomId);
+		if (bits != null) {
+			clear(bits, from, to);
+		}
+	}
+
+	boolean isFree(long roomId, long from, long to) {
+		AtomicLongArray bits = rooms.get(roomId);
+		if (bits == null) {
+			return true;
+		}
+		for (long day = from; day < to; day = next(day)) {
+			if ((bits.get(word(day)) & mask(day, to)) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void clear(AtomicLongArray bits, long from, long to) {
+		for (long day = from; day < to; day = next(day)) {
+			int word = word(day);
+			long mask = mask(day, to);
+			long current;
+			do {
+				current = bits.get(word);
+			} while (!bits.compareAndSet(word, current, current & ~mask));
+		}
+	}
+
+	private int position(long day) {
+		return (int) Math.floorMod(day, (long) words << 6);
+	}
+
+	private int word(long day) {
+		return position(day) >>> 6;
+	}
+
+	/*
+	 * The first night of the next word, which may wrap to the start of the
+	 * ring.
+	 */
+	private long next(long day) {
+		return day + 64 - (position(day) & 63);
+	}
+
+	/*
+	 * The bits of the nights from day up to the end of its word or to,
+	 * whichever comes first.
+	 */
+	private long mask(long day, long to) {
+		int offset = position(day) & 63;
+		long nights = Math.min(64 - offset, to - day);
+		return (nights == 64 ? -1L : (1L << nights) - 1) << offset;
+	}
+
+}
@@ -0,0 +1,183 @@
+package host.honeycomb.room.service.impl;
+
+import java.util.Arrays;
+
+/*
+ * The held and booked nights of one room as two bitsets, one bit per night
+ * counted from the calendar's first day, 64 nights to a long. Range checks
+ * and updates mask whole words, so a stay of a few weeks touches one or two
+ * words per bitset. Not thread safe: callers hold the calendar's monitor.
+ */
+class OccupancyCalendar {
+	private long[] held;
+	private long[] booked;
+
+	OccupancyCalendar(int days) {
+		held = new long[words(days)];
+		booked = new long[words(days)];
+	}
+
+	/*
+	 * Whether every night in [from, to) is neither held nor booked.
+	 */
+	boolean isFree(int from, int to) {
+		return !any(held, from, to) && !any(booked, from, to);
+	}
+
+	/*
+	 * Holds the nights if they are all free.
+	 */
+	boolean hold(int from, int to) {
+		if (!isFree(from, to)) {
+			return false;
+		}
+		held = set(held, from, to);
+		return true;
+	}
+
+	/*
+	 * Books the nights if none is booked, turning any holds on them into the
+	 * booking.
+	 */
+	boolean book(int from, int to) {
+		if (any(booked, from, to)) {
+			return false;
+		}
+		booked = set(booked, from, to);
+		clear(held, from, to);
+		return true;
+	}
+
+	void release(int from, int to) {
+		clear(held, from, to);
+		clear(booked, from, to);
+	}
+
+	boolean isHeld(int day) {
+		return get(held, day);
+	}
+
+	boolean isBooked(int day) {
+		return get(booked, day);
+	}
+
+	/*
+	 * The held (or booked) flags of up to 32 nights from the given one, night
+	 * n in bit n, as persisted per month.
+	 */
+	int heldBits(int from, int days) {
+		return bits(held, from, days);
+	}
+
+	int bookedBits(int from, int days) {
+		return bits(booked, from, days);
+	}
+
+	void load(int from, int heldBits, int bookedBits) {
+		for (int i = 0; i < 32; i++) {
+			if ((heldBits & 1 << i) != 0) {
+				held = set(held, from + i, from + i + 1);
+			}
+			if ((bookedBits & 1 << i) != 0) {
+				booked = set(booked, from + i, from + i + 1);
+			}
+		}
+	}
+
+	/*
+	 * Replaces the flags of the nights from the given one with those loaded.
+	 */
+	void reload(int from, int days, int heldBits, int bookedBits) {
+		clear(held, from, from + days);
+		clear(booked, from, from + days);
+		load(from, heldBits, bookedBits);
+	}
+
+	long[][] save() {
+		return new long[][] { held.clone(), booked.clone() };
+	}
+
+	void restore(long[][] saved) {
+		held = saved[0];
+		booked = saved[1];
+	}
+
+	private static boolean any(long[] words, int from, int to) {
+		int last = Math.min(to, words.length << 6) - 1;
+		if (from > last) {
+			return false;
+		}
+		int first = from >>> 6;
+		int lastWord = last >>> 6;
+		long firstMask = -1L << from;
+		long lastMask = -1L >>> 63 - (last & 63);
+		if (first == lastWord) {
+			return (words[first] & firstMask & lastMask) != 0;
+		}
+		if ((words[first] & firstMask) != 0 || (words[lastWord] & lastMask) != 0) {
+			return true;
+		}
+		for (int i = first + 1; i < lastWord; i++) {
+			if (words[i] != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long[] set(long[] words, int from, int to) {
+		int last = to - 1;
+		if (last >>> 6 >= words.length) {
+			words = Arrays.copyOf(words, Math.max(words.length * 2, (last >>> 6) + 1));
+		}
+		int first = from >>> 6;
+		int lastWord = last >>> 6;
+		long firstMask = -1L << from;
+		long lastMask = -1L >>> 63 - (last & 63);
+		if (first == lastWord) {
+			words[first] |= firstMask & lastMask;
+		} else {
+			words[first] |= firstMask;
+			Arrays.fill(words, first + 1, lastWord, -1L);
+			words[lastWord] |= lastMask;
+		}
+		return words;
+	}
+
+	private static void clear(long[] words, int from, int to) {
+		int last = Math.min(to, words.length << 6) - 1;
+		if (from > last) {
+			return;
+		}
+		int first = from >>> 6;
+		int lastWord = last >>> 6;
+		long firstMask = -1L << from;
+		long lastMask = -1L >>> 63 - (last & 63);
+		if (first == lastWord) {
+			words[first] &= ~(firstMask & lastMask);
+		} else {
+			words[first] &= ~firstMask;
+			Arrays.fill(words, first + 1, lastWord, 0L);
+			words[lastWord] &= ~lastMask;
+		}
+	}
+
+	private static boolean get(long[] words, int day) {
+		return day >>> 6 < words.length && (words[day >>> 6] & 1L << day) != 0;
+	}
+
+	private static int bits(long[] words, int from, int days) {
+		int bits = 0;
+		for (int i = 0; i < days; i++) {
+			if (get(words, from + i)) {
+				bits |= 1 << i;
+			}
+		}
+		return bits;
+	}
+
+	private static int words(int days) {
+		return Math.max(1, (days + 63) >>> 6);
+	}
+
+}
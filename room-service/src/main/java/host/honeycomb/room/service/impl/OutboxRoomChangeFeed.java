@@ -0,0 +1,351 @@
+package host.honeycomb.room.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import host.honeycomb.room.event.RoomChangedEvent;
+import host.honeycomb.room.model.RoomChange;
+import host.honeycomb.room.service.RoomChangeFeed;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * Opt-in (room.changes.feed=true) change feed backed by the room_outbox
+ * table. Every RoomChangedEvent is collected for the transaction that
+ * published it and written to the outbox just before that transaction
+ * commits, so the feed has exactly the changes that were committed. A relay
+ * thread on every instance, woken after each commit and at least every
+ * poll-interval, publishes committed rows by numbering them after the last
+ * offset in the table, in the order it finds them, in batches of batch-size.
+ * It then reads back any offsets published by other instances, so every
+ * instance serves the same feed. The last buffer-size changes are kept in
+ * memory for consumers that are keeping up; older ones are read back from the
+ * table, which keeps them for retention.
+ */
+@Service
+@ConditionalOnProperty(name = "room.changes.feed", havingValue = "true")
+public class OutboxRoomChangeFeed implements RoomChangeFeed, MeterBinder {
+	private static final Logger log = LoggerFactory.getLogger(OutboxRoomChangeFeed.class);
+	private static final long PRUNE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	private final RoomOutboxStore store;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+	private final long pollIntervalNanos;
+	private final Duration retention;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition publishDue = lock.newCondition();
+	// Change n is at n % recent.length once published, for offsets from firstBuffered on
+	private final RoomChange[] recent;
+	private final List<Waiter> waiters = new ArrayList<>();
+	private final Thread relay = new Thread(this::run, "room-change-relay");
+	private long firstBuffered;
+	private long firstOffset;
+	private volatile long lastOffset;
+	private boolean signalled;
+	private boolean closed;
+	private long lastPruneNanos;
+
+	private final LongAdder published = new LongAdder();
+
+	public OutboxRoomChangeFeed(RoomOutboxStore store, PlatformTransactionManager transactionManager,
+			@Value("${room.changes.batch-size:500}") int batchSize,
+			@Value("${room.changes.buffer-size:10000}") int bufferSize,
+			@Value("${room.changes.poll-interval:1s}") Duration pollInterval,
+			@Value("${room.changes.retention:7d}") Duration retention) {
+		this.store = store;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+		this.recent = new RoomChange[bufferSize];
+		this.pollIntervalNanos = pollInterval.toNanos();
+		this.retention = retention;
+	}
+
+	@PostConstruct
+	public void start() {
+		lastOffset = store.lastOffset();
+		firstOffset = store.firstOffset(lastOffset);
+		firstBuffered = lastOffset + 1;
+		lastPruneNanos = System.nanoTime() - PRUNE_INTERVAL_NANOS;
+		relay.setDaemon(true);
+		relay.start();
+	}
+
+	/*
+	 * Rows not yet published when the relay stops are published on the next
+	 * start.
+	 */
+	@PreDestroy
+	public void close() throws InterruptedException {
+		lock.lock();
+		try {
+			closed = true;
+			publishDue.signal();
+		} finally {
+			lock.unlock();
+		}
+		relay.join(TimeUnit.NANOSECONDS.toMillis(pollIntervalNanos) + 5000);
+	}
+
+	/*
+	 * Runs in the transaction that published the event, if there is one.
+	 */
+	@EventListener
+	public void onRoomChanged(RoomChangedEvent event) {
+		RoomChange change = new RoomChange(0, event.isAdded() ? RoomChange.Type.ADDED : RoomChange.Type.UPDATED,
+				event.getRoom(), Instant.now());
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			store.insert(Collections.singletonList(change));
+			signal();
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		List<RoomChange> pending = (List<RoomChange>) TransactionSynchronizationManager.getResource(this);
+		if (pending == null) {
+			List<RoomChange> changes = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(this, changes);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void beforeCommit(boolean readOnly) {
+					// One batch insert for everything the transaction changed
+					store.insert(changes);
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResource(OutboxRoomChangeFeed.this);
+					if (status == STATUS_COMMITTED) {
+						signal();
+					}
+				}
+			});
+			pending = changes;
+		}
+		pending.add(change);
+	}
+
+	@Override
+	public long getLastOffset() {
+		return lastOffset;
+	}
+
+	@Override
+	public long getFirstOffset() {
+		lock.lock();
+		try {
+			return firstOffset;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public List<RoomChange> read(long after, int limit) {
+		lock.lock();
+		try {
+			if (after >= lastOffset) {
+				return Collections.emptyList();
+			}
+			if (after + 1 >= Math.max(firstBuffered, lastOffset - recent.length + 1)) {
+				int count = (int) Math.min(limit, lastOffset - after);
+				List<RoomChange> changes = new ArrayList<>(count);
+				for (long offset = after + 1; offset <= after + count; offset++) {
+					changes.add(recent[(int) (offset % recent.length)]);
+				}
+				return changes;
+			}
+		} finally {
+			lock.unlock();
+		}
+		return store.read(after, limit);
+	}
+
+	@Override
+	public Runnable onChangesAfter(long after, Runnable listener) {
+		Waiter waiter = new Waiter(after, listener);
+		lock.lock();
+		try {
+			if (after >= lastOffset) {
+				waiters.add(waiter);
+				return () -> {
+					lock.lock();
+					try {
+						waiters.remove(waiter);
+					} finally {
+						lock.unlock();
+					}
+				};
+			}
+		} finally {
+			lock.unlock();
+		}
+		listener.run();
+		return () -> {
+		};
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("room.changes.published", published, LongAdder::sum)
+				.description("Room changes given a feed offset").register(registry);
+		Gauge.builder("room.changes.waiting", this, OutboxRoomChangeFeed::waiting)
+				.description("Consumers waiting for the next room change").register(registry);
+	}
+
+	private void signal() {
+		lock.lock();
+		try {
+			signalled = true;
+			publishDue.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void run() {
+		while (true) {
+			lock.lock();
+			try {
+				long nanos = pollIntervalNanos;
+				while (!signalled && !closed && nanos > 0) {
+					nanos = publishDue.awaitNanos(nanos);
+				}
+				if (closed) {
+					return;
+				}
+				signalled = false;
+			} catch (InterruptedException e) {
+				return;
+			} finally {
+				lock.unlock();
+			}
+			try {
+				publishPending();
+				prune();
+			} catch (RuntimeException e) {
+				log.warn("Could not publish room changes, retrying in {} ms",
+						TimeUnit.NANOSECONDS.toMillis(pollIntervalNanos), e);
+			}
+		}
+	}
+
+	private void publishPending() {
+		List<RoomChange> changes;
+		do {
+			long after = lastOffset;
+			changes = transactionTemplate.execute(status -> store.publish(after, batchSize));
+			if (changes.isEmpty()) {
+				break;
+			}
+			// Anything another instance published in between is read back first, ours with it
+			if (changes.get(0).getOffset() == lastOffset + 1) {
+				append(changes);
+			} else {
+				catchUp();
+			}
+		} while (changes.size() == batchSize);
+		catchUp();
+	}
+
+	/*
+	 * Appends the changes other instances published since the last offset,
+	 * read back from the table.
+	 */
+	private void catchUp() {
+		List<RoomChange> changes;
+		do {
+			changes = store.read(lastOffset, batchSize);
+			if (!changes.isEmpty()) {
+				append(changes);
+			}
+		} while (changes.size() == batchSize);
+	}
+
+	private void append(List<RoomChange> changes) {
+		List<Runnable> ready = new ArrayList<>();
+		lock.lock();
+		try {
+			for (RoomChange change : changes) {
+				recent[(int) (change.getOffset() % recent.length)] = change;
+			}
+			lastOffset = changes.get(changes.size() - 1).getOffset();
+			waiters.removeIf(waiter -> {
+				if (waiter.after >= lastOffset) {
+					return false;
+				}
+				ready.add(waiter.listener);
+				return true;
+			});
+		} finally {
+			lock.unlock();
+		}
+		published.add(changes.size());
+		for (Runnable listener : ready) {
+			try {
+				listener.run();
+			} catch (RuntimeException e) {
+				log.warn("Room change listener failed", e);
+			}
+		}
+	}
+
+	private void prune() {
+		if (System.nanoTime() - lastPruneNanos < PRUNE_INTERVAL_NANOS) {
+			return;
+		}
+		lastPruneNanos = System.nanoTime();
+		if (store.deleteBefore(Instant.now().minus(retention)) > 0) {
+			long first = store.firstOffset(lastOffset);
+			lock.lock();
+			try {
+				firstOffset = first;
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private double waiting() {
+		lock.lock();
+		try {
+			return waiters.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static final class Waiter {
+		private final long after;
+		private final Runnable listener;
+
+		Waiter(long after, Runnable listener) {
+			this.after = after;
+			this.listener = listener;
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package host.honeycomb.room.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import host.honeycomb.room.model.RoomReservation;
+
+/*
+ * A reservation as RoomReservationServiceImpl tracks it. Its state only moves
+ * by compare-and-set, so exactly one of confirming, cancelling and expiring
+ * a pending reservation wins. CONFIRMING is reported as pending and goes
+ * back to PENDING if the booking cannot be written.
+ */
+final class Reservation {
+	static final int PENDING = 0;
+	static final int CONFIRMING = 1;
+	static final int CONFIRMED = 2;
+	static final int CANCELLED = 3;
+	static final int EXPIRED = 4;
+
+	private final String id;
+	private final long roomId;
+	private final LocalDate from;
+	private final LocalDate to;
+	private final long expiresAtMillis;
+	private final AtomicInteger state = new AtomicInteger(PENDING);
+
+	Reservation(String id, long roomId, LocalDate from, LocalDate to, long expiresAtMillis) {
+		this.id = id;
+		this.roomId = roomId;
+		this.from = from;
+		this.to = to;
+		this.expiresAtMillis = expiresAtMillis;
+	}
+
+	String getId() {
+		return id;
+	}
+
+	long getRoomId() {
+		return roomId;
+	}
+
+	LocalDate getFrom() {
+		return from;
+	}
+
+	LocalDate getTo() {
+		return to;
+	}
+
+	long getExpiresAtMillis() {
+		return expiresAtMillis;
+	}
+
+	int getState() {
+		return state.get();
+	}
+
+	boolean transition(int expected, int next) {
+		return state.compareAndSet(expected, next);
+	}
+
+	boolean hasEnded() {
+		return state.get() >= CONFIRMED;
+	}
+
+	RoomReservation toRoomReservation() {
+		RoomReservation.Status status;
+		switch (state.get()) {
+		case CONFIRMED:
+			status = RoomReservation.Status.CONFIRMED;
+			break;
+		case CANCELLED:
+			status = RoomReservation.Status.CANCELLED;
+			break;
+		case EXPIRED:
+			status = RoomReservation.Status.EXPIRED;
+			break;
+		default:
+			status = RoomReservation.Status.PENDING;
+		}
+		return new RoomReservation(id, roomId, from, to, Instant.ofEpochMilli(expiresAtMillis), status);
+	}
+
+}
@@ -0,0 +1,216 @@
+package host.honeycomb.room.service.impl;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomAvailability;
+import host.honeycomb.room.repository.RoomRepo;
+import host.honeycomb.room.service.RoomAvailabilityService;
+
+/*
+ * Keeps an OccupancyCalendar per room in memory, counted from the first of
+ * the month the service started in, and loads it from room_calendar at
+ * startup. A change is applied to the calendar and written to its months in
+ * one transaction while holding the calendar's monitor, and undone in memory
+ * if the write fails, so changes to one room are serialized and the table
+ * never lags a change that was reported as made. Holds and bookings also
+ * refuse nights claimed by pending reservations, which are reported as held.
+ *
+ * Each instance only sees the others' changes when its own write to a month
+ * finds the row changed; it then reloads the stay's months and tries again.
+ * So instances sharing the table never hold or book the same night, but
+ * reads answered from memory, and claims, are per instance.
+ */
+@Service
+public class RoomAvailabilityServiceImpl implements RoomAvailabilityService {
+	private static final Runnable NO_RECORD = () -> {
+	};
+	private static final int MAX_ATTEMPTS = 3;
+
+	private final RoomRepo repo;
+	private final RoomCalendarStore store;
+	private final NightClaims claims;
+	private final TransactionTemplate transactionTemplate;
+	private final int horizonDays;
+	private final LocalDate firstDay = LocalDate.now().withDayOfMonth(1);
+	private final ConcurrentMap<Long, OccupancyCalendar> calendars = new ConcurrentHashMap<>();
+
+	public RoomAvailabilityServiceImpl(RoomRepo repo, RoomCalendarStore store, NightClaims claims,
+			PlatformTransactionManager transactionManager,
+			@Value("${room.availability.horizon-days:730}") int horizonDays) {
+		this.repo = repo;
+		this.store = store;
+		this.claims = claims;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.horizonDays = horizonDays;
+	}
+
+	@PostConstruct
+	public void load() {
+		store.forEachMonth(firstDay,
+				(roomId, monthStart, held, booked) -> calendar(roomId).load(index(monthStart), held, booked));
+	}
+
+	@Override
+	public boolean isBookable(LocalDate from, LocalDate to) {
+		LocalDate today = LocalDate.now();
+		return !from.isBefore(today) && to.isAfter(from) && !to.isAfter(today.plusDays(horizonDays));
+	}
+
+	@Override
+	public boolean hold(long roomId, LocalDate from, LocalDate to) {
+		return change(roomId, from, to,
+				calendar -> isUnclaimed(roomId, from, to) && calendar.hold(index(from), index(to)), NO_RECORD);
+	}
+
+	@Override
+	public boolean book(long roomId, LocalDate from, LocalDate to) {
+		return change(roomId, from, to,
+				calendar -> isUnclaimed(roomId, from, to) && calendar.book(index(from), index(to)), NO_RECORD);
+	}
+
+	@Override
+	public void release(long roomId, LocalDate from, LocalDate to) {
+		change(roomId, from, to, calendar -> {
+			calendar.release(index(from), index(to));
+			return true;
+		}, NO_RECORD);
+	}
+
+	/*
+	 * Books the nights of a reservation, whose claims the caller holds, and
+	 * runs record in the same transaction as the write of the calendar.
+	 */
+	boolean confirm(long roomId, LocalDate from, LocalDate to, Runnable record) {
+		return change(roomId, from, to, calendar -> calendar.book(index(from), index(to)), record);
+	}
+
+	/*
+	 * Whether no night of the stay is held or booked, not counting claims. A
+	 * reservation checks this after claiming the nights, so a hold or booking
+	 * either sees its claim or is seen here.
+	 */
+	boolean isFree(long roomId, LocalDate from, LocalDate to) {
+		OccupancyCalendar calendar = calendars.get(roomId);
+		if (calendar == null) {
+			return true;
+		}
+		synchronized (calendar) {
+			return calendar.isFree(index(from), index(to));
+		}
+	}
+
+	@Override
+	public RoomAvailability getAvailability(long roomId, LocalDate from, LocalDate to) {
+		List<LocalDate> held = new ArrayList<>();
+		List<LocalDate> booked = new ArrayList<>();
+		OccupancyCalendar calendar = calendar(roomId);
+		synchronized (calendar) {
+			for (LocalDate night = from; night.isBefore(to); night = night.plusDays(1)) {
+				if (calendar.isHeld(index(night)) || !isUnclaimed(roomId, night, night.plusDays(1))) {
+					held.add(night);
+				}
+				if (calendar.isBooked(index(night))) {
+					booked.add(night);
+				}
+			}
+		}
+		return new RoomAvailability(roomId, from, to, held, booked);
+	}
+
+	@Override
+	public List<Room> findAvailableRooms(String floor, String roomType, LocalDate from, LocalDate to) {
+		List<Room> rooms = roomType == null ? repo.findRoomsByFloor(floor)
+				: repo.findByFloorAndRoomType(floor, roomType);
+		int first = index(from);
+		int last = index(to);
+		return rooms.stream().filter(room -> {
+			if (!isUnclaimed(room.getId(), from, to)) {
+				return false;
+			}
+			OccupancyCalendar calendar = calendars.get(room.getId());
+			if (calendar == null) {
+				return true;
+			}
+			synchronized (calendar) {
+				return calendar.isFree(first, last);
+			}
+		}).collect(Collectors.toList());
+	}
+
+	private boolean change(long roomId, LocalDate from, LocalDate to, Predicate<OccupancyCalendar> update,
+			Runnable record) {
+		OccupancyCalendar calendar = calendar(roomId);
+		List<LocalDate> months = new ArrayList<>();
+		for (LocalDate month = from.withDayOfMonth(1); month.isBefore(to); month = month.plusMonths(1)) {
+			months.add(month);
+		}
+		synchronized (calendar) {
+			for (int attempt = 1;; attempt++) {
+				long[][] saved = calendar.save();
+				int[][] previous = new int[months.size()][];
+				for (int i = 0; i < months.size(); i++) {
+					int start = index(months.get(i));
+					int days = months.get(i).lengthOfMonth();
+					previous[i] = new int[] { calendar.heldBits(start, days), calendar.bookedBits(start, days) };
+				}
+				if (!update.test(calendar)) {
+					return false;
+				}
+				try {
+					transactionTemplate.executeWithoutResult(status -> {
+						for (int i = 0; i < months.size(); i++) {
+							int start = index(months.get(i));
+							int days = months.get(i).lengthOfMonth();
+							store.saveMonth(roomId, months.get(i), previous[i][0], previous[i][1],
+									calendar.heldBits(start, days), calendar.bookedBits(start, days));
+						}
+						record.run();
+					});
+					return true;
+				} catch (OptimisticLockingFailureException e) {
+					calendar.restore(saved);
+					if (attempt == MAX_ATTEMPTS) {
+						throw e;
+					}
+					// Another instance wrote one of the months, so catch up with it
+					for (LocalDate month : months) {
+						int[] bits = store.findMonth(roomId, month);
+						calendar.reload(index(month), month.lengthOfMonth(), bits[0], bits[1]);
+					}
+				} catch (RuntimeException e) {
+					calendar.restore(saved);
+					throw e;
+				}
+			}
+		}
+	}
+
+	private boolean isUnclaimed(long roomId, LocalDate from, LocalDate to) {
+		return claims.isFree(roomId, from.toEpochDay(), to.toEpochDay());
+	}
+
+	private OccupancyCalendar calendar(long roomId) {
+		return calendars.computeIfAbsent(roomId, id -> new OccupancyCalendar(horizonDays + 31));
+	}
+
+	private int index(LocalDate day) {
+		return Math.toIntExact(ChronoUnit.DAYS.between(firstDay, day));
+	}
+
+}
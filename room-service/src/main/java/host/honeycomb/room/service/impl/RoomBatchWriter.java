@@ -0,0 +1,116 @@
+package host.honeycomb.room.service.impl;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import host.honeycomb.room.event.RoomChangedEvent;
+import host.honeycomb.room.model.Room;
+
+/*
+ * Writes the updates drained from WriteBehindRoomUpdateQueue as one JDBC
+ * batch per transaction, bypassing the persistence context.
+ */
+@Component
+@ConditionalOnProperty(name = "room.update.write-behind", havingValue = "true")
+class RoomBatchWriter {
+	private static final String LOCK_ROOMS = "SELECT id, room_number, version FROM rooms WHERE id IN (:ids) FOR UPDATE";
+	private static final String UPDATE_ROOM = "UPDATE rooms SET room_number = :roomNumber, weekday_price = :weekdayPrice, "
+			+ "weekend_price = :weekendPrice, room_type = :roomType, floor = :floor, version = :version, "
+			+ "last_modified = :lastModified WHERE id = :id";
+
+	private NamedParameterJdbcTemplate jdbcTemplate;
+	private TransactionTemplate transactionTemplate;
+	private ApplicationEventPublisher eventPublisher;
+
+	RoomBatchWriter(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			ApplicationEventPublisher eventPublisher) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.eventPublisher = eventPublisher;
+	}
+
+	/*
+	 * Returns the rooms that could not be written. A batch that fails is
+	 * retried room by room, so one bad update does not lose the others.
+	 */
+	List<Room> write(List<Room> rooms) {
+		try {
+			transactionTemplate.executeWithoutResult(status -> update(rooms));
+			return Collections.emptyList();
+		} catch (RuntimeException e) {
+			List<Room> failed = new ArrayList<>();
+			for (Room room : rooms) {
+				try {
+					transactionTemplate.executeWithoutResult(status -> update(Collections.singletonList(room)));
+				} catch (RuntimeException roomFailure) {
+					failed.add(room);
+				}
+			}
+			return failed;
+		}
+	}
+
+	private void update(List<Room> rooms) {
+		// Locking the rows first makes the version read here the one being replaced
+		Map<Long, Room> current = new HashMap<>();
+		jdbcTemplate.query(LOCK_ROOMS,
+				Collections.singletonMap("ids", rooms.stream().map(Room::getId).collect(Collectors.toList())),
+				row -> {
+					Room room = new Room();
+					room.setRoomNumber(row.getString("room_number"));
+					room.setVersion(row.getLong("version"));
+					current.put(row.getLong("id"), room);
+				});
+
+		// Rooms deleted since they were queued are skipped
+		Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+		List<Room> updated = new ArrayList<>(rooms.size());
+		List<Map<String, Object>> parameters = new ArrayList<>(rooms.size());
+		for (Room room : rooms) {
+			Room previous = current.get(room.getId());
+			if (previous == null) {
+				continue;
+			}
+			room.setVersion(previous.getVersion() + 1);
+			room.setLastModified(now);
+			updated.add(room);
+
+			Map<String, Object> values = new HashMap<>();
+			values.put("id", room.getId());
+			values.put("roomNumber", room.getRoomNumber());
+			values.put("weekdayPrice", room.getWeekdayPrice());
+			values.put("weekendPrice", room.getWeekendPrice());
+			values.put("roomType", room.getRoomType());
+			values.put("floor", room.getFloor());
+			values.put("version", room.getVersion());
+			values.put("lastModified", Timestamp.from(now));
+			parameters.add(values);
+		}
+		if (updated.isEmpty()) {
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		Map<String, Object>[] batch = parameters.toArray(new Map[0]);
+		jdbcTemplate.batchUpdate(UPDATE_ROOM, batch);
+
+		for (Room room : updated) {
+			String previousRoomNumber = current.get(room.getId()).getRoomNumber();
+			eventPublisher.publishEvent(new RoomChangedEvent(room, previousRoomNumber, false));
+		}
+	}
+
+}
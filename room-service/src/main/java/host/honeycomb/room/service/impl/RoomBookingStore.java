@@ -0,0 +1,39 @@
+package host.honeycomb.room.service.impl;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/*
+ * Writes the room_booking table, one row per confirmed reservation.
+ */
+@Component
+class RoomBookingStore {
+	private static final String INSERT = "INSERT INTO room_booking (reservation_id, room_id, check_in, check_out, "
+			+ "confirmed_at) VALUES (:reservationId, :roomId, :checkIn, :checkOut, :confirmedAt)";
+
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	RoomBookingStore(NamedParameterJdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/*
+	 * Runs in the caller's transaction.
+	 */
+	void insert(Reservation reservation, Instant confirmedAt) {
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("reservationId", reservation.getId());
+		parameters.put("roomId", reservation.getRoomId());
+		parameters.put("checkIn", Date.valueOf(reservation.getFrom()));
+		parameters.put("checkOut", Date.valueOf(reservation.getTo()));
+		parameters.put("confirmedAt", Timestamp.from(confirmedAt));
+		jdbcTemplate.update(INSERT, parameters);
+	}
+
+}
@@ -0,0 +1,43 @@
+package host.honeycomb.room.service.impl;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import host.honeycomb.room.event.RoomChangedEvent;
+import host.honeycomb.room.model.Room;
+
+@Component
+public class RoomCacheEvictionListener {
+	private CacheManager cacheManager;
+
+	public RoomCacheEvictionListener(CacheManager cacheManager) {
+		this.cacheManager = cacheManager;
+	}
+
+	/*
+	 * Evicts after commit rather than putting the new value, so a rolled back
+	 * write never reaches the cache and the next read loads the committed row.
+	 * Lookups that read the row before the commit cannot put it back.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onRoomChanged(RoomChangedEvent event) {
+		Room room = event.getRoom();
+		evict(RoomServiceImpl.ROOMS_BY_ID_CACHE, room.getId(), room);
+		evict(RoomServiceImpl.ROOMS_BY_NUMBER_CACHE, room.getRoomNumber(), room);
+		if (event.getPreviousRoomNumber() != null) {
+			evict(RoomServiceImpl.ROOMS_BY_NUMBER_CACHE, event.getPreviousRoomNumber(), room);
+		}
+	}
+
+	private void evict(String cacheName, Object key, Room committed) {
+		Cache cache = cacheManager.getCache(cacheName);
+		if (cache instanceof VersionedRoomCache && key != null) {
+			((VersionedRoomCache) cache).evict(key, committed);
+		} else if (cache != null && key != null) {
+			cache.evict(key);
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+package host.honeycomb.room.service.impl;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+
+/*
+ * Caffeine caches, with the room caches guarded against stale puts by
+ * VersionedRoomCache. Their committed versions are kept in caches built like
+ * the room caches, so they are bounded and expire the same way.
+ */
+public class RoomCacheManager extends CaffeineCacheManager {
+	/*
+	 * Set before calling the superclass setters, which rebuild the caches.
+	 */
+	private Caffeine<Object, Object> versionsBuilder = Caffeine.newBuilder();
+
+	@Override
+	public void setCaffeine(Caffeine<Object, Object> caffeine) {
+		versionsBuilder = caffeine;
+		super.setCaffeine(caffeine);
+	}
+
+	@Override
+	public void setCaffeineSpec(CaffeineSpec caffeineSpec) {
+		versionsBuilder = Caffeine.from(caffeineSpec);
+		super.setCaffeineSpec(caffeineSpec);
+	}
+
+	@Override
+	public void setCacheSpecification(String cacheSpecification) {
+		versionsBuilder = Caffeine.from(cacheSpecification);
+		super.setCacheSpecification(cacheSpecification);
+	}
+
+	@Override
+	protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+		if (RoomServiceImpl.ROOMS_BY_ID_CACHE.equals(name) || RoomServiceImpl.ROOMS_BY_NUMBER_CACHE.equals(name)) {
+			return new VersionedRoomCache(name, cache, versionsBuilder.build(), isAllowNullValues());
+		}
+		return super.adaptCaffeineCache(name, cache);
+	}
+
+}
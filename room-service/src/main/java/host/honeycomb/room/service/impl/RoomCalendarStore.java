@@ -0,0 +1,99 @@
+package host.honeycomb.room.service.impl;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/*
+ * Reads and writes the room_calendar table, one row per room and month with
+ * the month's held and booked nights as bit masks. Months with nothing held
+ * or booked have no row. Writes only apply over the masks the writer last
+ * read, so instances sharing the table cannot overwrite each other's nights.
+ */
+@Component
+class RoomCalendarStore {
+	private static final String SELECT_FROM = "SELECT room_id, month_start, held_days, booked_days FROM room_calendar "
+			+ "WHERE month_start >= :from";
+	private static final String SELECT_MONTH = "SELECT held_days, booked_days FROM room_calendar "
+			+ "WHERE room_id = :roomId AND month_start = :monthStart";
+	private static final String UPDATE = "UPDATE room_calendar SET held_days = :held, booked_days = :booked "
+			+ "WHERE room_id = :roomId AND month_start = :monthStart "
+			+ "AND held_days = :previousHeld AND booked_days = :previousBooked";
+	private static final String INSERT = "INSERT INTO room_calendar (room_id, month_start, held_days, booked_days) "
+			+ "VALUES (:roomId, :monthStart, :held, :booked)";
+	private static final String DELETE = "DELETE FROM room_calendar "
+			+ "WHERE room_id = :roomId AND month_start = :monthStart "
+			+ "AND held_days = :previousHeld AND booked_days = :previousBooked";
+
+	interface MonthConsumer {
+		void accept(long roomId, LocalDate monthStart, int held, int booked);
+	}
+
+	private NamedParameterJdbcTemplate jdbcTemplate;
+
+	RoomCalendarStore(NamedParameterJdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	void forEachMonth(LocalDate from, MonthConsumer action) {
+		jdbcTemplate.query(SELECT_FROM, Collections.singletonMap("from", Date.valueOf(from)),
+				row -> {
+					action.accept(row.getLong("room_id"), row.getDate("month_start").toLocalDate(),
+							row.getInt("held_days"), row.getInt("booked_days"));
+				});
+	}
+
+	/*
+	 * The held and booked masks of one month, both 0 if it has no row.
+	 */
+	int[] findMonth(long roomId, LocalDate monthStart) {
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("roomId", roomId);
+		parameters.put("monthStart", Date.valueOf(monthStart));
+		return jdbcTemplate.query(SELECT_MONTH, parameters, rows -> rows.next()
+				? new int[] { rows.getInt("held_days"), rows.getInt("booked_days") }
+				: new int[] { 0, 0 });
+	}
+
+	/*
+	 * Runs in the caller's transaction. Throws OptimisticLockingFailureException
+	 * if the month's row no longer has the previous masks, having been written
+	 * by another instance since they were read.
+	 */
+	void saveMonth(long roomId, LocalDate monthStart, int previousHeld, int previousBooked, int held, int booked) {
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("roomId", roomId);
+		parameters.put("monthStart", Date.valueOf(monthStart));
+		parameters.put("previousHeld", previousHeld);
+		parameters.put("previousBooked", previousBooked);
+		parameters.put("held", held);
+		parameters.put("booked", booked);
+		int rows;
+		if (previousHeld == 0 && previousBooked == 0) {
+			if (held == 0 && booked == 0) {
+				return;
+			}
+			try {
+				rows = jdbcTemplate.update(INSERT, parameters);
+			} catch (DuplicateKeyException e) {
+				rows = 0;
+			}
+		} else if (held == 0 && booked == 0) {
+			rows = jdbcTemplate.update(DELETE, parameters);
+		} else {
+			rows = jdbcTemplate.update(UPDATE, parameters);
+		}
+		if (rows == 0) {
+			throw new OptimisticLockingFailureException(
+					"room_calendar changed for room " + roomId + " in the month of " + monthStart);
+		}
+	}
+
+}
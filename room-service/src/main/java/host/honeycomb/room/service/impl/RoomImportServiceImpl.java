@@ -0,0 +1,130 @@
+package host.honeycomb.room.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.h2.util.StringUtils;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import host.honeycomb.room.event.RoomChangedEvent;
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomImportResult;
+import host.honeycomb.room.service.RoomImportService;
+
+@Service
+public class RoomImportServiceImpl implements RoomImportService {
+	private ObjectMapper objectMapper;
+	private TransactionTemplate transactionTemplate;
+	private ApplicationEventPublisher eventPublisher;
+	private int batchSize;
+	private int chunkSize;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	public RoomImportServiceImpl(ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+			ApplicationEventPublisher eventPublisher, @Value("${room.import.batch-size:50}") int batchSize,
+			@Value("${room.import.chunk-size:1000}") int chunkSize) {
+		this.objectMapper = objectMapper;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.eventPublisher = eventPublisher;
+		this.batchSize = batchSize;
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public RoomImportResult importJson(InputStream json) throws IOException {
+		return importRows(new JsonRoomRowReader(objectMapper, json));
+	}
+
+	@Override
+	public RoomImportResult importCsv(InputStream csv) throws IOException {
+		return importRows(new CsvRoomRowReader(csv));
+	}
+
+	private RoomImportResult importRows(RoomRowReader reader) throws IOException {
+		RoomImportResult result = new RoomImportResult();
+		List<RoomRow> chunk = new ArrayList<>(chunkSize);
+		try (RoomRowReader rows = reader) {
+			for (RoomRow row = rows.next(); row != null; row = rows.next()) {
+				String error = row.getError() != null ? row.getError() : validate(row.getRoom());
+				if (error != null) {
+					result.addFailure(row.getRow(), row.getRoomNumber(), error);
+					continue;
+				}
+				chunk.add(row);
+				if (chunk.size() == chunkSize) {
+					insertChunk(chunk, result);
+					chunk.clear();
+				}
+			}
+		} catch (MalformedImportException e) {
+			// Nothing after this point can be read, but the rows before it are still imported
+			result.addFailure(e.getRow(), null, e.getMessage());
+		}
+		insertChunk(chunk, result);
+		return result;
+	}
+
+	private String validate(Room room) {
+		if (StringUtils.isNullOrEmpty(room.getRoomNumber())) {
+			return "roomNumber is required.";
+		}
+		if (StringUtils.isNullOrEmpty(room.getRoomType())) {
+			return "roomType is required.";
+		}
+		if (StringUtils.isNullOrEmpty(room.getFloor())) {
+			return "floor is required.";
+		}
+		return null;
+	}
+
+	private void insertChunk(List<RoomRow> chunk, RoomImportResult result) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+		try {
+			transactionTemplate.executeWithoutResult(status -> persist(chunk));
+			result.addImported(chunk.size());
+		} catch (RuntimeException e) {
+			// One bad row rolls back its whole chunk, so retry the chunk row by row to find it
+			for (RoomRow row : chunk) {
+				try {
+					transactionTemplate.executeWithoutResult(status -> persist(Collections.singletonList(row)));
+					result.addImported(1);
+				} catch (RuntimeException rowFailure) {
+					result.addFailure(row.getRow(), row.getRoomNumber(),
+							NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+				}
+			}
+		}
+	}
+
+	private void persist(List<RoomRow> rows) {
+		entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+		for (RoomRow row : rows) {
+			// Always persist a fresh entity, a rolled back attempt may have assigned an id already
+			Room parsed = row.getRoom();
+			Room room = new Room(0L, parsed.getRoomNumber(), parsed.getWeekdayPrice(), parsed.getWeekendPrice(),
+					parsed.getRoomType(), parsed.getFloor());
+			entityManager.persist(room);
+			eventPublisher.publishEvent(new RoomChangedEvent(room, null, true));
+		}
+		entityManager.flush();
+	}
+
+}
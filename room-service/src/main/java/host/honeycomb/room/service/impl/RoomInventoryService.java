@@ -0,0 +1,143 @@
+package host.honeycomb.room.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+
+import org.h2.util.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import host.honeycomb.room.event.RoomChangedEvent;
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomBatchResult;
+import host.honeycomb.room.model.RoomSearchCriteria;
+import host.honeycomb.room.service.RoomService;
+
+/*
+ * Opt-in read model (room.inventory.snapshot=true) that answers findRoom,
+ * findByRoomNumber and findRoomsByFloor from an in-memory
+ * RoomInventorySnapshot instead of JPA. Everything else is passed to
+ * RoomServiceImpl. The snapshot is loaded once at startup and patched after
+ * every committed change, once per transaction.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "room.inventory.snapshot", havingValue = "true")
+public class RoomInventoryService implements RoomService {
+	private final RoomService delegate;
+	private volatile RoomInventorySnapshot snapshot = RoomInventorySnapshot.EMPTY;
+
+	public RoomInventoryService(@Qualifier("roomServiceImpl") RoomService delegate) {
+		this.delegate = delegate;
+	}
+
+	@PostConstruct
+	public synchronized void load() {
+		List<Room> rooms = new ArrayList<>();
+		delegate.forEachRoom(rooms::add);
+		snapshot = RoomInventorySnapshot.of(rooms);
+	}
+
+	@Override
+	public Optional<Room> findRoom(long roomId) {
+		return Optional.ofNullable(snapshot.findRoom(roomId));
+	}
+
+	@Override
+	public Optional<Room> findByRoomNumber(String roomNumber) {
+		if (StringUtils.isNullOrEmpty(roomNumber) || !StringUtils.isNumber(roomNumber)) {
+			// Let RoomServiceImpl reject the malformed room number
+			return delegate.findByRoomNumber(roomNumber);
+		}
+		return Optional.ofNullable(snapshot.findByRoomNumber(roomNumber));
+	}
+
+	@Override
+	public List<Room> findRoomsByFloor(String floorNumber) {
+		return snapshot.findRoomsByFloor(floorNumber);
+	}
+
+	@Override
+	public Iterable<Room> getAllRooms() {
+		return delegate.getAllRooms();
+	}
+
+	@Override
+	public Room updateRoom(Room room) {
+		return delegate.updateRoom(room);
+	}
+
+	@Override
+	public Room addRoom(Room room) {
+		return delegate.addRoom(room);
+	}
+
+	@Override
+	public Slice<Room> searchRooms(RoomSearchCriteria criteria, Pageable pageable) {
+		return delegate.searchRooms(criteria, pageable);
+	}
+
+	@Override
+	public RoomBatchResult findRooms(Collection<Long> ids, Collection<String> roomNumbers) {
+		return delegate.findRooms(ids, roomNumbers);
+	}
+
+	@Override
+	public List<Room> findRoomsAfter(long afterId, int limit) {
+		return delegate.findRoomsAfter(afterId, limit);
+	}
+
+	@Override
+	public void forEachRoom(Consumer<? super Room> action) {
+		delegate.forEachRoom(action);
+	}
+
+	/*
+	 * Collects the rooms changed in a transaction and applies them together
+	 * after it commits, so a chunk of imported rooms costs one rebuild rather
+	 * than one per room. The rooms are read after commit, when their versions
+	 * are final.
+	 */
+	@EventListener
+	public void onRoomChanged(RoomChangedEvent event) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			apply(Collections.singletonList(event.getRoom()));
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		List<Room> changes = (List<Room>) TransactionSynchronizationManager.getResource(this);
+		if (changes == null) {
+			List<Room> pending = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResource(RoomInventoryService.this);
+					if (status == STATUS_COMMITTED) {
+						apply(pending);
+					}
+				}
+			});
+			changes = pending;
+		}
+		changes.add(event.getRoom());
+	}
+
+	private synchronized void apply(List<Room> changes) {
+		snapshot = snapshot.with(changes);
+	}
+
+}
@@ -0,0 +1,289 @@
+package host.honeycomb.room.service.impl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import host.honeycomb.room.model.Room;
+
+/*
+ * Immutable, column-oriented copy of every room, sorted by id. Room types and
+ * floors are dictionary encoded, ids and room numbers are found through open
+ * addressing tables of row numbers, and each floor has a posting list of its
+ * rows. Changes produce a new snapshot; readers never see a partial update.
+ */
+final class RoomInventorySnapshot {
+	private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+	private static final int NO_ROW = -1;
+
+	static final RoomInventorySnapshot EMPTY = new Builder(0).build();
+
+	private final int size;
+	private final long[] ids;
+	private final String[] roomNumbers;
+	private final double[] weekdayPrices;
+	private final double[] weekendPrices;
+	private final int[] roomTypeCodes;
+	private final int[] floorCodes;
+	private final long[] versions;
+	private final long[] lastModified;
+
+	private final String[] roomTypes;
+	private final String[] floors;
+	private final Map<String, Integer> floorCodesByName;
+
+	// Row + 1 for each occupied slot, 0 for empty; the length is a power of two
+	private final int[] idTable;
+	private final int[] roomNumberTable;
+	private final int[][] rowsByFloor;
+
+	private RoomInventorySnapshot(Builder builder, String[] roomTypes, int[] roomTypeCodes, String[] floors,
+			int[] floorCodes, Map<String, Integer> floorCodesByName) {
+		this.size = builder.size;
+		this.ids = builder.ids;
+		this.roomNumbers = builder.roomNumbers;
+		this.weekdayPrices = builder.weekdayPrices;
+		this.weekendPrices = builder.weekendPrices;
+		this.versions = builder.versions;
+		this.lastModified = builder.lastModified;
+		this.roomTypes = roomTypes;
+		this.roomTypeCodes = roomTypeCodes;
+		this.floors = floors;
+		this.floorCodes = floorCodes;
+		this.floorCodesByName = floorCodesByName;
+
+		int capacity = Integer.highestOneBit(Math.max(2, size * 2 - 1)) << 1;
+		idTable = new int[capacity];
+		roomNumberTable = new int[capacity];
+		for (int row = 0; row < size; row++) {
+			insert(idTable, Long.hashCode(ids[row]), row);
+			if (roomNumbers[row] != null) {
+				insert(roomNumberTable, roomNumbers[row].hashCode(), row);
+			}
+		}
+
+		int[] floorSizes = new int[floors.length];
+		for (int row = 0; row < size; row++) {
+			floorSizes[floorCodes[row]]++;
+		}
+		rowsByFloor = new int[floors.length][];
+		for (int code = 0; code < floors.length; code++) {
+			rowsByFloor[code] = new int[floorSizes[code]];
+		}
+		int[] filled = new int[floors.length];
+		for (int row = 0; row < size; row++) {
+			int code = floorCodes[row];
+			rowsByFloor[code][filled[code]++] = row;
+		}
+	}
+
+	static RoomInventorySnapshot of(Collection<Room> rooms) {
+		return EMPTY.with(rooms);
+	}
+
+	/*
+	 * Returns a snapshot with the given rooms added, or replacing the rows with
+	 * the same ids and older versions. Transactions that change the same room
+	 * may apply out of commit order, and an older version never replaces a
+	 * newer one. Unchanged rows are copied column by column, so no Room is
+	 * created for them.
+	 */
+	RoomInventorySnapshot with(Collection<Room> changes) {
+		if (changes.isEmpty()) {
+			return this;
+		}
+		Map<Long, Room> changed = new HashMap<>();
+		for (Room room : changes) {
+			changed.merge(room.getId(), room,
+					(first, second) -> second.getVersion() > first.getVersion() ? second : first);
+		}
+		List<Room> added = new ArrayList<>();
+		for (Room room : changed.values()) {
+			if (rowOfId(room.getId()) == NO_ROW) {
+				added.add(room);
+			}
+		}
+		added.sort(Comparator.comparingLong(Room::getId));
+
+		// Merge the existing rows and the added rooms, both in id order
+		Builder builder = new Builder(size + added.size());
+		int next = 0;
+		for (int row = 0; row < size; row++) {
+			while (next < added.size() && added.get(next).getId() < ids[row]) {
+				builder.add(added.get(next++));
+			}
+			Room room = changed.get(ids[row]);
+			if (room != null && room.getVersion() > versions[row]) {
+				builder.add(room);
+			} else {
+				builder.add(ids[row], roomNumbers[row], weekdayPrices[row], weekendPrices[row],
+						roomTypes[roomTypeCodes[row]], floors[floorCodes[row]], versions[row], lastModified[row]);
+			}
+		}
+		while (next < added.size()) {
+			builder.add(added.get(next++));
+		}
+		return builder.build();
+	}
+
+	int size() {
+		return size;
+	}
+
+	Room findRoom(long id) {
+		int row = rowOfId(id);
+		return row == NO_ROW ? null : room(row);
+	}
+
+	Room findByRoomNumber(String roomNumber) {
+		int row = rowOfRoomNumber(roomNumber);
+		return row == NO_ROW ? null : room(row);
+	}
+
+	List<Room> findRoomsByFloor(String floor) {
+		Integer code = floorCodesByName.get(floor);
+		if (code == null) {
+			return Collections.emptyList();
+		}
+		int[] rows = rowsByFloor[code];
+		List<Room> rooms = new ArrayList<>(rows.length);
+		for (int row : rows) {
+			rooms.add(room(row));
+		}
+		return rooms;
+	}
+
+	private int rowOfId(long id) {
+		int mask = idTable.length - 1;
+		for (int slot = mix(Long.hashCode(id)) & mask;; slot = (slot + 1) & mask) {
+			int entry = idTable[slot];
+			if (entry == 0) {
+				return NO_ROW;
+			}
+			if (ids[entry - 1] == id) {
+				return entry - 1;
+			}
+		}
+	}
+
+	private int rowOfRoomNumber(String roomNumber) {
+		if (roomNumber == null) {
+			return NO_ROW;
+		}
+		int mask = roomNumberTable.length - 1;
+		for (int slot = mix(roomNumber.hashCode()) & mask;; slot = (slot + 1) & mask) {
+			int entry = roomNumberTable[slot];
+			if (entry == 0) {
+				return NO_ROW;
+			}
+			if (roomNumber.equals(roomNumbers[entry - 1])) {
+				return entry - 1;
+			}
+		}
+	}
+
+	/*
+	 * A fresh, detached Room on every call, so callers may modify what they get
+	 * back without affecting the snapshot.
+	 */
+	private Room room(int row) {
+		Room room = new Room(ids[row], roomNumbers[row], weekdayPrices[row], weekendPrices[row],
+				roomTypes[roomTypeCodes[row]], floors[floorCodes[row]]);
+		room.setVersion(versions[row]);
+		if (lastModified[row] != NO_TIMESTAMP) {
+			room.setLastModified(Instant.ofEpochMilli(lastModified[row]));
+		}
+		return room;
+	}
+
+	private static void insert(int[] table, int hash, int row) {
+		int mask = table.length - 1;
+		int slot = mix(hash) & mask;
+		while (table[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = row + 1;
+	}
+
+	// Spreads sequential ids and similar room numbers across the table
+	private static int mix(int hash) {
+		int h = hash * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private static final class Builder {
+		private int size;
+		private final long[] ids;
+		private final String[] roomNumbers;
+		private final double[] weekdayPrices;
+		private final double[] weekendPrices;
+		private final String[] roomTypeValues;
+		private final String[] floorValues;
+		private final long[] versions;
+		private final long[] lastModified;
+
+		Builder(int capacity) {
+			ids = new long[capacity];
+			roomNumbers = new String[capacity];
+			weekdayPrices = new double[capacity];
+			weekendPrices = new double[capacity];
+			roomTypeValues = new String[capacity];
+			floorValues = new String[capacity];
+			versions = new long[capacity];
+			lastModified = new long[capacity];
+		}
+
+		void add(Room room) {
+			add(room.getId(), room.getRoomNumber(), room.getWeekdayPrice(), room.getWeekendPrice(),
+					room.getRoomType(), room.getFloor(), room.getVersion(),
+					room.getLastModified() == null ? NO_TIMESTAMP : room.getLastModified().toEpochMilli());
+		}
+
+		void add(long id, String roomNumber, double weekdayPrice, double weekendPrice, String roomType,
+				String floor, long version, long modified) {
+			ids[size] = id;
+			roomNumbers[size] = roomNumber;
+			weekdayPrices[size] = weekdayPrice;
+			weekendPrices[size] = weekendPrice;
+			roomTypeValues[size] = roomType;
+			floorValues[size] = floor;
+			versions[size] = version;
+			lastModified[size] = modified;
+			size++;
+		}
+
+		RoomInventorySnapshot build() {
+			Map<String, Integer> roomTypeCodesByName = new HashMap<>();
+			int[] roomTypeCodes = encode(roomTypeValues, roomTypeCodesByName);
+			Map<String, Integer> floorCodesByName = new HashMap<>();
+			int[] floorCodes = encode(floorValues, floorCodesByName);
+			return new RoomInventorySnapshot(this, dictionary(roomTypeCodesByName), roomTypeCodes,
+					dictionary(floorCodesByName), floorCodes, floorCodesByName);
+		}
+
+		private int[] encode(String[] values, Map<String, Integer> codesByName) {
+			int[] codes = new int[size];
+			for (int row = 0; row < size; row++) {
+				Integer code = codesByName.get(values[row]);
+				if (code == null) {
+					code = codesByName.size();
+					codesByName.put(values[row], code);
+				}
+				codes[row] = code;
+			}
+			return codes;
+		}
+
+		private static String[] dictionary(Map<String, Integer> codesByName) {
+			String[] dictionary = new String[codesByName.size()];
+			codesByName.forEach((name, code) -> dictionary[code] = name);
+			return dictionary;
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+package host.honeycomb.room.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomChange;
+
+/*
+ * Reads and writes the room_outbox table. Rows are written without an offset
+ * and published by giving them one; only published rows are read back. The
+ * room is kept as its JSON representation.
+ */
+@Component
+@ConditionalOnProperty(name = "room.changes.feed", havingValue = "true")
+class RoomOutboxStore {
+	private static final String INSERT = "INSERT INTO room_outbox (id, room_id, change_type, payload, changed_at) "
+			+ "VALUES (NEXT VALUE FOR room_outbox_seq, :roomId, :type, :payload, :changedAt)";
+	private static final String SELECT_UNPUBLISHED = "SELECT id, room_id, change_type, payload, changed_at "
+			+ "FROM room_outbox WHERE feed_offset IS NULL ORDER BY id LIMIT :limit FOR UPDATE";
+	private static final String PUBLISH = "UPDATE room_outbox SET feed_offset = :offset WHERE id = :id";
+	private static final String SELECT_AFTER = "SELECT feed_offset, change_type, payload, changed_at FROM room_outbox "
+			+ "WHERE feed_offset > :after ORDER BY feed_offset LIMIT :limit";
+	// The last published row is kept, as the offset the next one is numbered after
+	private static final String DELETE_BEFORE = "DELETE FROM room_outbox WHERE changed_at < :before "
+			+ "AND feed_offset < (SELECT MAX(feed_offset) FROM room_outbox)";
+
+	private NamedParameterJdbcTemplate jdbcTemplate;
+	private ObjectMapper objectMapper;
+
+	RoomOutboxStore(NamedParameterJdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.objectMapper = objectMapper;
+	}
+
+	/*
+	 * Runs in the caller's transaction. The offsets of the changes are
+	 * ignored.
+	 */
+	void insert(List<RoomChange> changes) {
+		@SuppressWarnings("unchecked")
+		Map<String, Object>[] batch = new Map[changes.size()];
+		for (int i = 0; i < batch.length; i++) {
+			RoomChange change = changes.get(i);
+			batch[i] = new HashMap<>();
+			batch[i].put("roomId", change.getRoom().getId());
+			batch[i].put("type", change.getType().name());
+			batch[i].put("payload", toJson(change.getRoom()));
+			batch[i].put("changedAt", Timestamp.from(change.getChangedAt()));
+		}
+		jdbcTemplate.batchUpdate(INSERT, batch);
+	}
+
+	/*
+	 * Gives up to limit unpublished rows the offsets after the last one in the
+	 * table, or after lastOffset if that is later, in the order they were
+	 * written, and answers them as changes. Runs in the caller's transaction,
+	 * which keeps the rows locked until it ends. The last offset is read once
+	 * the rows are locked, so a relay on another instance that published them
+	 * first has committed its offsets; if two relays still pick the same
+	 * offsets, the unique index fails one of them.
+	 */
+	List<RoomChange> publish(long lastOffset, int limit) {
+		List<Long> ids = new ArrayList<>();
+		List<RoomChange> unpublished = new ArrayList<>();
+		jdbcTemplate.query(SELECT_UNPUBLISHED, Collections.singletonMap("limit", limit), row -> {
+			ids.add(row.getLong("id"));
+			unpublished.add(toChange(0, row));
+		});
+		if (unpublished.isEmpty()) {
+			return unpublished;
+		}
+		long after = Math.max(lastOffset, lastOffset());
+		List<RoomChange> changes = new ArrayList<>(unpublished.size());
+		for (RoomChange change : unpublished) {
+			changes.add(new RoomChange(after + changes.size() + 1, change.getType(), change.getRoom(),
+					change.getChangedAt()));
+		}
+		@SuppressWarnings("unchecked")
+		Map<String, Object>[] batch = new Map[changes.size()];
+		for (int i = 0; i < batch.length; i++) {
+			batch[i] = new HashMap<>();
+			batch[i].put("id", ids.get(i));
+			batch[i].put("offset", changes.get(i).getOffset());
+		}
+		jdbcTemplate.batchUpdate(PUBLISH, batch);
+		return changes;
+	}
+
+	List<RoomChange> read(long after, int limit) {
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("after", after);
+		parameters.put("limit", limit);
+		return jdbcTemplate.query(SELECT_AFTER, parameters, (row, rowNumber) -> toChange(row.getLong("feed_offset"), row));
+	}
+
+	long lastOffset() {
+		Long offset = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT MAX(feed_offset) FROM room_outbox",
+				Long.class);
+		return offset == null ? 0 : offset;
+	}
+
+	/*
+	 * The oldest published offset, or the one after lastOffset when none is
+	 * retained.
+	 */
+	long firstOffset(long lastOffset) {
+		Long offset = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT MIN(feed_offset) FROM room_outbox",
+				Long.class);
+		return offset == null ? lastOffset + 1 : offset;
+	}
+
+	int deleteBefore(Instant before) {
+		return jdbcTemplate.update(DELETE_BEFORE, Collections.singletonMap("before", Timestamp.from(before)));
+	}
+
+	private RoomChange toChange(long offset, ResultSet row) throws SQLException {
+		try {
+			return new RoomChange(offset, RoomChange.Type.valueOf(row.getString("change_type")),
+					objectMapper.readValue(row.getString("payload"), Room.class),
+					row.getTimestamp("changed_at").toInstant());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private String toJson(Room room) {
+		try {
+			return objectMapper.writeValueAsString(room);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
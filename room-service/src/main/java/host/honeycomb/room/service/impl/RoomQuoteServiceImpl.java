@@ -0,0 +1,65 @@
+package host.honeycomb.room.service.impl;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.springframework.stereotype.Service;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomQuote;
+import host.honeycomb.room.model.RoomQuoteResult;
+import host.honeycomb.room.model.Stay;
+import host.honeycomb.room.repository.RoomRepo;
+import host.honeycomb.room.service.RoomQuoteService;
+import host.honeycomb.room.service.RoomService;
+
+@Service
+public class RoomQuoteServiceImpl implements RoomQuoteService {
+	private RoomService roomService;
+	private RoomRepo repo;
+
+	public RoomQuoteServiceImpl(RoomService roomService, RoomRepo repo) {
+		this.roomService = roomService;
+		this.repo = repo;
+	}
+
+	@Override
+	public Optional<RoomQuote> quoteRoom(long roomId, LocalDate from, LocalDate to) {
+		Stay stay = Stay.of(from, to);
+		return roomService.findRoom(roomId).map(room -> new RoomQuote(room.getId(), stay, stay.priceCents(room)));
+	}
+
+	/*
+	 * The nights are counted once for the stay, each room then costs two
+	 * multiplications.
+	 */
+	@Override
+	public RoomQuoteResult quoteRooms(Collection<Long> roomIds, LocalDate from, LocalDate to) {
+		Stay stay = Stay.of(from, to);
+		RoomQuoteResult result = new RoomQuoteResult(stay);
+		Collection<Long> distinctIds = new LinkedHashSet<>(roomIds);
+		distinctIds.remove(null);
+		if (distinctIds.isEmpty()) {
+			return result;
+		}
+
+		Map<Long, Room> rooms = StreamSupport.stream(repo.findAllById(distinctIds).spliterator(), false)
+				.collect(Collectors.toMap(Room::getId, Function.identity()));
+		for (Long id : distinctIds) {
+			Room room = rooms.get(id);
+			if (room == null) {
+				result.addMissing(id);
+			} else {
+				result.addTotal(id, stay.priceCents(room));
+			}
+		}
+		return result;
+	}
+
+}
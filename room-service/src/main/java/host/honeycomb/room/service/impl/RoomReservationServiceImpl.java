@@ -0,0 +1,224 @@
+package host.honeycomb.room.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import host.honeycomb.room.model.RoomReservation;
+import host.honeycomb.room.service.RoomReservationService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * Reserves nights by claiming them in NightClaims and then checking the
+ * calendar, so taking and ending reservations needs no lock; only the
+ * calendar check takes the room calendar's monitor briefly. A reservation
+ * lasts ttl. Expired ones free their nights when the sweeper thread passes,
+ * every sweep-interval, or sooner when a reservation runs into them, and
+ * ended ones are forgotten once they would have expired. A confirmation
+ * books the nights and records the booking in room_booking in one
+ * transaction, then drops the claims.
+ */
+@Service
+public class RoomReservationServiceImpl implements RoomReservationService, MeterBinder {
+	private final RoomAvailabilityServiceImpl availability;
+	private final NightClaims claims;
+	private final RoomBookingStore bookings;
+	private final long ttlMillis;
+	private final long sweepIntervalMillis;
+	private final ConcurrentMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+	// When the sweeper next has something to do, lowered by every new reservation
+	private final AtomicLong nextSweepMillis = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicBoolean sweeping = new AtomicBoolean();
+	private final ScheduledExecutorService sweeper;
+
+	private final LongAdder reserved = new LongAdder();
+	private final LongAdder conflicts = new LongAdder();
+	private final LongAdder confirmed = new LongAdder();
+	private final LongAdder cancelled = new LongAdder();
+	private final LongAdder expired = new LongAdder();
+
+	public RoomReservationServiceImpl(RoomAvailabilityServiceImpl availability, NightClaims claims,
+			RoomBookingStore bookings, @Value("${room.reservation.ttl:10m}") Duration ttl,
+			@Value("${room.reservation.sweep-interval:1s}") Duration sweepInterval) {
+		this.availability = availability;
+		this.claims = claims;
+		this.bookings = bookings;
+		this.ttlMillis = ttl.toMillis();
+		this.sweepIntervalMillis = sweepInterval.toMillis();
+		// Not a bean: an Executor bean would stand in for Spring Boot's applicationTaskExecutor
+		this.sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "room-reservation-sweeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PostConstruct
+	public void start() {
+		sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void close() {
+		sweeper.shutdownNow();
+	}
+
+	@Override
+	public Optional<RoomReservation> reserve(long roomId, LocalDate from, LocalDate to) {
+		long first = from.toEpochDay();
+		long last = to.toEpochDay();
+		if (!claims.claim(roomId, first, last) && !(sweep() && claims.claim(roomId, first, last))) {
+			conflicts.increment();
+			return Optional.empty();
+		}
+		if (!availability.isFree(roomId, from, to)) {
+			claims.release(roomId, first, last);
+			conflicts.increment();
+			return Optional.empty();
+		}
+		Reservation reservation = new Reservation(UUID.randomUUID().toString(), roomId, from, to,
+				System.currentTimeMillis() + ttlMillis);
+		reservations.put(reservation.getId(), reservation);
+		nextSweepMillis.accumulateAndGet(reservation.getExpiresAtMillis(), Math::min);
+		reserved.increment();
+		return Optional.of(reservation.toRoomReservation());
+	}
+
+	@Override
+	public Optional<RoomReservation> getReservation(String id) {
+		Reservation reservation = reservations.get(id);
+		if (reservation == null) {
+			return Optional.empty();
+		}
+		expireIfDue(reservation, System.currentTimeMillis());
+		return Optional.of(reservation.toRoomReservation());
+	}
+
+	@Override
+	public Optional<RoomReservation> confirm(String id) {
+		Reservation reservation = reservations.get(id);
+		if (reservation == null) {
+			return Optional.empty();
+		}
+		expireIfDue(reservation, System.currentTimeMillis());
+		if (!reservation.transition(Reservation.PENDING, Reservation.CONFIRMING)) {
+			return Optional.of(reservation.toRoomReservation());
+		}
+		try {
+			// The claims keep every other hold, booking and reservation off these nights
+			if (!availability.confirm(reservation.getRoomId(), reservation.getFrom(), reservation.getTo(),
+					() -> bookings.insert(reservation, Instant.now()))) {
+				throw new IllegalStateException("Nights of reservation " + id + " were booked while it was pending.");
+			}
+		} catch (RuntimeException e) {
+			reservation.transition(Reservation.CONFIRMING, Reservation.PENDING);
+			nextSweepMillis.accumulateAndGet(reservation.getExpiresAtMillis(), Math::min);
+			throw e;
+		}
+		reservation.transition(Reservation.CONFIRMING, Reservation.CONFIRMED);
+		release(reservation);
+		confirmed.increment();
+		return Optional.of(reservation.toRoomReservation());
+	}
+
+	@Override
+	public Optional<RoomReservation> cancel(String id) {
+		Reservation reservation = reservations.get(id);
+		if (reservation == null) {
+			return Optional.empty();
+		}
+		if (!expireIfDue(reservation, System.currentTimeMillis())
+				&& reservation.transition(Reservation.PENDING, Reservation.CANCELLED)) {
+			release(reservation);
+			cancelled.increment();
+		}
+		return Optional.of(reservation.toRoomReservation());
+	}
+
+	/*
+	 * Expires the pending reservations that are due and forgets the ended ones
+	 * past their expiry, unless it is not time yet or another thread is
+	 * already sweeping. Answers whether it expired any.
+	 */
+	boolean sweep() {
+		long now = System.currentTimeMillis();
+		if (now < nextSweepMillis.get() || !sweeping.compareAndSet(false, true)) {
+			return false;
+		}
+		try {
+			// Reservations made during the sweep lower this again themselves
+			nextSweepMillis.set(Long.MAX_VALUE);
+			boolean any = false;
+			for (Iterator<Reservation> iterator = reservations.values().iterator(); iterator.hasNext();) {
+				Reservation reservation = iterator.next();
+				if (expireIfDue(reservation, now)) {
+					any = true;
+				}
+				if (reservation.hasEnded() && now >= reservation.getExpiresAtMillis()) {
+					iterator.remove();
+				} else {
+					nextSweepMillis.accumulateAndGet(reservation.getExpiresAtMillis(), Math::min);
+				}
+			}
+			return any;
+		} finally {
+			sweeping.set(false);
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("room.reservations.pending", this, RoomReservationServiceImpl::pending)
+				.description("Reservations holding nights until confirmed, cancelled or expired").register(registry);
+		bindCounter(registry, "room.reservations.reserved", reserved, "Reservations taken");
+		bindCounter(registry, "room.reservations.conflicts", conflicts,
+				"Reservations refused because a night was held, booked or reserved");
+		bindCounter(registry, "room.reservations.confirmed", confirmed, "Reservations confirmed as bookings");
+		bindCounter(registry, "room.reservations.cancelled", cancelled, "Reservations cancelled before confirming");
+		bindCounter(registry, "room.reservations.expired", expired, "Reservations that ran out before confirming");
+	}
+
+	private static void bindCounter(MeterRegistry registry, String name, LongAdder counter, String description) {
+		FunctionCounter.builder(name, counter, LongAdder::sum).description(description).register(registry);
+	}
+
+	private double pending() {
+		return reservations.values().stream().filter(reservation -> !reservation.hasEnded()).count();
+	}
+
+	private boolean expireIfDue(Reservation reservation, long now) {
+		if (now < reservation.getExpiresAtMillis()
+				|| !reservation.transition(Reservation.PENDING, Reservation.EXPIRED)) {
+			return false;
+		}
+		release(reservation);
+		expired.increment();
+		return true;
+	}
+
+	private void release(Reservation reservation) {
+		claims.release(reservation.getRoomId(), reservation.getFrom().toEpochDay(),
+				reservation.getTo().toEpochDay());
+	}
+
+}
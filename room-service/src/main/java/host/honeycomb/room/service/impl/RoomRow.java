@@ -0,0 +1,45 @@
+package host.honeycomb.room.service.impl;
+
+import host.honeycomb.room.model.Room;
+
+/*
+ * One row of a bulk import: either a parsed room or the reason it could not
+ * be parsed. Rows are numbered from 1 in input order.
+ */
+final class RoomRow {
+	private final int row;
+	private final Room room;
+	private final String roomNumber;
+	private final String error;
+
+	private RoomRow(int row, Room room, String roomNumber, String error) {
+		this.row = row;
+		this.room = room;
+		this.roomNumber = roomNumber;
+		this.error = error;
+	}
+
+	static RoomRow parsed(int row, Room room) {
+		return new RoomRow(row, room, room.getRoomNumber(), null);
+	}
+
+	static RoomRow failed(int row, String roomNumber, String error) {
+		return new RoomRow(row, null, roomNumber, error);
+	}
+
+	int getRow() {
+		return row;
+	}
+
+	Room getRoom() {
+		return room;
+	}
+
+	String getRoomNumber() {
+		return roomNumber;
+	}
+
+	String getError() {
+		return error;
+	}
+}
@@ -0,0 +1,14 @@
+package host.honeycomb.room.service.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+interface RoomRowReader extends Closeable {
+
+	/*
+	 * Returns the next row, or null once the input is exhausted. Throws
+	 * MalformedImportException when the input itself cannot be read any further.
+	 */
+	RoomRow next() throws IOException;
+
+}
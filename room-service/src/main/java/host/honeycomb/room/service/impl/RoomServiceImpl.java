@@ -1,25 +1,55 @@
 package host.honeycomb.room.service.impl;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import org.h2.util.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
+import host.honeycomb.room.event.RoomChangedEvent;
 import host.honeycomb.room.exception.RoomServiceClientException;
 import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomBatchResult;
+import host.honeycomb.room.model.RoomSearchCriteria;
 import host.honeycomb.room.repository.RoomRepo;
 import host.honeycomb.room.service.RoomService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 
 @Service
-public class RoomServiceImpl implements RoomService {
+public class RoomServiceImpl implements RoomService, MeterBinder {
+	public static final String ROOMS_BY_ID_CACHE = "roomsById";
+	public static final String ROOMS_BY_NUMBER_CACHE = "roomsByNumber";
+
 	private RoomRepo repo;
-	private RestTemplate restTemplate;
+	private ApplicationEventPublisher eventPublisher;
+	private final SingleFlight<Long, Optional<Room>> idLookups = new SingleFlight<>();
+	private final SingleFlight<String, Optional<Room>> roomNumberLookups = new SingleFlight<>();
+
+	public RoomServiceImpl(RoomRepo repo) {
+		this(repo, event -> {
+		});
+	}
 
-	public RoomServiceImpl(RoomRepo repo, RestTemplate restTemplate) {
+	@Autowired
+	public RoomServiceImpl(RoomRepo repo, ApplicationEventPublisher eventPublisher) {
 		this.repo = repo;
-		this.restTemplate = restTemplate;
+		this.eventPublisher = eventPublisher;
 	}
 
 	@Override
@@ -28,24 +58,35 @@ public class RoomServiceImpl implements RoomService {
 	}
 
 	@Override
+	@Cacheable(cacheNames = ROOMS_BY_ID_CACHE, unless = "#result == null")
 	public Optional<Room> findRoom(long roomId) {
-		return repo.findById(roomId);
+		return CacheRefill.run(() -> idLookups.load(roomId, () -> repo.findById(roomId)));
 	}
 
 	@Override
+	@Transactional
 	public Room updateRoom(Room room) {
-		return repo.save(room);
+		// The merge in save() reuses the row loaded here, so this costs no extra query
+		String previousRoomNumber = repo.findById(room.getId()).map(Room::getRoomNumber).orElse(null);
+		Room updatedRoom = repo.save(room);
+		eventPublisher.publishEvent(new RoomChangedEvent(updatedRoom, previousRoomNumber, false));
+		return updatedRoom;
 	}
 
 	@Override
+	@Transactional
 	public Room addRoom(Room room) {
-		return repo.save(room);
+		Room newRoom = repo.save(room);
+		eventPublisher.publishEvent(new RoomChangedEvent(newRoom, null, true));
+		return newRoom;
 	}
 
 	@Override
+	@Cacheable(cacheNames = ROOMS_BY_NUMBER_CACHE, unless = "#result == null")
 	public Optional<Room> findByRoomNumber(String roomNumber) {
 		if (!StringUtils.isNullOrEmpty(roomNumber) && StringUtils.isNumber(roomNumber)) {
-			Optional<Room> room = repo.findByRoomNumber(roomNumber);
+			Optional<Room> room = CacheRefill
+					.run(() -> roomNumberLookups.load(roomNumber, () -> repo.findByRoomNumber(roomNumber)));
 			if (room == null) {
 				throw new RoomServiceClientException("Room number: " + roomNumber + ", does not exist.");
 			}
@@ -60,4 +101,55 @@ public class RoomServiceImpl implements RoomService {
 		return repo.findRoomsByFloor(floorNumber);
 	}
 
+	@Override
+	public Slice<Room> searchRooms(RoomSearchCriteria criteria, Pageable pageable) {
+		return repo.search(criteria, pageable);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public RoomBatchResult findRooms(Collection<Long> ids, Collection<String> roomNumbers) {
+		RoomBatchResult result = new RoomBatchResult();
+		// One IN query per identifier type, duplicates are only looked up and reported once
+		Collection<Long> distinctIds = new LinkedHashSet<>(ids);
+		distinctIds.remove(null);
+		if (!distinctIds.isEmpty()) {
+			Map<Long, Room> found = StreamSupport.stream(repo.findAllById(distinctIds).spliterator(), false)
+					.collect(Collectors.toMap(Room::getId, Function.identity()));
+			distinctIds.forEach(id -> result.addById(id, found.get(id)));
+		}
+		Collection<String> distinctRoomNumbers = new LinkedHashSet<>(roomNumbers);
+		distinctRoomNumbers.remove(null);
+		if (!distinctRoomNumbers.isEmpty()) {
+			Map<String, Room> found = repo.findByRoomNumberIn(distinctRoomNumbers).stream()
+					.collect(Collectors.toMap(Room::getRoomNumber, Function.identity()));
+			distinctRoomNumbers.forEach(roomNumber -> result.addByRoomNumber(roomNumber, found.get(roomNumber)));
+		}
+		return result;
+	}
+
+	@Override
+	public List<Room> findRoomsAfter(long afterId, int limit) {
+		return repo.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit));
+	}
+
+	@Override
+	public void forEachRoom(Consumer<? super Room> action) {
+		repo.forEachRoom(action);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		bindLookupMetrics(registry, "id", idLookups);
+		bindLookupMetrics(registry, "roomNumber", roomNumberLookups);
+	}
+
+	private static void bindLookupMetrics(MeterRegistry registry, String lookup, SingleFlight<?, ?> lookups) {
+		FunctionCounter.builder("room.lookup.executions", lookups, SingleFlight::executionCount).tag("lookup", lookup)
+				.description("Room lookups that queried the database").register(registry);
+		FunctionCounter.builder("room.lookup.coalesced", lookups, SingleFlight::coalescedCount).tag("lookup", lookup)
+				.description("Room lookups that shared the result of an identical lookup already in flight")
+				.register(registry);
+	}
+
 }
@@ -0,0 +1,66 @@
+package host.honeycomb.room.service.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/*
+ * Deduplicates concurrent loads of the same key: the first caller runs the
+ * loader, callers arriving while it is in flight wait for and share its result
+ * or exception. Nothing is kept once the load completes, so a later call loads
+ * again. Registration is a single putIfAbsent on a ConcurrentHashMap, so
+ * callers for different keys never wait on each other.
+ */
+class SingleFlight<K, V> {
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final LongAdder executions = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+
+	V load(K key, Supplier<V> loader) {
+		CompletableFuture<V> call = new CompletableFuture<>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+		if (existing != null) {
+			coalesced.increment();
+			return await(existing);
+		}
+
+		executions.increment();
+		try {
+			V value = loader.get();
+			call.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			call.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, call);
+		}
+	}
+
+	long executionCount() {
+		return executions.sum();
+	}
+
+	long coalescedCount() {
+		return coalesced.sum();
+	}
+
+	private static <V> V await(CompletableFuture<V> call) {
+		try {
+			return call.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+}
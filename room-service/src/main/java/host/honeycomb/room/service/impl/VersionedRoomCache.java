@@ -0,0 +1,61 @@
+package host.honeycomb.room.service.impl;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import host.honeycomb.room.model.Room;
+
+/*
+ * A room cache that never takes a room older than one already committed. A
+ * lookup that read its row just before a write committed would otherwise put
+ * that row back after the write's eviction, where it would be served until it
+ * expired. The newest committed version of every changed room is kept, in a
+ * cache bounded and expired like the rooms, and a put compares against it
+ * atomically with evictions of the same key.
+ */
+public class VersionedRoomCache extends CaffeineCache {
+	private final Cache<Object, Object> committedVersions;
+
+	public VersionedRoomCache(String name, Cache<Object, Object> cache, Cache<Object, Object> committedVersions,
+			boolean allowNullValues) {
+		super(name, cache, allowNullValues);
+		this.committedVersions = committedVersions;
+	}
+
+	/*
+	 * Evicts the key after a write of the room committed. Recorded before the
+	 * eviction, so a put that comes after it sees the committed version.
+	 */
+	public void evict(Object key, Room committed) {
+		committedVersions.asMap().merge(committed.getId(), committed.getVersion(),
+				(previous, version) -> Math.max((Long) previous, (Long) version));
+		evict(key);
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		if (!(value instanceof Room)) {
+			super.put(key, value);
+			return;
+		}
+		Room room = (Room) value;
+		getNativeCache().asMap().compute(key, (k, cached) -> isCurrent(room) && !isNewer(cached, room) ? room : cached);
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		committedVersions.invalidateAll();
+	}
+
+	private boolean isCurrent(Room room) {
+		Long committed = (Long) committedVersions.getIfPresent(room.getId());
+		return committed == null || room.getVersion() >= committed;
+	}
+
+	private static boolean isNewer(Object cached, Room room) {
+		return cached instanceof Room && ((Room) cached).getVersion() > room.getVersion();
+	}
+
+}
@@ -0,0 +1,244 @@
+package host.honeycomb.room.service.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.service.RoomUpdateQueue;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * Opt-in (room.update.write-behind=true) queue that acknowledges room updates
+ * before they are written. Pending updates are keyed by room id, so repeated
+ * updates to a room are written once with the latest values. A single thread
+ * writes them through RoomBatchWriter once batch-size rooms are pending or the
+ * oldest has waited flush-interval. When capacity rooms are pending, offer
+ * waits up to offer-timeout for room before giving up. Closing the queue
+ * writes everything still pending.
+ */
+@Service
+@ConditionalOnProperty(name = "room.update.write-behind", havingValue = "true")
+public class WriteBehindRoomUpdateQueue implements RoomUpdateQueue, MeterBinder {
+	private static final Logger log = LoggerFactory.getLogger(WriteBehindRoomUpdateQueue.class);
+
+	private final RoomBatchWriter writer;
+	private final int capacity;
+	private final int batchSize;
+	private final long flushIntervalNanos;
+	private final long offerTimeoutNanos;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notFull = lock.newCondition();
+	private final Condition flushDue = lock.newCondition();
+	private final Condition written = lock.newCondition();
+	private final LinkedHashMap<Long, Room> pending = new LinkedHashMap<>();
+	private final Thread flusher = new Thread(this::run, "room-update-flusher");
+	private long oldestPendingNanos;
+	private int inFlight;
+	private int flushWaiters;
+	private boolean closed;
+
+	private final LongAdder accepted = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder writes = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+
+	public WriteBehindRoomUpdateQueue(RoomBatchWriter writer,
+			@Value("${room.update.queue-capacity:10000}") int capacity,
+			@Value("${room.update.batch-size:500}") int batchSize,
+			@Value("${room.update.flush-interval:100ms}") Duration flushInterval,
+			@Value("${room.update.offer-timeout:1s}") Duration offerTimeout) {
+		this.writer = writer;
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.flushIntervalNanos = flushInterval.toNanos();
+		this.offerTimeoutNanos = offerTimeout.toNanos();
+	}
+
+	@PostConstruct
+	public void start() {
+		flusher.start();
+	}
+
+	@Override
+	public boolean offer(Room room) {
+		lock.lock();
+		try {
+			long nanos = offerTimeoutNanos;
+			while (!closed) {
+				if (pending.containsKey(room.getId())) {
+					// Keeps the position of the update it replaces
+					pending.put(room.getId(), room);
+					coalesced.increment();
+					return true;
+				}
+				if (pending.size() < capacity) {
+					if (pending.isEmpty()) {
+						oldestPendingNanos = System.nanoTime();
+					}
+					pending.put(room.getId(), room);
+					accepted.increment();
+					if (pending.size() == 1 || pending.size() == batchSize) {
+						flushDue.signal();
+					}
+					return true;
+				}
+				if (nanos <= 0) {
+					break;
+				}
+				nanos = notFull.awaitNanos(nanos);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			lock.unlock();
+		}
+		rejected.increment();
+		return false;
+	}
+
+	/*
+	 * Writes everything pending now and waits until nothing is left pending or
+	 * being written.
+	 */
+	public void flush() throws InterruptedException {
+		lock.lock();
+		try {
+			flushWaiters++;
+			flushDue.signal();
+			while (!pending.isEmpty() || inFlight > 0) {
+				written.await();
+			}
+		} finally {
+			flushWaiters--;
+			lock.unlock();
+		}
+	}
+
+	public int size() {
+		lock.lock();
+		try {
+			return pending.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/*
+	 * Stops accepting updates, then waits for the flusher to write the ones
+	 * already accepted. Runs before the data source is closed, since this bean
+	 * depends on it.
+	 */
+	@PreDestroy
+	public void close() throws InterruptedException {
+		lock.lock();
+		try {
+			closed = true;
+			flushDue.signal();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		flusher.join();
+	}
+
+	private void run() {
+		List<Room> batch;
+		while ((batch = nextBatch()) != null) {
+			try {
+				List<Room> failed = writer.write(batch);
+				writes.add(batch.size() - failed.size());
+				failures.add(failed.size());
+				for (Room room : failed) {
+					log.error("Dropped queued update to room {}", room.getId());
+				}
+			} catch (RuntimeException e) {
+				failures.add(batch.size());
+				log.error("Dropped {} queued room updates", batch.size(), e);
+			} finally {
+				lock.lock();
+				try {
+					inFlight = 0;
+					written.signalAll();
+				} finally {
+					lock.unlock();
+				}
+			}
+		}
+	}
+
+	/*
+	 * Waits until a batch is due and removes it from the queue, or returns null
+	 * once the queue is closed and empty.
+	 */
+	private List<Room> nextBatch() {
+		lock.lock();
+		try {
+			while (pending.size() < batchSize && (pending.isEmpty() || !closed && flushWaiters == 0)) {
+				try {
+					if (pending.isEmpty()) {
+						if (closed) {
+							return null;
+						}
+						flushDue.await();
+						continue;
+					}
+					long remaining = oldestPendingNanos + flushIntervalNanos - System.nanoTime();
+					if (remaining <= 0) {
+						break;
+					}
+					flushDue.awaitNanos(remaining);
+				} catch (InterruptedException e) {
+					// Nothing interrupts the flusher, and accepted updates must still be written
+				}
+			}
+			List<Room> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+			Iterator<Room> rooms = pending.values().iterator();
+			while (batch.size() < batchSize && rooms.hasNext()) {
+				batch.add(rooms.next());
+				rooms.remove();
+			}
+			inFlight = batch.size();
+			notFull.signalAll();
+			return batch;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("room.update.queue.size", this, WriteBehindRoomUpdateQueue::size)
+				.description("Room updates accepted but not yet written").register(registry);
+		bindCounter(registry, "room.update.accepted", accepted, "Room updates added to the queue");
+		bindCounter(registry, "room.update.coalesced", coalesced,
+				"Room updates that replaced a pending update to the same room");
+		bindCounter(registry, "room.update.rejected", rejected, "Room updates refused because the queue was full");
+		bindCounter(registry, "room.update.written", writes, "Queued room updates written to the database");
+		bindCounter(registry, "room.update.failed", failures, "Queued room updates that could not be written");
+	}
+
+	private static void bindCounter(MeterRegistry registry, String name, LongAdder counter, String description) {
+		FunctionCounter.builder(name, counter, LongAdder::sum).description(description).register(registry);
+	}
+
+}
@@ -0,0 +1,14 @@
+CREATE SEQUENCE rooms_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE rooms (
+    id            BIGINT       NOT NULL,
+    room_number   VARCHAR(255),
+    weekday_price DOUBLE       NOT NULL,
+    weekend_price DOUBLE       NOT NULL,
+    room_type     VARCHAR(255),
+    floor         VARCHAR(255),
+    CONSTRAINT pk_rooms PRIMARY KEY (id)
+);
+
+CREATE UNIQUE INDEX ux_rooms_room_number ON rooms (room_number);
+CREATE INDEX ix_rooms_floor ON rooms (floor);
@@ -0,0 +1,2 @@
+ALTER TABLE rooms ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE rooms ADD COLUMN last_modified TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
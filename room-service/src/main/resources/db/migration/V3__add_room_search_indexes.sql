@@ -0,0 +1,2 @@
+CREATE INDEX ix_rooms_room_type_weekday_price ON rooms (room_type, weekday_price);
+CREATE INDEX ix_rooms_weekday_price ON rooms (weekday_price);
@@ -0,0 +1,9 @@
+-- Held and booked nights of a room, one row per month with night n of the month in bit n - 1
+CREATE TABLE room_calendar (
+    room_id     BIGINT NOT NULL,
+    month_start DATE   NOT NULL,
+    held_days   INT    NOT NULL,
+    booked_days INT    NOT NULL,
+    CONSTRAINT pk_room_calendar PRIMARY KEY (room_id, month_start),
+    CONSTRAINT fk_room_calendar_room FOREIGN KEY (room_id) REFERENCES rooms (id)
+);
@@ -0,0 +1,12 @@
+-- Confirmed checkout reservations, written in the same transaction as the booked nights in room_calendar
+CREATE TABLE room_booking (
+    reservation_id VARCHAR(36) NOT NULL,
+    room_id        BIGINT      NOT NULL,
+    check_in       DATE        NOT NULL,
+    check_out      DATE        NOT NULL,
+    confirmed_at   TIMESTAMP   NOT NULL,
+    CONSTRAINT pk_room_booking PRIMARY KEY (reservation_id),
+    CONSTRAINT fk_room_booking_room FOREIGN KEY (room_id) REFERENCES rooms (id)
+);
+
+CREATE INDEX ix_room_booking_room_check_in ON room_booking (room_id, check_in);
@@ -0,0 +1,14 @@
+-- Room changes written in the transaction that made them. The relay gives each committed row the next feed_offset.
+CREATE SEQUENCE room_outbox_seq;
+
+CREATE TABLE room_outbox (
+    id          BIGINT        NOT NULL,
+    feed_offset BIGINT,
+    room_id     BIGINT        NOT NULL,
+    change_type VARCHAR(16)   NOT NULL,
+    payload     VARCHAR(4096) NOT NULL,
+    changed_at  TIMESTAMP     NOT NULL,
+    CONSTRAINT pk_room_outbox PRIMARY KEY (id)
+);
+
+CREATE UNIQUE INDEX ux_room_outbox_feed_offset ON room_outbox (feed_offset);
@@ -1,13 +1,27 @@
 package host.honeycomb.room;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @SpringBootTest
 class RoomServiceApplicationTests {
 
+	@Autowired
+	private MeterRegistry registry;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void roomLookupMetricsAreRegistered() {
+		assertThat(registry.find("room.lookup.coalesced").tag("lookup", "id").functionCounter()).isNotNull();
+		assertThat(registry.find("room.lookup.executions").tag("lookup", "roomNumber").functionCounter()).isNotNull();
+	}
+
 }
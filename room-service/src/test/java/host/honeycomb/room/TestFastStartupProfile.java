@@ -0,0 +1,38 @@
+package host.honeycomb.room;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+/*
+ * The fast-startup profile defers creating the controllers until the first
+ * request needs them, which must then still succeed.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("fast-startup")
+class TestFastStartupProfile {
+
+	@Autowired
+	private ConfigurableApplicationContext context;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void testBeansAreCreatedOnFirstRequest() {
+		assertThat(context.getBeanFactory().containsSingleton("roomController")).isFalse();
+
+		ResponseEntity<String> response = restTemplate.getForEntity("/rooms?limit=1", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(context.getBeanFactory().containsSingleton("roomController")).isTrue();
+	}
+
+}
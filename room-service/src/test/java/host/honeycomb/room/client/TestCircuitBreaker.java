@@ -0,0 +1,67 @@
+package host.honeycomb.room.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestCircuitBreaker {
+	private final AtomicLong clock = new AtomicLong();
+	private CircuitBreaker breaker;
+
+	@BeforeEach
+	void setUp() {
+		breaker = new CircuitBreaker(3, 1000, clock::get);
+	}
+
+	@Test
+	void testOpensAfterConsecutiveFailures() {
+		breaker.onFailure();
+		breaker.onFailure();
+		breaker.onSuccess();
+		breaker.onFailure();
+		breaker.onFailure();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+		breaker.onFailure();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void testTrialCallClosesBreaker() {
+		trip();
+		clock.addAndGet(1000);
+
+		assertThat(breaker.tryAcquire()).isTrue();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+		assertThat(breaker.tryAcquire()).isFalse();
+
+		breaker.onSuccess();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(breaker.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void testFailedTrialCallReopensBreaker() {
+		trip();
+		clock.addAndGet(1000);
+		assertThat(breaker.tryAcquire()).isTrue();
+
+		breaker.onFailure();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		clock.addAndGet(999);
+		assertThat(breaker.tryAcquire()).isFalse();
+		clock.addAndGet(1);
+		assertThat(breaker.tryAcquire()).isTrue();
+	}
+
+	private void trip() {
+		for (int i = 0; i < 3; i++) {
+			breaker.onFailure();
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+package host.honeycomb.room.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import host.honeycomb.room.exception.DownstreamUnavailableException;
+import host.honeycomb.room.model.Room;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Calls a stub downstream that fails a path a set number of times before
+ * answering it.
+ */
+@SpringBootTest(properties = { "room.http.retry.base-delay=1ms", "room.http.retry.max-delay=5ms",
+		"room.http.circuit-breaker.failure-threshold=5", "room.http.circuit-breaker.open-duration=1h" })
+class TestDownstreamClients {
+	private static final String ROOM = "{\"id\":7,\"roomNumber\":\"107\",\"weekdayPrice\":99.0,\"weekendPrice\":119.0,\"roomType\":\"single\",\"floor\":\"1\"}";
+
+	private static HttpServer server;
+	private static final Map<String, AtomicInteger> failuresLeft = new ConcurrentHashMap<>();
+	private static final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+
+	@Autowired
+	private RestTemplate restTemplate;
+
+	@Autowired
+	private AsyncDownstreamClient asyncClient;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@BeforeAll
+	static void startDownstream() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", TestDownstreamClients::handle);
+		server.start();
+	}
+
+	@AfterAll
+	static void stopDownstream() {
+		server.stop(0);
+	}
+
+	@Test
+	void testRetriesUnavailableDownstream() {
+		failuresLeft.put("/flaky", new AtomicInteger(2));
+
+		Room room = restTemplate.getForObject(uri("/flaky"), Room.class);
+
+		assertThat(room.getRoomNumber()).isEqualTo("107");
+		assertThat(hits.get("/flaky")).hasValue(3);
+		assertThat(registry.get("http.client.requests").tag("clientName", "localhost").tag("uri", "/flaky")
+				.tag("status", "200").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void testDoesNotRetryClientErrors() {
+		assertThatThrownBy(() -> restTemplate.getForObject(uri("/missing"), Room.class))
+				.isInstanceOf(HttpClientErrorException.NotFound.class);
+		assertThat(hits.get("/missing")).hasValue(1);
+	}
+
+	@Test
+	void testDoesNotRetryPost() {
+		failuresLeft.put("/post", new AtomicInteger(1));
+
+		assertThatThrownBy(() -> restTemplate.postForObject(uri("/post"), "{}", Room.class))
+				.isInstanceOf(RestClientResponseException.class);
+		assertThat(hits.get("/post")).hasValue(1);
+	}
+
+	@Test
+	void testAsyncClientRetriesUnavailableDownstream() throws Exception {
+		failuresLeft.put("/async/7", new AtomicInteger(2));
+
+		Room room = asyncClient.get(url("/async/{id}"), Room.class, 7).get(5, TimeUnit.SECONDS);
+
+		assertThat(room.getRoomNumber()).isEqualTo("107");
+		assertThat(hits.get("/async/7")).hasValue(3);
+		assertThat(registry.get("http.client.requests").tag("clientName", "localhost").tag("uri", "/async/{id}")
+				.tag("status", "200").timer().count()).isEqualTo(1);
+		assertThat(registry.find("http.client.requests").tag("uri", "/async/7").timer()).isNull();
+	}
+
+	@Test
+	void testAsyncClientFailsWithResponseStatus() {
+		assertThatThrownBy(() -> asyncClient.get(url("/missing-async"), Room.class).get(5, TimeUnit.SECONDS))
+				.isInstanceOf(ExecutionException.class).getCause().isInstanceOf(RestClientResponseException.class)
+				.extracting("rawStatusCode").isEqualTo(404);
+	}
+
+	/*
+	 * Runs against its own downstream name, since the breaker stays open for
+	 * the rest of the context.
+	 */
+	@Test
+	void testOpenBreakerRejectsWithoutCalling() {
+		URI down = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/down");
+		failuresLeft.put("/down", new AtomicInteger(Integer.MAX_VALUE));
+
+		// Three attempts fail, then two more open the breaker during the retries of the second call
+		assertThatThrownBy(() -> restTemplate.getForObject(down, Room.class))
+				.isInstanceOf(RestClientResponseException.class);
+		assertThatThrownBy(() -> restTemplate.getForObject(down, Room.class))
+				.isInstanceOf(DownstreamUnavailableException.class);
+		assertThat(hits.get("/down")).hasValue(5);
+		int calls = hits.get("/down").get();
+
+		assertThatThrownBy(() -> restTemplate.getForObject(down, Room.class))
+				.isInstanceOf(DownstreamUnavailableException.class);
+		assertThatThrownBy(() -> asyncClient.get(down.toString(), Room.class).get(5, TimeUnit.SECONDS)).getCause()
+				.isInstanceOf(DownstreamUnavailableException.class);
+		assertThat(hits.get("/down")).hasValue(calls);
+		assertThat(registry.get("http.client.circuit.state").tag("downstream", Downstreams.name(down)).gauge()
+				.value()).isEqualTo(1.0);
+	}
+
+	private static URI uri(String path) {
+		return URI.create(url(path));
+	}
+
+	private static String url(String path) {
+		return "http://localhost:" + server.getAddress().getPort() + path;
+	}
+
+	private static void handle(HttpExchange exchange) throws IOException {
+		String path = exchange.getRequestURI().getPath();
+		hits.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+		// Drained so the connection can be kept alive for the next attempt
+		StreamUtils.drain(exchange.getRequestBody());
+		AtomicInteger failures = failuresLeft.get(path);
+		if (failures != null && failures.getAndDecrement() > 0) {
+			respond(exchange, HttpStatus.SERVICE_UNAVAILABLE, "unavailable");
+		} else if (path.startsWith("/missing")) {
+			respond(exchange, HttpStatus.NOT_FOUND, "not found");
+		} else {
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			respond(exchange, HttpStatus.OK, ROOM);
+		}
+	}
+
+	private static void respond(HttpExchange exchange, HttpStatus status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(status.value(), bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+}
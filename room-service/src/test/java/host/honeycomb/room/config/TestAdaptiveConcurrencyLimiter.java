@@ -0,0 +1,82 @@
+package host.honeycomb.room.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestAdaptiveConcurrencyLimiter {
+	private static final long TARGET = 100;
+
+	private final AtomicLong clock = new AtomicLong();
+	private AdaptiveConcurrencyLimiter limiter;
+
+	@BeforeEach
+	void setUp() {
+		limiter = new AdaptiveConcurrencyLimiter(TARGET, 10, 2, 12, clock::get);
+	}
+
+	@Test
+	void testRejectsOverLimit() {
+		for (int i = 0; i < 10; i++) {
+			assertThat(limiter.tryAcquire()).isTrue();
+		}
+		assertThat(limiter.tryAcquire()).isFalse();
+		limiter.release();
+		assertThat(limiter.getInFlight()).isEqualTo(9);
+		assertThat(limiter.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void testSlowRequestsCutLimitOncePerTarget() {
+		acquire(3);
+		limiter.release(TARGET + 1);
+		assertThat(limiter.getLimit()).isEqualTo(9);
+		limiter.release(TARGET + 1);
+		assertThat(limiter.getLimit()).isEqualTo(9);
+
+		clock.addAndGet(TARGET);
+		limiter.release(TARGET + 1);
+		assertThat(limiter.getLimit()).isEqualTo(8);
+
+		for (int i = 0; i < 20; i++) {
+			acquire(1);
+			clock.addAndGet(TARGET);
+			limiter.release(TARGET + 1);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(2);
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	@Test
+	void testFastRequestsRaiseBusyLimit() {
+		acquire(10);
+		for (int i = 0; i < 5; i++) {
+			limiter.release(TARGET);
+		}
+		acquire(5);
+		for (int i = 0; i < 5; i++) {
+			limiter.release(TARGET);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(11);
+
+		// An idle limiter does not grow
+		while (limiter.getInFlight() > 0) {
+			limiter.release(1);
+		}
+		for (int i = 0; i < 100; i++) {
+			acquire(1);
+			limiter.release(1);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(11);
+	}
+
+	private void acquire(int requests) {
+		for (int i = 0; i < requests; i++) {
+			assertThat(limiter.tryAcquire()).isTrue();
+		}
+	}
+
+}
@@ -0,0 +1,52 @@
+package host.honeycomb.room.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestClientRateLimiter {
+	private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private final AtomicLong clock = new AtomicLong();
+	private ClientRateLimiter limiter;
+
+	@BeforeEach
+	void setUp() {
+		limiter = new ClientRateLimiter(10, 3, 4096, clock::get);
+	}
+
+	@Test
+	void testAllowsBurstThenRate() {
+		assertThat(limiter.acquire("a")).isZero();
+		assertThat(limiter.acquire("a")).isZero();
+		assertThat(limiter.acquire("a")).isZero();
+		assertThat(limiter.acquire("a")).isEqualTo(INTERVAL);
+
+		clock.addAndGet(INTERVAL - 1);
+		assertThat(limiter.acquire("a")).isEqualTo(1);
+		clock.addAndGet(1);
+		assertThat(limiter.acquire("a")).isZero();
+		assertThat(limiter.acquire("a")).isEqualTo(INTERVAL);
+
+		clock.addAndGet(10 * INTERVAL);
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.acquire("a")).isZero();
+		}
+		assertThat(limiter.acquire("a")).isPositive();
+	}
+
+	@Test
+	void testClientsHaveTheirOwnBuckets() {
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.acquire("a")).isZero();
+		}
+		assertThat(limiter.acquire("a")).isPositive();
+		assertThat(limiter.acquire("b")).isZero();
+		assertThat(limiter.acquire("10.0.0.1")).isZero();
+	}
+
+}
@@ -0,0 +1,98 @@
+package host.honeycomb.room.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+@SpringBootTest(properties = { "room.rate-limit.enabled=true", "room.rate-limit.rate=0.1",
+		"room.rate-limit.burst=2", "room.rate-limit.api-key-header=X-API-Key", "room.concurrency.enabled=true" })
+@AutoConfigureMockMvc
+class TestLoadSheddingFilter {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void testRateLimitsEachClient() throws Exception {
+		mockMvc.perform(get("/rooms").header("X-API-Key", "a")).andExpect(status().isOk());
+		mockMvc.perform(get("/rooms").header("X-API-Key", "a")).andExpect(status().isOk());
+		mockMvc.perform(get("/rooms").header("X-API-Key", "a")).andExpect(status().isTooManyRequests())
+				.andExpect(header().string("Retry-After", "10"));
+
+		mockMvc.perform(get("/rooms").header("X-API-Key", "b")).andExpect(status().isOk());
+		mockMvc.perform(get("/actuator/health").header("X-API-Key", "a")).andExpect(status().isOk());
+	}
+
+	@Test
+	void testRateLimitsByAddressWithoutApiKey() throws Exception {
+		mockMvc.perform(get("/rooms").with(from("10.0.0.7"))).andExpect(status().isOk());
+		mockMvc.perform(get("/rooms").with(from("10.0.0.7"))).andExpect(status().isOk());
+		mockMvc.perform(get("/rooms").with(from("10.0.0.7"))).andExpect(status().isTooManyRequests());
+
+		mockMvc.perform(get("/rooms").with(from("10.0.0.8"))).andExpect(status().isOk());
+	}
+
+	@Test
+	void testIgnoresApiKeyHeaderUnlessConfigured() throws Exception {
+		LoadSheddingFilter filter = new LoadSheddingFilter(Optional.of(new ClientRateLimiter(0.1, 1, 64)),
+				Optional.empty(), "");
+
+		assertThat(filter(filter, "a").getStatus()).isEqualTo(HttpStatus.OK.value());
+		// A fresh key on every request does not get a fresh bucket
+		assertThat(filter(filter, "b").getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+	}
+
+	@Test
+	void testFailedRequestsLowerConcurrencyLimit() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(TimeUnit.MILLISECONDS.toNanos(1), 10, 2,
+				20);
+		LoadSheddingFilter filter = new LoadSheddingFilter(Optional.empty(), Optional.of(limiter), "");
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rooms");
+
+		assertThatThrownBy(() -> filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			throw new ServletException("Connection is not available, request timed out");
+		})).isInstanceOf(ServletException.class);
+
+		assertThat(limiter.getLimit()).isEqualTo(9);
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	private static MockHttpServletResponse filter(LoadSheddingFilter filter, String apiKey) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rooms");
+		request.addHeader("X-API-Key", apiKey);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private static RequestPostProcessor from(String address) {
+		return request -> {
+			request.setRemoteAddr(address);
+			return request;
+		};
+	}
+
+}
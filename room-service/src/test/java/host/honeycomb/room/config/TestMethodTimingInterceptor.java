@@ -0,0 +1,53 @@
+package host.honeycomb.room.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import host.honeycomb.room.exception.RoomServiceClientException;
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.repository.RoomRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TestMethodTimingInterceptor {
+
+	/*
+	 * Here we proxy a stubbed lookup and assert that successful and failing
+	 * calls land on separate timers, tagged with component, method and
+	 * exception.
+	 */
+	@Test
+	void testInvocationsAreTimed() {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		Lookup target = roomNumber -> {
+			if (roomNumber.isEmpty()) {
+				throw new RoomServiceClientException("Empty room number.");
+			}
+			return Optional.of(new Room());
+		};
+		ProxyFactory proxyFactory = new ProxyFactory(target);
+		proxyFactory.addInterface(Lookup.class);
+		proxyFactory.addAdvice(new MethodTimingInterceptor(() -> registry, MetricsConfiguration.REPOSITORY_METRIC,
+				"repository", RoomRepo.class.getSimpleName()));
+		Lookup lookup = (Lookup) proxyFactory.getProxy();
+
+		lookup.findByRoomNumber("202");
+		lookup.findByRoomNumber("302");
+		assertThatThrownBy(() -> lookup.findByRoomNumber("")).isInstanceOf(RoomServiceClientException.class);
+
+		assertThat(registry.get(MetricsConfiguration.REPOSITORY_METRIC).tag("repository", "RoomRepo")
+				.tag("method", "findByRoomNumber").tag("exception", "none").timer().count()).isEqualTo(2);
+		assertThat(registry.get(MetricsConfiguration.REPOSITORY_METRIC).tag("exception", "RoomServiceClientException")
+				.timer().count()).isEqualTo(1);
+	}
+
+	interface Lookup {
+		Optional<Room> findByRoomNumber(String roomNumber);
+	}
+
+}
@@ -0,0 +1,53 @@
+package host.honeycomb.room.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.repository.RoomRepo;
+
+/*
+ * Drives a request through controller, service and repository and checks
+ * that each layer shows up on the Prometheus endpoint.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class TestMetricsConfiguration {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RoomRepo repo;
+
+	@Test
+	void testLayersArePublished() throws Exception {
+		Room room = repo.save(new Room(0L, "202", 102.00, 135.00, "double", "2"));
+		try {
+			mockMvc.perform(get("/rooms/{id}", room.getId())).andExpect(status().isOk());
+
+			String scrape = mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk()).andReturn()
+					.getResponse().getContentAsString();
+
+			assertThat(scrape).containsPattern("http_server_requests_seconds_bucket\\{.*uri=\"/rooms/\\{id}\"")
+					.containsPattern(
+							"room_service_invocations_seconds_bucket\\{.*method=\"findRoom\",service=\"RoomServiceImpl\"")
+					.containsPattern(
+							"spring_data_repository_invocations_seconds_count\\{.*method=\"findById\",repository=\"RoomRepo\"")
+					.contains("hikaricp_connections_utilization{").contains("hibernate_statements_total{")
+					.contains("hibernate_entities_loads_total{").contains("hibernate_flushes_total{");
+		} finally {
+			repo.delete(room);
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+package host.honeycomb.room.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.repository.RoomRepo;
+import host.honeycomb.room.service.RoomService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Runs against two embedded H2 databases, the primary and a replica that
+ * only has the same schema and one room of its own. There is no replication,
+ * so which one a read went to shows in what it finds.
+ */
+@SpringBootTest(properties = { "room.replicas.enabled=true", "room.replicas.urls=" + TestReadReplicaRouting.REPLICA_URL,
+		"room.replicas.max-staleness=" + TestReadReplicaRouting.MAX_STALENESS_MILLIS + "ms" })
+class TestReadReplicaRouting {
+	static final String REPLICA_URL = "jdbc:h2:mem:room-replica;DB_CLOSE_DELAY=-1";
+	static final long MAX_STALENESS_MILLIS = 300;
+
+	@Autowired
+	private RoomService service;
+
+	@Autowired
+	private RoomRepo repo;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	private Room room;
+
+	@BeforeAll
+	static void createReplica() {
+		Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+		new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "")).update(
+				"MERGE INTO rooms (id, room_number, weekday_price, weekend_price, room_type, floor) "
+						+ "VALUES (900001, '9101', 90.00, 110.00, 'single', '91')");
+	}
+
+	@AfterEach
+	void deleteRoom() {
+		if (room != null) {
+			repo.deleteById(room.getId());
+		}
+	}
+
+	@Test
+	@DisplayName("Read-only service methods read from the replica")
+	void testReadsFromReplica() throws Exception {
+		Thread.sleep(MAX_STALENESS_MILLIS + 100);
+		double replicaReads = replicaReads();
+
+		assertThat(service.findRoomsByFloor("91")).extracting(Room::getRoomNumber).containsExactly("9101");
+		assertThat(service.getAllRooms()).extracting(Room::getRoomNumber).contains("9101");
+		assertThat(repo.findById(900001L)).isPresent();
+		assertThat(replicaReads()).isEqualTo(replicaReads + 3);
+	}
+
+	@Test
+	@DisplayName("Reads stay on the primary for max-staleness after a write")
+	void testReadYourWrites() throws Exception {
+		room = service.addRoom(new Room(0L, "9201", 90.00, 110.00, "single", "92"));
+
+		assertThat(service.findRoomsByFloor("92")).extracting(Room::getRoomNumber).containsExactly("9201");
+		assertThat(service.findRoomsByFloor("91")).isEmpty();
+
+		Thread.sleep(MAX_STALENESS_MILLIS + 100);
+		assertThat(service.findRoomsByFloor("92")).isEmpty();
+		assertThat(service.findRoomsByFloor("91")).hasSize(1);
+	}
+
+	@Test
+	@DisplayName("Another thread's write only keeps cache refills on the primary")
+	void testOtherThreadsWrite() throws Exception {
+		Thread.sleep(MAX_STALENESS_MILLIS + 100);
+		room = CompletableFuture.supplyAsync(() -> service.addRoom(new Room(0L, "9301", 90.00, 110.00, "single", "93")))
+				.get(5, TimeUnit.SECONDS);
+
+		assertThat(service.findRoomsByFloor("93")).isEmpty();
+		assertThat(service.findRoomsByFloor("91")).hasSize(1);
+		assertThat(service.findRoom(room.getId())).isPresent();
+	}
+
+	private double replicaReads() {
+		return registry.get("room.datasource.reads").tag("target", "replica").functionCounter().count();
+	}
+
+}
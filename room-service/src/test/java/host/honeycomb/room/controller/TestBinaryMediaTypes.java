@@ -0,0 +1,126 @@
+package host.honeycomb.room.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.repository.RoomRepo;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TestBinaryMediaTypes {
+	private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+	private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RoomRepo repo;
+
+	private final ObjectMapper cbor = new CBORMapper();
+	private final ObjectMapper smile = new SmileMapper();
+	private Room room;
+
+	@BeforeEach
+	void addRoom() {
+		room = repo.save(new Room(0L, "808", 102.00, 135.00, "double", "8"));
+	}
+
+	@AfterEach
+	void deleteRoom() {
+		repo.deleteById(room.getId());
+	}
+
+	@Test
+	@DisplayName("GET /rooms/{id} - CBOR when accepted")
+	void testGetRoomAsCbor() throws Exception {
+		byte[] body = mockMvc.perform(get("/rooms/{id}", room.getId()).accept(CBOR)).andExpect(status().isOk())
+				.andExpect(content().contentType(CBOR)).andReturn().getResponse().getContentAsByteArray();
+
+		Room read = cbor.readValue(body, Room.class);
+		assertThat(read).usingRecursiveComparison().ignoringFields("version", "lastModified").isEqualTo(room);
+	}
+
+	@Test
+	@DisplayName("GET /rooms/search/byFloor - Smile when accepted")
+	void testFindRoomsByFloorAsSmile() throws Exception {
+		byte[] body = mockMvc.perform(get("/rooms/search/byFloor").param("floor", "8").accept(SMILE))
+				.andExpect(status().isOk()).andExpect(content().contentType(SMILE)).andReturn().getResponse()
+				.getContentAsByteArray();
+
+		List<Room> rooms = smile.readValue(body, new TypeReference<List<Room>>() {
+		});
+		assertThat(rooms).extracting(Room::getRoomNumber).containsExactly("808");
+	}
+
+	@Test
+	@DisplayName("GET /rooms/{id} - JSON unless a binary type is preferred")
+	void testJsonStaysDefault() throws Exception {
+		mockMvc.perform(get("/rooms/{id}", room.getId())).andExpect(content().contentType(MediaType.APPLICATION_JSON));
+		mockMvc.perform(get("/rooms/{id}", room.getId()).accept(MediaType.ALL))
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON));
+		mockMvc.perform(get("/rooms/{id}", room.getId()).header(HttpHeaders.ACCEPT,
+				"application/cbor;q=0.5, application/json")).andExpect(content().contentType(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	@DisplayName("GET /rooms/{id} - each representation has its own ETag")
+	void testETagPerRepresentation() throws Exception {
+		String jsonTag = mockMvc.perform(get("/rooms/{id}", room.getId()).accept(MediaType.APPLICATION_JSON))
+				.andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT))).andReturn()
+				.getResponse().getHeader(HttpHeaders.ETAG);
+		String cborTag = mockMvc.perform(get("/rooms/{id}", room.getId()).accept(CBOR))
+				.andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT))).andReturn()
+				.getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(cborTag).isNotEqualTo(jsonTag);
+
+		// The JSON tag does not validate a cached CBOR body, or the other way round
+		mockMvc.perform(get("/rooms/{id}", room.getId()).accept(CBOR).header(HttpHeaders.IF_NONE_MATCH, jsonTag))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/rooms/{id}", room.getId()).accept(CBOR).header(HttpHeaders.IF_NONE_MATCH, cborTag))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get("/rooms/{id}", room.getId()).header(HttpHeaders.IF_NONE_MATCH, cborTag))
+				.andExpect(status().isOk());
+
+		// Either tag names the version an update replaces
+		byte[] body = cbor.writeValueAsBytes(new Room(0L, "808", 99.00, 129.00, "twin", "8"));
+		mockMvc.perform(put("/rooms/{id}", room.getId()).contentType(CBOR).content(body).accept(CBOR)
+				.header(HttpHeaders.IF_MATCH, cborTag)).andExpect(status().isOk());
+	}
+
+	@Test
+	@DisplayName("PUT /rooms/{id} - reads a CBOR body")
+	void testUpdateRoomFromCbor() throws Exception {
+		byte[] body = cbor.writeValueAsBytes(new Room(0L, "808", 99.00, 129.00, "twin", "8"));
+
+		mockMvc.perform(put("/rooms/{id}", room.getId()).contentType(CBOR).content(body).accept(CBOR))
+				.andExpect(status().isOk()).andExpect(content().contentType(CBOR));
+
+		assertThat(repo.findById(room.getId())).get().extracting(Room::getRoomType).isEqualTo("twin");
+	}
+
+}
@@ -0,0 +1,160 @@
+package host.honeycomb.room.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StreamUtils;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.service.RoomService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Goes through Tomcat, since compression happens there and not in MockMvc.
+ * HttpURLConnection hands back the body exactly as it was sent.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "room.listing.precompressed=true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TestResponseCompression {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private RoomService service;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@BeforeAll
+	void addRooms() {
+		for (int i = 0; i < 200; i++) {
+			service.addRoom(new Room(0L, "9" + i, 100.00 + i, 130.00 + i, "double", "9"));
+		}
+	}
+
+	@Test
+	@DisplayName("GET /rooms/search/byFloor - gzip when accepted")
+	void testCompressesLargeResponses() throws IOException {
+		Response gzipped = get("/rooms/search/byFloor?floor=9", "application/json", "gzip");
+		Response plain = get("/rooms/search/byFloor?floor=9", "application/json", null);
+
+		assertThat(gzipped.headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(plain.headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+		assertThat(gzipped.body.length).isLessThan(plain.body.length / 4);
+		assertThat(gunzip(gzipped.body)).isEqualTo(plain.body);
+	}
+
+	@Test
+	@DisplayName("GET /rooms/{id} - not compressed below the minimum size")
+	void testSkipsSmallResponses() throws IOException {
+		long id = service.findByRoomNumber("90").get().getId();
+
+		Response response = get("/rooms/" + id, "application/json", "gzip");
+
+		assertThat(response.headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+	}
+
+	@Test
+	@DisplayName("GET /rooms - precompressed NDJSON listing, rebuilt after a change")
+	void testServesPrecompressedListing() throws IOException {
+		Response first = get("/rooms", RoomController.APPLICATION_NDJSON_VALUE, "gzip");
+		double builds = builds();
+		Response second = get("/rooms", RoomController.APPLICATION_NDJSON_VALUE, "gzip");
+		Response streamed = get("/rooms", RoomController.APPLICATION_NDJSON_VALUE, "identity");
+
+		assertThat(first.headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(second.body).isEqualTo(first.body);
+		assertThat(builds()).isEqualTo(builds);
+		assertThat(streamed.headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+		assertThat(gunzip(first.body)).isEqualTo(streamed.body);
+
+		Room room = service.findByRoomNumber("91").get();
+		room.setRoomType("suite");
+		service.updateRoom(room);
+		Response changed = get("/rooms", RoomController.APPLICATION_NDJSON_VALUE, "gzip;q=1.0");
+
+		assertThat(builds()).isEqualTo(builds + 1);
+		assertThat(changed.headers.getFirst(HttpHeaders.ETAG)).isNotEqualTo(first.headers.getFirst(HttpHeaders.ETAG));
+		assertThat(new String(gunzip(changed.body), StandardCharsets.UTF_8)).contains("\"suite\"");
+	}
+
+	@Test
+	@DisplayName("GET /rooms - 304 when the precompressed listing is unchanged")
+	void testPrecompressedListingNotModified() throws IOException {
+		Response first = get("/rooms", RoomController.APPLICATION_NDJSON_VALUE, "gzip");
+
+		HttpURLConnection connection = open("/rooms", RoomController.APPLICATION_NDJSON_VALUE, "gzip");
+		connection.setRequestProperty(HttpHeaders.IF_NONE_MATCH, first.headers.getFirst(HttpHeaders.ETAG));
+		assertThat(connection.getResponseCode()).isEqualTo(304);
+	}
+
+	@Test
+	void testAcceptsGzip() {
+		assertThat(RoomController.acceptsGzip("gzip, deflate, br")).isTrue();
+		assertThat(RoomController.acceptsGzip("br;q=1.0, *;q=0.5")).isTrue();
+		assertThat(RoomController.acceptsGzip("gzip;q=0")).isFalse();
+		assertThat(RoomController.acceptsGzip("deflate, identity")).isFalse();
+		assertThat(RoomController.acceptsGzip(null)).isFalse();
+	}
+
+	private double builds() {
+		return registry.get("room.listing.builds").functionCounter().count();
+	}
+
+	private Response get(String path, String accept, String acceptEncoding) throws IOException {
+		HttpURLConnection connection = open(path, accept, acceptEncoding);
+		assertThat(connection.getResponseCode()).isEqualTo(200);
+		try (InputStream in = connection.getInputStream()) {
+			return new Response(connection.getHeaderFields(), StreamUtils.copyToByteArray(in));
+		}
+	}
+
+	private HttpURLConnection open(String path, String accept, String acceptEncoding) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+		connection.setRequestProperty(HttpHeaders.ACCEPT, accept);
+		if (acceptEncoding != null) {
+			connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		}
+		return connection;
+	}
+
+	private static byte[] gunzip(byte[] body) throws IOException {
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			return StreamUtils.copyToByteArray(in);
+		}
+	}
+
+	private static class Response {
+		private final HttpHeaders headers = new HttpHeaders();
+		private final byte[] body;
+
+		Response(Map<String, List<String>> headerFields, byte[] body) {
+			headerFields.forEach((name, values) -> {
+				if (name != null) {
+					headers.addAll(name, values);
+				}
+			});
+			this.body = body;
+		}
+	}
+
+}
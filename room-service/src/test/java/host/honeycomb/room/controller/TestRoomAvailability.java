@@ -0,0 +1,112 @@
+package host.honeycomb.room.controller;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.repository.RoomRepo;
+
+/*
+ * Runs holds and bookings through the real calendar and database, with stays
+ * starting next week so they are always bookable.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TestRoomAvailability {
+	private static final LocalDate MONDAY = LocalDate.now().plusWeeks(1)
+			.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RoomRepo repo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Room single;
+	private Room suite;
+
+	@BeforeEach
+	void addRooms() {
+		single = repo.save(new Room(0L, "1101", 90.00, 110.00, "single", "11"));
+		suite = repo.save(new Room(0L, "1102", 190.00, 210.00, "suite", "11"));
+	}
+
+	@AfterEach
+	void deleteRooms() {
+		jdbcTemplate.update("DELETE FROM room_calendar");
+		repo.delete(single);
+		repo.delete(suite);
+	}
+
+	@Test
+	@DisplayName("POST /rooms/{id}/holds - 409 when a night is taken, bookings replace holds")
+	void testHoldAndBook() throws Exception {
+		mockMvc.perform(stay(post("/rooms/{id}/holds", single.getId()), 0, 3)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.free", is(false))).andExpect(jsonPath("$.held.length()", is(3)));
+		mockMvc.perform(stay(post("/rooms/{id}/holds", single.getId()), 2, 4)).andExpect(status().isConflict())
+				.andExpect(jsonPath("$.held", contains(MONDAY.plusDays(2).toString())));
+
+		mockMvc.perform(stay(post("/rooms/{id}/bookings", single.getId()), 1, 5)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.held", empty())).andExpect(jsonPath("$.booked.length()", is(4)));
+		mockMvc.perform(stay(post("/rooms/{id}/bookings", single.getId()), 4, 6)).andExpect(status().isConflict());
+
+		mockMvc.perform(stay(get("/rooms/{id}/availability", single.getId()), 0, 7)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.held", contains(MONDAY.toString())))
+				.andExpect(jsonPath("$.booked.length()", is(4)));
+
+		mockMvc.perform(stay(post("/rooms/{id}/release", single.getId()), 0, 7)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.free", is(true)));
+	}
+
+	@Test
+	@DisplayName("GET /rooms/search/available - rooms on the floor free for the whole stay")
+	void testFindAvailableRooms() throws Exception {
+		mockMvc.perform(stay(post("/rooms/{id}/bookings", suite.getId()), 5, 6)).andExpect(status().isOk());
+
+		mockMvc.perform(stay(get("/rooms/search/available").param("floor", "11"), 0, 5)).andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].roomNumber", contains("1101", "1102")));
+		mockMvc.perform(stay(get("/rooms/search/available").param("floor", "11"), 0, 6))
+				.andExpect(jsonPath("$[*].roomNumber", contains("1101")));
+		mockMvc.perform(stay(get("/rooms/search/available").param("floor", "11").param("roomType", "suite"), 6, 9))
+				.andExpect(jsonPath("$[*].roomNumber", contains("1102")));
+	}
+
+	@Test
+	@DisplayName("Stays in the past, beyond the horizon or for unknown rooms")
+	void testRejectedStays() throws Exception {
+		mockMvc.perform(post("/rooms/{id}/holds", single.getId()).param("from", LocalDate.now().minusDays(1).toString())
+				.param("to", LocalDate.now().plusDays(1).toString())).andExpect(status().isBadRequest());
+		mockMvc.perform(post("/rooms/{id}/holds", single.getId()).param("from", LocalDate.now().toString())
+				.param("to", LocalDate.now().plusYears(3).toString())).andExpect(status().isBadRequest());
+		mockMvc.perform(stay(post("/rooms/{id}/holds", single.getId()), 3, 3)).andExpect(status().isBadRequest());
+		mockMvc.perform(stay(post("/rooms/{id}/holds", 999999L), 0, 1)).andExpect(status().isNotFound());
+	}
+
+	private static MockHttpServletRequestBuilder stay(MockHttpServletRequestBuilder request, int from, int to) {
+		return request.param("from", MONDAY.plusDays(from).toString()).param("to", MONDAY.plusDays(to).toString());
+	}
+
+}
@@ -0,0 +1,174 @@
+package host.honeycomb.room.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.repository.RoomRepo;
+import host.honeycomb.room.service.RoomChangeFeed;
+import host.honeycomb.room.service.RoomService;
+
+@SpringBootTest(properties = { "room.changes.feed=true", "room.changes.buffer-size=4" })
+@AutoConfigureMockMvc
+class TestRoomChangeFeed {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RoomService service;
+
+	@Autowired
+	private RoomRepo repo;
+
+	@Autowired
+	private RoomChangeFeed feed;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<Long> rooms = new ArrayList<>();
+	private long start;
+
+	@BeforeEach
+	void noteOffset() {
+		start = feed.getLastOffset();
+	}
+
+	@AfterEach
+	void deleteRooms() {
+		// The last published row stays, as the relays number new rows after it
+		jdbcTemplate.update("DELETE FROM room_outbox WHERE feed_offset < (SELECT MAX(feed_offset) FROM room_outbox)");
+		rooms.forEach(repo::deleteById);
+	}
+
+	@Test
+	@DisplayName("GET /rooms/changes - committed changes in order, rolled back ones never")
+	void testChanges() throws Exception {
+		Room room = add("1501");
+		room.setFloor("16");
+		service.updateRoom(room);
+		new TransactionTemplate(transactionManager).execute(status -> {
+			service.addRoom(new Room(0L, "1502", 90.00, 110.00, "single", "15"));
+			status.setRollbackOnly();
+			return null;
+		});
+		add("1503");
+		awaitOffset(start + 3);
+
+		changes(get("/rooms/changes").param("after", String.valueOf(start))).andExpect(status().isOk())
+				.andExpect(jsonPath("$.changes[*].type", contains("ADDED", "UPDATED", "ADDED")))
+				.andExpect(jsonPath("$.changes[*].room.roomNumber", contains("1501", "1501", "1503")))
+				.andExpect(jsonPath("$.changes[1].room.floor", is("16")))
+				.andExpect(jsonPath("$.next", is((int) start + 3)));
+		changes(get("/rooms/changes").param("after", String.valueOf(start + 1)).param("limit", "1"))
+				.andExpect(jsonPath("$.changes[*].offset", contains((int) start + 2)))
+				.andExpect(jsonPath("$.next", is((int) start + 2)));
+		changes(get("/rooms/changes").param("after", String.valueOf(start + 4)))
+				.andExpect(status().isBadRequest());
+		changes(get("/rooms/changes").param("limit", "0")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@DisplayName("GET /rooms/changes - an update to a room without a number is UPDATED")
+	void testUpdateRoomWithoutNumber() throws Exception {
+		Room room = add(null);
+		room.setFloor("16");
+		service.updateRoom(room);
+		awaitOffset(start + 2);
+
+		changes(get("/rooms/changes").param("after", String.valueOf(start))).andExpect(status().isOk())
+				.andExpect(jsonPath("$.changes[*].type", contains("ADDED", "UPDATED")));
+	}
+
+	@Test
+	@DisplayName("GET /rooms/changes - replays changes no longer buffered from the outbox")
+	void testReplay() throws Exception {
+		for (int i = 0; i < 6; i++) {
+			add("151" + i);
+		}
+		awaitOffset(start + 6);
+
+		changes(get("/rooms/changes").param("after", String.valueOf(start))).andExpect(status().isOk())
+				.andExpect(jsonPath("$.changes.length()", is(6)))
+				.andExpect(jsonPath("$.changes[0].offset", is((int) start + 1)))
+				.andExpect(jsonPath("$.changes[0].room.roomNumber", is("1510")))
+				.andExpect(jsonPath("$.changes[5].room.roomNumber", is("1515")));
+	}
+
+	@Test
+	@DisplayName("GET /rooms/changes?wait - answers when the next change is published")
+	void testLongPoll() throws Exception {
+		MvcResult result = mockMvc.perform(get("/rooms/changes").param("wait", "5"))
+				.andExpect(request().asyncStarted()).andReturn();
+		add("1521");
+
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.changes[*].room.roomNumber", contains("1521")))
+				.andExpect(jsonPath("$.next", is((int) start + 1)));
+	}
+
+	@Test
+	@DisplayName("GET /rooms/changes/stream - sends changes as events with their offset as id")
+	void testStream() throws Exception {
+		add("1531");
+		awaitOffset(start + 1);
+		MvcResult result = mockMvc.perform(get("/rooms/changes/stream").header("Last-Event-ID", start))
+				.andExpect(request().asyncStarted()).andReturn();
+		add("1532");
+
+		String expected = "id:" + (start + 2) + "\nevent:room\ndata:";
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!result.getResponse().getContentAsString().contains(expected) && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(result.getResponse().getContentAsString()).startsWith("id:" + (start + 1) + "\nevent:room\n")
+				.contains(expected).contains("\"roomNumber\":\"1532\"");
+	}
+
+	private Room add(String roomNumber) {
+		Room room = service.addRoom(new Room(0L, roomNumber, 90.00, 110.00, "single", "15"));
+		rooms.add(room.getId());
+		return room;
+	}
+
+	private ResultActions changes(MockHttpServletRequestBuilder request) throws Exception {
+		return mockMvc.perform(asyncDispatch(mockMvc.perform(request).andReturn()));
+	}
+
+	private void awaitOffset(long offset) throws InterruptedException {
+		CountDownLatch published = new CountDownLatch(1);
+		feed.onChangesAfter(offset - 1, published::countDown);
+		assertThat(published.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+}
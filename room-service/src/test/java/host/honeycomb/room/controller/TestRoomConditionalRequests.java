@@ -0,0 +1,89 @@
+package host.honeycomb.room.controller;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.repository.RoomRepo;
+
+/*
+ * Runs conditional requests through the real service, cache and database, so
+ * versions come from Hibernate's optimistic locking.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TestRoomConditionalRequests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RoomRepo repo;
+
+	private Room room;
+
+	@BeforeEach
+	void addRoom() {
+		room = repo.save(new Room(0L, "707", 102.00, 135.00, "double", "7"));
+	}
+
+	@AfterEach
+	void deleteRoom() {
+		repo.deleteById(room.getId());
+	}
+
+	@Test
+	@DisplayName("GET /rooms/{id} - 304 when the ETag matches")
+	void testNotModified() throws Exception {
+		String eTag = mockMvc.perform(get("/rooms/{id}", room.getId())).andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.LAST_MODIFIED)).andReturn().getResponse()
+				.getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/rooms/{id}", room.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified()).andExpect(content().string(""));
+		mockMvc.perform(get("/rooms/search/byFloor").param("floor", "7")).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].roomNumber", is("707")));
+	}
+
+	@Test
+	@DisplayName("PUT /rooms/{id} - 412 when If-Match is stale")
+	void testStaleIfMatch() throws Exception {
+		String original = mockMvc.perform(get("/rooms/{id}", room.getId())).andReturn().getResponse()
+				.getHeader(HttpHeaders.ETAG);
+
+		String updated = mockMvc
+				.perform(put("/rooms/{id}", room.getId()).header(HttpHeaders.IF_MATCH, original)
+						.contentType(MediaType.APPLICATION_JSON).content(roomJson("single")))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.roomType", is("single"))).andReturn()
+				.getResponse().getHeader(HttpHeaders.ETAG);
+
+		// The first writer's ETag no longer matches, so the second write is rejected
+		mockMvc.perform(put("/rooms/{id}", room.getId()).header(HttpHeaders.IF_MATCH, original)
+				.contentType(MediaType.APPLICATION_JSON).content(roomJson("suite")))
+				.andExpect(status().isPreconditionFailed());
+		mockMvc.perform(get("/rooms/{id}", room.getId()).header(HttpHeaders.IF_NONE_MATCH, original))
+				.andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, updated))
+				.andExpect(jsonPath("$.roomType", is("single")));
+	}
+
+	private static String roomJson(String roomType) {
+		return TestRoomController.asJsonString(new Room(0L, "707", 102.00, 135.00, roomType, "7"));
+	}
+
+}
@@ -1,40 +1,64 @@
 package host.honeycomb.room.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
 import static org.springframework.restdocs.payload.PayloadDocumentation.fieldWithPath;
 import static org.springframework.restdocs.payload.PayloadDocumentation.responseFields;
 import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
 import static org.springframework.restdocs.request.RequestDocumentation.requestParameters;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.restdocs.AutoConfigureRestDocs;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.mockito.ArgumentCaptor;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomBatchResult;
+import host.honeycomb.room.model.RoomImportResult;
+import host.honeycomb.room.model.RoomQuote;
+import host.honeycomb.room.model.RoomQuoteResult;
+import host.honeycomb.room.model.RoomSearchCriteria;
+import host.honeycomb.room.model.Stay;
+import host.honeycomb.room.service.RoomImportService;
+import host.honeycomb.room.service.RoomQuoteService;
 import host.honeycomb.room.service.RoomService;
 
 @WebMvcTest(controllers = RoomController.class)
@@ -45,6 +69,12 @@ class TestRoomController {
 	@MockBean
 	private RoomService service;
 
+	@MockBean
+	private RoomImportService importService;
+
+	@MockBean
+	private RoomQuoteService quoteService;
+
 	@Autowired
 	private MockMvc mockMvc;
 
@@ -53,9 +83,10 @@ class TestRoomController {
 	void testGetAllRooms() throws Exception {
 		Room room1 = new Room(1L, "202", 102.00, 135.00, "double", "2");
 		Room room2 = new Room(2L, "302", 112.00, 155.00, "deluxe", "3");
-		when(service.getAllRooms()).thenReturn(Arrays.asList(room1, room2));
+		when(service.findRoomsAfter(0L, RoomController.DEFAULT_PAGE_SIZE + 1)).thenReturn(Arrays.asList(room1, room2));
 		mockMvc.perform(get("/rooms")).andExpect(status().isOk())
 				.andExpect(content().contentType(MediaType.APPLICATION_JSON)).andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(header().doesNotExist(HttpHeaders.LINK))
 				.andDo(document("rooms",
 						responseFields(fieldWithPath("[].id").description("The room's Id: "),
 								fieldWithPath("[].roomNumber").description("The RoomNumber: "),
@@ -65,6 +96,53 @@ class TestRoomController {
 								fieldWithPath("[].floor").description("The Room Floor: "))));
 	}
 
+	@Test
+	@DisplayName("GET /rooms?limit=2 - next page link")
+	void testGetAllRoomsNextPage() throws Exception {
+		Room room1 = new Room(1L, "202", 102.00, 135.00, "double", "2");
+		Room room2 = new Room(2L, "302", 112.00, 155.00, "deluxe", "3");
+		Room room3 = new Room(3L, "402", 122.00, 165.00, "suite", "4");
+		when(service.findRoomsAfter(0L, 3)).thenReturn(Arrays.asList(room1, room2, room3));
+
+		// Only the requested page is returned, the extra row becomes the cursor
+		mockMvc.perform(get("/rooms").param("limit", "2")).andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2))).andExpect(jsonPath("$[1].id", is(2)))
+				.andExpect(header().string(HttpHeaders.LINK,
+						"</rooms?cursor=" + RoomController.encodeCursor(2L) + "&limit=2>; rel=\"next\""));
+
+		when(service.findRoomsAfter(2L, 3)).thenReturn(Arrays.asList(room3));
+		mockMvc.perform(get("/rooms").param("cursor", RoomController.encodeCursor(2L)).param("limit", "2"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id", is(3))).andExpect(header().doesNotExist(HttpHeaders.LINK));
+	}
+
+	@Test
+	@DisplayName("GET /rooms - invalid cursor")
+	void testGetAllRoomsInvalidCursor() throws Exception {
+		mockMvc.perform(get("/rooms").param("cursor", "not-a-cursor!")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/rooms").param("limit", "0")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@DisplayName("GET /rooms - NDJSON stream")
+	void testStreamAllRooms() throws Exception {
+		Room room1 = new Room(1L, "202", 102.00, 135.00, "double", "2");
+		Room room2 = new Room(2L, "302", 112.00, 155.00, "deluxe", "3");
+		doAnswer(invocation -> {
+			Consumer<Room> action = invocation.getArgument(0);
+			action.accept(room1);
+			action.accept(room2);
+			return null;
+		}).when(service).forEachRoom(any());
+
+		MvcResult result = mockMvc.perform(get("/rooms").accept(RoomController.APPLICATION_NDJSON_VALUE))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(content().contentType(RoomController.APPLICATION_NDJSON_VALUE))
+				.andExpect(content().string(asJsonString(room1) + "\n" + asJsonString(room2) + "\n"));
+	}
+
 	@Test
 	@DisplayName("GET /rooms/1")
 	void testFindRoomById() throws Exception {
@@ -82,6 +160,19 @@ class TestRoomController {
 				.andExpect(jsonPath("$.roomType", is("double"))).andExpect(jsonPath("$.floor", is("2")));
 	}
 
+	@Test
+	@DisplayName("GET /rooms/1 - Not Modified")
+	void testFindRoomByIdNotModified() throws Exception {
+		Room room = new Room(1L, "202", 102.00, 135.00, "double", "2");
+		room.setVersion(3L);
+		doReturn(Optional.of(room)).when(service).findRoom(1L);
+
+		mockMvc.perform(get("/rooms/{id}", 1L)).andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+		mockMvc.perform(get("/rooms/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+				.andExpect(status().isNotModified()).andExpect(content().string(""));
+	}
+
 	@Test
 	@DisplayName("GET /rooms/1 - Not Found")
 	void testFindRoomByIdNotFound() throws Exception {
@@ -116,6 +207,124 @@ class TestRoomController {
 				.andExpect(jsonPath("$.roomType", is("double"))).andExpect(jsonPath("$.floor", is("2")));
 	}
 
+	@Test
+	@DisplayName("POST /rooms/bulk - JSON and CSV")
+	void testImportRooms() throws Exception {
+		RoomImportResult result = new RoomImportResult();
+		result.addImported(1);
+		result.addFailure(2, "203", "Invalid or missing price.");
+		doReturn(result).when(importService).importJson(any());
+		doReturn(result).when(importService).importCsv(any());
+
+		mockMvc.perform(post("/rooms/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.imported", is(1)))
+				.andExpect(jsonPath("$.failed", is(1))).andExpect(jsonPath("$.failures[0].row", is(2)))
+				.andExpect(jsonPath("$.failures[0].roomNumber", is("203")));
+
+		mockMvc.perform(post("/rooms/bulk").contentType(RoomController.TEXT_CSV_VALUE).content("roomNumber\n"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.imported", is(1)));
+	}
+
+	@Test
+	@DisplayName("POST /rooms/batch")
+	void testFindRoomsBatch() throws Exception {
+		Room room = new Room(1L, "202", 102.00, 135.00, "double", "2");
+		RoomBatchResult result = new RoomBatchResult();
+		result.addById(1L, room);
+		result.addById(9L, null);
+		result.addByRoomNumber("202", room);
+		doReturn(result).when(service).findRooms(Arrays.asList(1L, 9L), Arrays.asList("202"));
+
+		mockMvc.perform(post("/rooms/batch").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"ids\":[1,9],\"roomNumbers\":[\"202\"]}")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.byId.1.roomNumber", is("202")))
+				.andExpect(jsonPath("$.byRoomNumber.202.id", is(1))).andExpect(jsonPath("$.missingIds", is(Arrays.asList(9))))
+				.andExpect(jsonPath("$.missingRoomNumbers", hasSize(0)));
+	}
+
+	@Test
+	@DisplayName("POST /rooms/batch - too many identifiers")
+	void testFindRoomsBatchTooLarge() throws Exception {
+		String ids = String.join(",", Collections.nCopies(RoomController.MAX_BATCH_SIZE + 1, "1"));
+		mockMvc.perform(post("/rooms/batch").contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[" + ids + "]}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@DisplayName("GET /rooms/1/quote")
+	void testQuoteRoom() throws Exception {
+		LocalDate from = LocalDate.of(2024, 3, 1);
+		LocalDate to = LocalDate.of(2024, 3, 4);
+		doReturn(Optional.of(new RoomQuote(1L, Stay.of(from, to), 37098L))).when(quoteService).quoteRoom(1L, from, to);
+
+		mockMvc.perform(get("/rooms/{id}/quote", 1L).param("from", "2024-03-01").param("to", "2024-03-04"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.roomId", is(1)))
+				.andExpect(jsonPath("$.from", is("2024-03-01"))).andExpect(jsonPath("$.weekdayNights", is(1)))
+				.andExpect(jsonPath("$.weekendNights", is(2))).andExpect(jsonPath("$.total", is(370.98)));
+
+		mockMvc.perform(get("/rooms/{id}/quote", 1L).param("from", "2024-03-04").param("to", "2024-03-01"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@DisplayName("POST /rooms/quote")
+	void testQuoteRooms() throws Exception {
+		LocalDate from = LocalDate.of(2024, 3, 1);
+		LocalDate to = LocalDate.of(2024, 3, 8);
+		RoomQuoteResult result = new RoomQuoteResult(Stay.of(from, to));
+		result.addTotal(1L, 79893L);
+		result.addMissing(9L);
+		doReturn(result).when(quoteService).quoteRooms(Arrays.asList(1L, 9L), from, to);
+
+		mockMvc.perform(post("/rooms/quote").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"ids\":[1,9],\"from\":\"2024-03-01\",\"to\":\"2024-03-08\"}"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.weekendNights", is(2)))
+				.andExpect(jsonPath("$.totals.1", is(798.93))).andExpect(jsonPath("$.missingIds", is(Arrays.asList(9))));
+
+		mockMvc.perform(post("/rooms/quote").contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[1]}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@DisplayName("GET /rooms/search - filtered, sorted and paged")
+	void testSearchRooms() throws Exception {
+		Room room1 = new Room(5L, "502", 230.00, 280.00, "suite", "5");
+		Room room2 = new Room(4L, "501", 210.00, 260.00, "suite", "4");
+		doReturn(new SliceImpl<>(Arrays.asList(room1, room2), PageRequest.of(0, 2), true)).when(service)
+				.searchRooms(any(), any());
+
+		mockMvc.perform(get("/rooms/search").param("roomType", "suite").param("minWeekdayPrice", "200")
+				.param("sort", "-weekdayPrice,floor").param("limit", "2")).andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2))).andExpect(jsonPath("$[0].roomNumber", is("502")))
+				.andExpect(header().string(HttpHeaders.LINK,
+						"</rooms/search?roomType=suite&minWeekdayPrice=200&sort=-weekdayPrice,floor&page=1&limit=2>; rel=\"next\""));
+
+		ArgumentCaptor<RoomSearchCriteria> criteria = ArgumentCaptor.forClass(RoomSearchCriteria.class);
+		ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+		verify(service).searchRooms(criteria.capture(), pageable.capture());
+		assertThat(criteria.getValue().getRoomType()).isEqualTo("suite");
+		assertThat(criteria.getValue().getMinWeekdayPrice()).isEqualTo(200.0);
+		assertThat(criteria.getValue().getFloor()).isNull();
+		assertThat(pageable.getValue()).isEqualTo(
+				PageRequest.of(0, 2, Sort.by(Sort.Order.desc("weekdayPrice"), Sort.Order.asc("floor"))));
+	}
+
+	@Test
+	@DisplayName("GET /rooms/search - unknown sort property")
+	void testSearchRoomsInvalidSort() throws Exception {
+		mockMvc.perform(get("/rooms/search").param("sort", "lastModified")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@DisplayName("GET /rooms/search - page beyond the largest offset")
+	void testSearchRoomsPageOutOfRange() throws Exception {
+		mockMvc.perform(get("/rooms/search").param("page", "3000000").param("limit", "1000"))
+				.andExpect(status().isBadRequest());
+		when(service.searchRooms(any(), any())).thenReturn(new SliceImpl<>(Collections.emptyList()));
+		mockMvc.perform(get("/rooms/search").param("page", "" + (Integer.MAX_VALUE / 1000)).param("limit", "1000"))
+				.andExpect(status().isOk());
+	}
+
 	static String asJsonString(final Object obj) {
 		try {
 			return new ObjectMapper().writeValueAsString(obj);
@@ -148,6 +357,26 @@ class TestRoomController {
 				.andExpect(jsonPath("$.roomType", is("single"))).andExpect(jsonPath("$.floor", is("2")));
 	}
 
+	@Test
+	@DisplayName("PUT /rooms/1 - Precondition Failed")
+	void testUpdateRoomPreconditionFailed() throws Exception {
+		Room roomToPut = new Room(1L, "202", 102.00, 135.00, "single", "2");
+		Room existingRoom = new Room(1L, "202", 102.00, 135.00, "double", "2");
+		existingRoom.setVersion(4L);
+		doReturn(Optional.of(existingRoom)).when(service).findRoom(1L);
+
+		// If-Match names an older version
+		mockMvc.perform(put("/rooms/{id}", 1L).header(HttpHeaders.IF_MATCH, "\"3\"")
+				.contentType(MediaType.APPLICATION_JSON).content(asJsonString(roomToPut)))
+				.andExpect(status().isPreconditionFailed());
+
+		// The room changed between the check and the write
+		doThrow(new ObjectOptimisticLockingFailureException(Room.class, 1L)).when(service).updateRoom(any());
+		mockMvc.perform(put("/rooms/{id}", 1L).header(HttpHeaders.IF_MATCH, "\"4\"")
+				.contentType(MediaType.APPLICATION_JSON).content(asJsonString(roomToPut)))
+				.andExpect(status().isPreconditionFailed());
+	}
+
 	@Test
 	@DisplayName("PUT /rooms/1 - Not Found")
 	void testUpdateRoomNotFound() throws Exception {
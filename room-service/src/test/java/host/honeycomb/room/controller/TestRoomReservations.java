@@ -0,0 +1,103 @@
+package host.honeycomb.room.controller;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.jayway.jsonpath.JsonPath;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.repository.RoomRepo;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TestRoomReservations {
+	private static final LocalDate FROM = LocalDate.now().plusDays(10);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RoomRepo repo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Room room;
+
+	@BeforeEach
+	void addRoom() {
+		room = repo.save(new Room(0L, "1401", 90.00, 110.00, "single", "14"));
+	}
+
+	@AfterEach
+	void deleteRoom() {
+		jdbcTemplate.update("DELETE FROM room_booking");
+		jdbcTemplate.update("DELETE FROM room_calendar");
+		repo.delete(room);
+	}
+
+	@Test
+	@DisplayName("POST /rooms/{id}/reservations - 201, then confirm books the nights")
+	void testReserveAndConfirm() throws Exception {
+		String id = reserve(0, 2);
+		mockMvc.perform(stay(post("/rooms/{id}/reservations", room.getId()), 1, 3)).andExpect(status().isConflict());
+		mockMvc.perform(stay(post("/rooms/{id}/holds", room.getId()), 1, 3)).andExpect(status().isConflict());
+
+		mockMvc.perform(post("/rooms/reservations/{id}/confirm", id)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.status", is("CONFIRMED")));
+		mockMvc.perform(post("/rooms/reservations/{id}/confirm", id)).andExpect(status().isOk());
+		mockMvc.perform(delete("/rooms/reservations/{id}", id)).andExpect(status().isConflict())
+				.andExpect(jsonPath("$.status", is("CONFIRMED")));
+		mockMvc.perform(stay(get("/rooms/{id}/availability", room.getId()), 0, 3))
+				.andExpect(jsonPath("$.booked.length()", is(2))).andExpect(jsonPath("$.held.length()", is(0)));
+	}
+
+	@Test
+	@DisplayName("DELETE /rooms/reservations/{id} - frees the nights, confirming afterwards is 410")
+	void testCancel() throws Exception {
+		String id = reserve(0, 2);
+		mockMvc.perform(delete("/rooms/reservations/{id}", id)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.status", is("CANCELLED")));
+		mockMvc.perform(post("/rooms/reservations/{id}/confirm", id)).andExpect(status().isGone());
+		mockMvc.perform(get("/rooms/reservations/{id}", id)).andExpect(jsonPath("$.status", is("CANCELLED")));
+
+		mockMvc.perform(delete("/rooms/reservations/{id}", reserve(1, 3))).andExpect(status().isOk());
+		mockMvc.perform(get("/rooms/reservations/{id}", "unknown")).andExpect(status().isNotFound());
+		mockMvc.perform(post("/rooms/reservations/{id}/confirm", "unknown")).andExpect(status().isNotFound());
+		mockMvc.perform(stay(post("/rooms/{id}/reservations", 999999L), 0, 1)).andExpect(status().isNotFound());
+		mockMvc.perform(stay(post("/rooms/{id}/reservations", room.getId()), 1, 1))
+				.andExpect(status().isBadRequest());
+	}
+
+	private String reserve(int from, int to) throws Exception {
+		String body = mockMvc.perform(stay(post("/rooms/{id}/reservations", room.getId()), from, to))
+				.andExpect(status().isCreated())
+				.andExpect(header().string("Location", startsWith("/rooms/reservations/")))
+				.andExpect(jsonPath("$.status", is("PENDING"))).andReturn().getResponse().getContentAsString();
+		return JsonPath.read(body, "$.id");
+	}
+
+	private static MockHttpServletRequestBuilder stay(MockHttpServletRequestBuilder request, int from, int to) {
+		return request.param("from", FROM.plusDays(from).toString()).param("to", FROM.plusDays(to).toString());
+	}
+
+}
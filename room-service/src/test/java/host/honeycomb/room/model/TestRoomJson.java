@@ -0,0 +1,109 @@
+package host.honeycomb.room.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jackson.JsonComponentModule;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+
+/*
+ * Here we hold RoomJson to what databind does with the annotated Room, using
+ * a mapper with and one without the module Spring Boot builds from the
+ * @JsonComponent.
+ */
+class TestRoomJson {
+	private ObjectMapper databind;
+	private ObjectMapper streaming;
+
+	@BeforeEach
+	void setUp() {
+		databind = Jackson2ObjectMapperBuilder.json().build();
+		StaticApplicationContext context = new StaticApplicationContext();
+		context.registerSingleton("roomJson", RoomJson.class);
+		context.refresh();
+		JsonComponentModule module = new JsonComponentModule();
+		module.setBeanFactory(context.getBeanFactory());
+		module.registerJsonComponents();
+		streaming = Jackson2ObjectMapperBuilder.json().modulesToInstall(module).build();
+	}
+
+	@Test
+	void testModuleReplacesBeanSerializer() throws Exception {
+		assertThat(streaming.getSerializerProviderInstance().findValueSerializer(Room.class))
+				.isInstanceOf(RoomJson.Serializer.class);
+		assertThat(databind.getSerializerProviderInstance().findValueSerializer(Room.class))
+				.isNotInstanceOf(RoomJson.Serializer.class);
+	}
+
+	@Test
+	void testWritesSameBytesAsDatabind() throws Exception {
+		List<Room> rooms = new ArrayList<>(Arrays.asList(new Room(1L, "101", 102.99, 135.49, "double", "1"),
+				new Room(Long.MAX_VALUE, "été \"north\"\n\\   😀", -0.0, 1e21, "suite", "</script>"),
+				new Room(0L, null, Double.MIN_VALUE, Double.NaN, null, null),
+				new Room(-7L, "", 0.1 + 0.2, Double.POSITIVE_INFINITY, "\u0000\u001f", "12")));
+		for (int i = 0; i < 1000; i++) {
+			rooms.add(new Room(i, "1" + i, 90 + i % 60 + 0.99, 120 + i % 80 + 0.49, "double", String.valueOf(i % 9)));
+		}
+		rooms.get(3).setVersion(4);
+
+		for (Room room : rooms) {
+			assertThat(streaming.writeValueAsBytes(room)).isEqualTo(databind.writeValueAsBytes(room));
+		}
+		assertThat(streaming.writeValueAsBytes(rooms)).isEqualTo(databind.writeValueAsBytes(rooms));
+		assertThat(streaming.writerWithDefaultPrettyPrinter().writeValueAsString(rooms))
+				.isEqualTo(databind.writerWithDefaultPrettyPrinter().writeValueAsString(rooms));
+		RoomBatchResult batch = new RoomBatchResult();
+		batch.addById(1L, rooms.get(0));
+		batch.addById(8L, null);
+		batch.addByRoomNumber("12", rooms.get(3));
+		assertThat(streaming.writeValueAsString(batch)).isEqualTo(databind.writeValueAsString(batch));
+	}
+
+	@Test
+	void testReadsSameRoomsAsDatabind() throws Exception {
+		String json = "[{\"id\":3,\"roomNumber\":\"301\",\"weekdayPrice\":99.5,\"weekendPrice\":120,\"roomType\":\"single\",\"floor\":\"3\"},"
+				+ "{\"floor\":\"4\",\"roomType\":\"twin\",\"weekendPrice\":\"130.25\",\"weekdayPrice\":null,\"roomNumber\":401,"
+				+ "\"version\":9,\"lastModified\":\"2024-01-01T00:00:00Z\",\"extra\":{\"nested\":[1,2]}},"
+				+ "{\"roomNumber\":null,\"weekdayPrice\":1,\"weekendPrice\":2,\"roomType\":\"\",\"floor\":\"\",\"id\":\"12\"}]";
+		TypeReference<List<Room>> type = new TypeReference<List<Room>>() {
+		};
+
+		List<Room> expected = databind.readValue(json, type);
+		List<Room> actual = streaming.readValue(json, type);
+
+		assertThat(actual).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+		assertThat(actual.get(1).getVersion()).isZero();
+		assertThat(actual.get(1).getLastModified()).isNull();
+	}
+
+	@Test
+	void testRejectsWhatDatabindRejects() {
+		String missing = "{\"id\":3,\"roomNumber\":\"301\",\"weekdayPrice\":99.5,\"roomType\":\"single\",\"floor\":\"3\"}";
+		assertThatThrownBy(() -> databind.readValue(missing, Room.class)).isInstanceOf(MismatchedInputException.class)
+				.hasMessageContaining("'weekendPrice'");
+		assertThatThrownBy(() -> streaming.readValue(missing, Room.class)).isInstanceOf(MismatchedInputException.class)
+				.hasMessageContaining("'weekendPrice'");
+
+		String wrongType = "{\"roomNumber\":\"301\",\"weekdayPrice\":[1],\"weekendPrice\":1,\"roomType\":\"single\",\"floor\":\"3\"}";
+		assertThatThrownBy(() -> databind.readValue(wrongType, Room.class)).isInstanceOf(MismatchedInputException.class);
+		assertThatThrownBy(() -> streaming.readValue(wrongType, Room.class)).isInstanceOf(MismatchedInputException.class);
+
+		String unknown = "{\"roomNumber\":\"301\",\"weekdayPrice\":1,\"weekendPrice\":1,\"roomType\":\"single\",\"floor\":\"3\",\"x\":1}";
+		assertThatThrownBy(() -> streaming.readerFor(Room.class).with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+				.readValue(unknown)).isInstanceOf(UnrecognizedPropertyException.class);
+	}
+
+}
@@ -0,0 +1,69 @@
+package host.honeycomb.room.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TestStay {
+
+	/*
+	 * Here we test the constant time night count against walking the stay one
+	 * night at a time, for every check-in day and stays of up to five weeks.
+	 */
+	@Test
+	@DisplayName("weekend nights match a day by day count")
+	void testWeekendNights() {
+		LocalDate monday = LocalDate.of(2024, 1, 1);
+		for (int start = 0; start < 7; start++) {
+			LocalDate from = monday.plusDays(start);
+			for (int nights = 1; nights <= 35; nights++) {
+				Stay stay = Stay.of(from, from.plusDays(nights));
+				assertThat(stay.getWeekendNights()).as("%s nights from %s", nights, from)
+						.isEqualTo(countWeekendNights(from, nights));
+				assertThat(stay.getNights()).isEqualTo(nights);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("prices are exact to the cent")
+	void testPriceCents() {
+		// Friday 2024-03-01 to Monday 2024-03-04: Friday, Saturday and Sunday nights
+		Stay stay = Stay.of(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 4));
+		Room room = new Room(1L, "202", 0.1, 0.2, "double", "2");
+
+		assertThat(stay.getWeekdayNights()).isEqualTo(1);
+		assertThat(stay.getWeekendNights()).isEqualTo(2);
+		assertThat(Stay.fromCents(stay.priceCents(room))).isEqualTo(new BigDecimal("0.50"));
+
+		Stay year = Stay.of(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1));
+		Room suite = new Room(2L, "302", 102.99, 135.49, "suite", "3");
+		assertThat(year.getWeekendNights()).isEqualTo(104);
+		assertThat(Stay.fromCents(year.priceCents(suite))).isEqualTo(new BigDecimal("41074.34"));
+	}
+
+	@Test
+	@DisplayName("check-out must follow check-in")
+	void testEmptyStay() {
+		LocalDate day = LocalDate.of(2024, 3, 1);
+		assertThatThrownBy(() -> Stay.of(day, day)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static int countWeekendNights(LocalDate from, int nights) {
+		int count = 0;
+		for (int i = 0; i < nights; i++) {
+			DayOfWeek day = from.plusDays(i).getDayOfWeek();
+			if (day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,24 @@
+package host.honeycomb.room.repository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/*
+ * Keeps every SQL statement Hibernate prepares, so tests can inspect the
+ * queries the repository really issues.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+	@Override
+	public String inspect(String sql) {
+		STATEMENTS.add(sql);
+		return sql;
+	}
+
+}
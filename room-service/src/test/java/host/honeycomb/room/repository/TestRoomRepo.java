@@ -0,0 +1,134 @@
+package host.honeycomb.room.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import javax.persistence.PersistenceException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomSearchCriteria;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=host.honeycomb.room.repository.RecordingStatementInspector")
+class TestRoomRepo {
+
+	@Autowired
+	private RoomRepo repo;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void addRooms() {
+		for (int i = 0; i < 20; i++) {
+			repo.save(new Room(0L, Integer.toString(100 + i), 100.0, 120.0, "double", Integer.toString(i % 4)));
+		}
+		entityManager.flush();
+		RecordingStatementInspector.STATEMENTS.clear();
+	}
+
+	/*
+	 * Here we test that the query behind findByRoomNumber is answered from the
+	 * unique room number index. We EXPLAIN the exact SQL Hibernate issued.
+	 */
+	@Test
+	@DisplayName("findByRoomNumber uses ux_rooms_room_number")
+	void findByRoomNumberUsesIndex() {
+		assertThat(repo.findByRoomNumber("105")).isPresent();
+
+		assertThat(explainLastQuery("105")).containsIgnoringCase("ux_rooms_room_number")
+				.doesNotContainIgnoringCase("tableScan");
+	}
+
+	/*
+	 * Here we test that the query behind findRoomsByFloor is answered from the
+	 * floor index.
+	 */
+	@Test
+	@DisplayName("findRoomsByFloor uses ix_rooms_floor")
+	void findRoomsByFloorUsesIndex() {
+		assertThat(repo.findRoomsByFloor("2")).hasSize(5);
+
+		assertThat(explainLastQuery("2")).containsIgnoringCase("ix_rooms_floor")
+				.doesNotContainIgnoringCase("tableScan");
+	}
+
+	/*
+	 * Here we test that room numbers are unique.
+	 */
+	@Test
+	@DisplayName("duplicate room numbers are rejected")
+	void duplicateRoomNumberIsRejected() {
+		repo.save(new Room(0L, "105", 100.0, 120.0, "single", "1"));
+
+		assertThrows(PersistenceException.class, entityManager::flush);
+	}
+
+	/*
+	 * Here we test that saving a room read before someone else's update fails
+	 * instead of overwriting that update.
+	 */
+	@Test
+	@DisplayName("stale versions are rejected")
+	void staleVersionIsRejected() {
+		Room room = repo.findByRoomNumber("105").get();
+		entityManager.detach(room);
+		Room current = repo.findById(room.getId()).get();
+		current.setRoomType("suite");
+		entityManager.flush();
+		entityManager.clear();
+
+		room.setRoomType("single");
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> repo.save(room));
+		assertThat(repo.findById(room.getId()).get().getVersion()).isEqualTo(room.getVersion() + 1);
+	}
+
+	/*
+	 * Here we test that a combined search is filtered, sorted and limited in the
+	 * database, using the room type and weekday price index.
+	 */
+	@Test
+	@DisplayName("search filters and pages in one indexed query")
+	void searchUsesIndex() {
+		for (int i = 0; i < 5; i++) {
+			repo.save(new Room(0L, Integer.toString(500 + i), 150.0 + i * 25, 200.0, "suite", "5"));
+		}
+		entityManager.flush();
+		RecordingStatementInspector.STATEMENTS.clear();
+		RoomSearchCriteria criteria = new RoomSearchCriteria();
+		criteria.setRoomType("suite");
+		criteria.setMinWeekdayPrice(160.0);
+		criteria.setMaxWeekdayPrice(240.0);
+
+		Slice<Room> first = repo.search(criteria, PageRequest.of(0, 2, Sort.by("weekdayPrice").descending()));
+		Slice<Room> second = repo.search(criteria, PageRequest.of(1, 2, Sort.by("weekdayPrice").descending()));
+
+		assertThat(first.getContent()).extracting(Room::getRoomNumber).containsExactly("503", "502");
+		assertThat(first.hasNext()).isTrue();
+		assertThat(second.getContent()).extracting(Room::getRoomNumber).containsExactly("501");
+		assertThat(second.hasNext()).isFalse();
+		assertThat(RecordingStatementInspector.STATEMENTS).hasSize(2);
+		assertThat(explainLastQuery("suite", 160.0, 240.0, 3, 2)).containsIgnoringCase("ix_rooms_room_type_weekday_price")
+				.doesNotContainIgnoringCase("tableScan");
+	}
+
+	private String explainLastQuery(Object... parameters) {
+		String sql = RecordingStatementInspector.STATEMENTS.get(RecordingStatementInspector.STATEMENTS.size() - 1);
+		return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+	}
+
+}
@@ -0,0 +1,96 @@
+package host.honeycomb.room.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TestNightClaims {
+
+	@Test
+	@DisplayName("Claims within a word, across words and around the ring")
+	void testRanges() {
+		// 100 days of horizon make a ring of three words, 192 nights
+		NightClaims claims = new NightClaims(100);
+
+		assertThat(claims.claim(1, 60, 70)).isTrue();
+		assertThat(claims.claim(1, 69, 71)).isFalse();
+		assertThat(claims.isFree(1, 50, 60)).isTrue();
+		assertThat(claims.isFree(1, 70, 130)).isTrue();
+		assertThat(claims.claim(2, 60, 70)).isTrue();
+
+		assertThat(claims.claim(1, 180, 200)).isTrue();
+		assertThat(claims.isFree(1, 192 + 7, 192 + 9)).isFalse();
+		assertThat(claims.isFree(1, 192 + 8, 192 + 60)).isTrue();
+		assertThat(claims.claim(1, 192 + 60, 192 + 61)).isFalse();
+
+		// A failed claim backs out the words it had already set
+		assertThat(claims.claim(1, 100, 250)).isFalse();
+		assertThat(claims.isFree(1, 100, 180)).isTrue();
+
+		claims.release(1, 60, 70);
+		claims.release(1, 180, 200);
+		assertThat(claims.isFree(1, 0, 192)).isTrue();
+		assertThat(claims.isFree(2, 60, 70)).isFalse();
+	}
+
+	/*
+	 * Here every thread claims random stays on one room and counts itself in
+	 * on each night while it holds the claim. Two claims on a night at once
+	 * would show as a count above one.
+	 */
+	@Test
+	@DisplayName("Concurrent claims never share a night")
+	void testConcurrentClaimsAreExclusive() throws Exception {
+		NightClaims claims = new NightClaims(100);
+		AtomicIntegerArray holders = new AtomicIntegerArray(100);
+		AtomicLong overlaps = new AtomicLong();
+		AtomicLong claimed = new AtomicLong();
+		int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				Random random = new Random(t);
+				results.add(executor.submit(() -> {
+					for (int i = 0; i < 20_000; i++) {
+						int from = random.nextInt(90);
+						int to = from + 1 + random.nextInt(10);
+						if (!claims.claim(7, from, to)) {
+							continue;
+						}
+						claimed.incrementAndGet();
+						for (int night = from; night < to; night++) {
+							if (holders.incrementAndGet(night) != 1) {
+								overlaps.incrementAndGet();
+							}
+						}
+						for (int night = from; night < to; night++) {
+							holders.decrementAndGet(night);
+						}
+						claims.release(7, from, to);
+					}
+				}));
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(overlaps.get()).isZero();
+		assertThat(claimed.get()).isPositive();
+		assertThat(claims.isFree(7, 0, 100)).isTrue();
+	}
+
+}
@@ -0,0 +1,115 @@
+package host.honeycomb.room.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TestOccupancyCalendar {
+
+	@Test
+	@DisplayName("Ranges within a word, across words and beyond the initial size")
+	void testRanges() {
+		OccupancyCalendar calendar = new OccupancyCalendar(100);
+
+		assertThat(calendar.hold(60, 70)).isTrue();
+		assertThat(calendar.isFree(50, 60)).isTrue();
+		assertThat(calendar.isFree(69, 71)).isFalse();
+		assertThat(calendar.hold(0, 61)).isFalse();
+		assertThat(calendar.book(0, 300)).isTrue();
+		assertThat(calendar.isHeld(65)).isFalse();
+		assertThat(calendar.isBooked(299)).isTrue();
+		assertThat(calendar.isBooked(300)).isFalse();
+		assertThat(calendar.isFree(300, 1000)).isTrue();
+
+		calendar.release(64, 128);
+		assertThat(calendar.isFree(64, 128)).isTrue();
+		assertThat(calendar.isBooked(63)).isTrue();
+		assertThat(calendar.isBooked(128)).isTrue();
+	}
+
+	/*
+	 * Here we run random holds, bookings and releases against a calendar and
+	 * a plain array of night states, and compare every night after each one.
+	 */
+	@Test
+	@DisplayName("Random changes match a night by night model")
+	void testMatchesModel() {
+		Random random = new Random(21);
+		OccupancyCalendar calendar = new OccupancyCalendar(64);
+		int days = 400;
+		boolean[] held = new boolean[days];
+		boolean[] booked = new boolean[days];
+		for (int i = 0; i < 5000; i++) {
+			int from = random.nextInt(days - 1);
+			int to = from + 1 + random.nextInt(Math.min(90, days - from - 1) + 1);
+			to = Math.min(to, days);
+			switch (random.nextInt(3)) {
+			case 0:
+				boolean free = isFree(held, from, to) && isFree(booked, from, to);
+				assertThat(calendar.hold(from, to)).isEqualTo(free);
+				if (free) {
+					fill(held, from, to, true);
+				}
+				break;
+			case 1:
+				boolean bookable = isFree(booked, from, to);
+				assertThat(calendar.book(from, to)).isEqualTo(bookable);
+				if (bookable) {
+					fill(booked, from, to, true);
+					fill(held, from, to, false);
+				}
+				break;
+			default:
+				calendar.release(from, to);
+				fill(held, from, to, false);
+				fill(booked, from, to, false);
+			}
+			for (int day = 0; day < days; day++) {
+				assertThat(calendar.isHeld(day)).as("held %d after change %d", day, i).isEqualTo(held[day]);
+				assertThat(calendar.isBooked(day)).as("booked %d after change %d", day, i).isEqualTo(booked[day]);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Month bits round trip and restore undoes a change")
+	void testPersistedForm() {
+		OccupancyCalendar calendar = new OccupancyCalendar(64);
+		calendar.hold(3, 5);
+		calendar.book(30, 40);
+		OccupancyCalendar loaded = new OccupancyCalendar(64);
+		loaded.load(0, calendar.heldBits(0, 31), calendar.bookedBits(0, 31));
+		loaded.load(31, calendar.heldBits(31, 30), calendar.bookedBits(31, 30));
+
+		assertThat(calendar.heldBits(0, 31)).isEqualTo(0b11000);
+		for (int day = 0; day < 64; day++) {
+			assertThat(loaded.isHeld(day)).isEqualTo(calendar.isHeld(day));
+			assertThat(loaded.isBooked(day)).isEqualTo(calendar.isBooked(day));
+		}
+
+		long[][] saved = calendar.save();
+		calendar.book(100, 200);
+		calendar.restore(saved);
+		assertThat(calendar.isFree(40, 400)).isTrue();
+		assertThat(calendar.isBooked(39)).isTrue();
+	}
+
+	private static boolean isFree(boolean[] nights, int from, int to) {
+		for (int day = from; day < to; day++) {
+			if (nights[day]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void fill(boolean[] nights, int from, int to, boolean value) {
+		for (int day = from; day < to; day++) {
+			nights[day] = value;
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+package host.honeycomb.room.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import host.honeycomb.room.event.RoomChangedEvent;
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomChange;
+import host.honeycomb.room.repository.RoomRepo;
+import host.honeycomb.room.service.RoomService;
+
+/*
+ * A second feed on the same room_outbox table stands in for another instance.
+ */
+@SpringBootTest(properties = { "room.changes.feed=true", "room.changes.poll-interval=100ms" })
+class TestOutboxRoomChangeFeed {
+
+	@Autowired
+	private OutboxRoomChangeFeed feed;
+
+	@Autowired
+	private RoomOutboxStore store;
+
+	@Autowired
+	private RoomService service;
+
+	@Autowired
+	private RoomRepo repo;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private OutboxRoomChangeFeed other;
+	private final List<Long> rooms = new ArrayList<>();
+
+	@BeforeEach
+	void startOtherInstance() {
+		other = new OutboxRoomChangeFeed(store, transactionManager, 500, 4, Duration.ofMillis(100),
+				Duration.ofDays(7));
+		other.start();
+	}
+
+	@AfterEach
+	void stopOtherInstance() throws InterruptedException {
+		other.close();
+		// The last published row stays, as the relays number new rows after it
+		jdbcTemplate.update("DELETE FROM room_outbox WHERE feed_offset < (SELECT MAX(feed_offset) FROM room_outbox)");
+		rooms.forEach(repo::deleteById);
+	}
+
+	@Test
+	@DisplayName("Instances sharing the outbox publish one feed")
+	void testInstancesShareOffsets() throws Exception {
+		long start = Math.max(feed.getLastOffset(), other.getLastOffset());
+		for (int i = 0; i < 3; i++) {
+			Room room = service.addRoom(new Room(0L, "161" + i, 90.00, 110.00, "single", "16"));
+			rooms.add(room.getId());
+			// Written as if by the other instance, whose relay publishes it
+			other.onRoomChanged(new RoomChangedEvent(room, room.getRoomNumber(), false));
+		}
+		awaitOffset(feed, start + 6);
+		awaitOffset(other, start + 6);
+
+		List<RoomChange> changes = feed.read(start, 10);
+		assertThat(changes).extracting(RoomChange::getOffset).containsExactly(start + 1, start + 2, start + 3,
+				start + 4, start + 5, start + 6);
+		assertThat(other.read(start, 10)).usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyElementsOf(changes);
+		assertThat(changes).filteredOn(change -> change.getType() == RoomChange.Type.ADDED).hasSize(3);
+	}
+
+	private static void awaitOffset(OutboxRoomChangeFeed feed, long offset) throws InterruptedException {
+		for (int i = 0; i < 100 && feed.getLastOffset() < offset; i++) {
+			Thread.sleep(50);
+		}
+		assertThat(feed.getLastOffset()).isEqualTo(offset);
+	}
+
+}
@@ -0,0 +1,125 @@
+package host.honeycomb.room.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.repository.RoomRepo;
+
+@SpringBootTest
+class TestRoomAvailabilityServiceImpl {
+	private static final LocalDate FROM = LocalDate.now().plusDays(3);
+
+	@Autowired
+	private RoomAvailabilityServiceImpl service;
+
+	@SpyBean
+	private RoomCalendarStore store;
+
+	@Autowired
+	private NightClaims claims;
+
+	@Autowired
+	private RoomRepo repo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private Room room;
+
+	@BeforeEach
+	void addRoom() {
+		room = repo.save(new Room(0L, "1201", 90.00, 110.00, "single", "12"));
+	}
+
+	@AfterEach
+	void deleteRoom() {
+		jdbcTemplate.update("DELETE FROM room_calendar");
+		repo.delete(room);
+	}
+
+	@Test
+	@DisplayName("Holds and bookings are loaded back from room_calendar")
+	void testLoadsPersistedNights() {
+		LocalDate monthEnd = FROM.withDayOfMonth(FROM.lengthOfMonth());
+		assertThat(service.book(room.getId(), monthEnd.minusDays(1), monthEnd.plusDays(2))).isTrue();
+		assertThat(service.hold(room.getId(), monthEnd.plusDays(5), monthEnd.plusDays(6))).isTrue();
+
+		RoomAvailabilityServiceImpl reloaded = new RoomAvailabilityServiceImpl(repo, store, claims, transactionManager,
+				730);
+		reloaded.load();
+
+		assertThat(reloaded.getAvailability(room.getId(), monthEnd.minusDays(2), monthEnd.plusDays(7)))
+				.satisfies(availability -> {
+					assertThat(availability.getBooked()).containsExactly(monthEnd.minusDays(1), monthEnd,
+							monthEnd.plusDays(1));
+					assertThat(availability.getHeld()).containsExactly(monthEnd.plusDays(5));
+				});
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM room_calendar", Integer.class)).isEqualTo(2);
+
+		service.release(room.getId(), monthEnd.minusDays(1), monthEnd.plusDays(7));
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM room_calendar", Integer.class)).isZero();
+	}
+
+	@Test
+	@DisplayName("A failed write leaves the calendar as it was")
+	void testFailedWriteIsUndone() {
+		service.hold(room.getId(), FROM, FROM.plusDays(1));
+		doThrow(new DataAccessResourceFailureException("down")).when(store).saveMonth(anyLong(), any(), anyInt(),
+				anyInt(), anyInt(), anyInt());
+
+		assertThatThrownBy(() -> service.book(room.getId(), FROM, FROM.plusDays(2)))
+				.isInstanceOf(DataAccessResourceFailureException.class);
+
+		doCallRealMethod().when(store).saveMonth(anyLong(), any(), anyInt(), anyInt(), anyInt(), anyInt());
+		assertThat(service.getAvailability(room.getId(), FROM, FROM.plusDays(2)).getHeld()).containsExactly(FROM);
+		assertThat(service.getAvailability(room.getId(), FROM, FROM.plusDays(2)).getBooked()).isEmpty();
+		assertThat(service.hold(room.getId(), FROM.plusDays(1), FROM.plusDays(2))).isTrue();
+		assertThat(service.hold(room.getId(), FROM, FROM.plusDays(1))).isFalse();
+	}
+
+	@Test
+	@DisplayName("Instances sharing room_calendar do not overwrite each other's nights")
+	void testConcurrentInstances() {
+		assertThat(service.hold(room.getId(), FROM, FROM.plusDays(1))).isTrue();
+		RoomAvailabilityServiceImpl other = new RoomAvailabilityServiceImpl(repo, store, claims, transactionManager,
+				730);
+		other.load();
+		assertThat(other.book(room.getId(), FROM.plusDays(1), FROM.plusDays(2))).isTrue();
+
+		// This instance has not seen the booking until its write finds the row changed
+		assertThat(service.getAvailability(room.getId(), FROM, FROM.plusDays(3)).getBooked()).isEmpty();
+		assertThat(service.book(room.getId(), FROM.plusDays(1), FROM.plusDays(2))).isFalse();
+		assertThat(service.hold(room.getId(), FROM.plusDays(2), FROM.plusDays(3))).isTrue();
+
+		RoomAvailabilityServiceImpl reloaded = new RoomAvailabilityServiceImpl(repo, store, claims,
+				transactionManager, 730);
+		reloaded.load();
+		assertThat(reloaded.getAvailability(room.getId(), FROM, FROM.plusDays(3))).satisfies(availability -> {
+			assertThat(availability.getHeld()).containsExactly(FROM, FROM.plusDays(2));
+			assertThat(availability.getBooked()).containsExactly(FROM.plusDays(1));
+		});
+	}
+
+}
@@ -0,0 +1,110 @@
+package host.honeycomb.room.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.repository.RoomRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * With room.update.write-behind=true a PUT is acknowledged before the row
+ * changes, and the flushed batch bumps the version once however many updates
+ * it coalesced.
+ */
+@SpringBootTest(properties = { "room.update.write-behind=true", "room.update.flush-interval=1h" })
+@AutoConfigureMockMvc
+class TestRoomBatchWriter {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private WriteBehindRoomUpdateQueue queue;
+
+	@Autowired
+	private RoomRepo repo;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@AfterEach
+	void deleteRooms() {
+		repo.deleteAll();
+	}
+
+	@Test
+	void testQueuedUpdatesAreWrittenInOneBatch() throws Exception {
+		Room first = repo.save(new Room(0L, "808", 102.00, 135.00, "double", "8"));
+		Room second = repo.save(new Room(0L, "809", 102.00, 135.00, "double", "8"));
+
+		update(first.getId(), "{\"roomNumber\":\"818\",\"weekdayPrice\":110.0,\"weekendPrice\":140.0,"
+				+ "\"roomType\":\"double\",\"floor\":\"8\"}");
+		update(first.getId(), "{\"roomNumber\":\"828\",\"weekdayPrice\":120.0,\"weekendPrice\":150.0,"
+				+ "\"roomType\":\"suite\",\"floor\":\"8\"}");
+		update(second.getId(), "{\"roomNumber\":\"819\",\"weekdayPrice\":99.0,\"weekendPrice\":125.0,"
+				+ "\"roomType\":\"single\",\"floor\":\"8\"}");
+		assertThat(repo.findById(first.getId()).get().getRoomNumber()).isEqualTo("808");
+
+		queue.flush();
+		Room written = repo.findById(first.getId()).get();
+		assertThat(written.getRoomNumber()).isEqualTo("828");
+		assertThat(written.getRoomType()).isEqualTo("suite");
+		assertThat(written.getVersion()).isEqualTo(first.getVersion() + 1);
+		assertThat(written.getLastModified()).isAfterOrEqualTo(first.getLastModified());
+		assertThat(repo.findById(second.getId()).get().getRoomNumber()).isEqualTo("819");
+		assertThat(repo.findByRoomNumber("808")).isEmpty();
+		assertThat(registry.get("room.update.coalesced").functionCounter().count()).isGreaterThanOrEqualTo(1);
+	}
+
+	@Test
+	void testConflictingUpdateDoesNotLoseTheRest() throws Exception {
+		Room first = repo.save(new Room(0L, "808", 102.00, 135.00, "double", "8"));
+		Room second = repo.save(new Room(0L, "809", 102.00, 135.00, "double", "8"));
+		Room third = repo.save(new Room(0L, "810", 102.00, 135.00, "double", "8"));
+
+		// The second room takes the number the first room still has
+		update(second.getId(), "{\"roomNumber\":\"808\",\"weekdayPrice\":99.0,\"weekendPrice\":125.0,"
+				+ "\"roomType\":\"single\",\"floor\":\"8\"}");
+		update(third.getId(), "{\"roomNumber\":\"811\",\"weekdayPrice\":99.0,\"weekendPrice\":125.0,"
+				+ "\"roomType\":\"single\",\"floor\":\"8\"}");
+
+		queue.flush();
+		assertThat(repo.findById(first.getId()).get().getRoomNumber()).isEqualTo("808");
+		assertThat(repo.findById(second.getId()).get().getRoomNumber()).isEqualTo("809");
+		assertThat(repo.findById(third.getId()).get().getRoomNumber()).isEqualTo("811");
+	}
+
+	@Test
+	void testConditionalUpdatesAreWrittenAtOnce() throws Exception {
+		Room room = repo.save(new Room(0L, "808", 102.00, 135.00, "double", "8"));
+		String eTag = "\"" + room.getVersion() + "\"";
+		String json = "{\"roomNumber\":\"818\",\"weekdayPrice\":110.0,\"weekendPrice\":140.0,"
+				+ "\"roomType\":\"double\",\"floor\":\"8\"}";
+
+		mockMvc.perform(put("/rooms/{id}", room.getId()).header(HttpHeaders.IF_MATCH, eTag)
+				.contentType(MediaType.APPLICATION_JSON).content(json)).andExpect(status().isOk());
+		assertThat(repo.findById(room.getId()).get().getRoomNumber()).isEqualTo("818");
+
+		// A second client that read the same version no longer matches
+		mockMvc.perform(put("/rooms/{id}", room.getId()).header(HttpHeaders.IF_MATCH, eTag)
+				.contentType(MediaType.APPLICATION_JSON).content(json)).andExpect(status().isPreconditionFailed());
+	}
+
+	private void update(long id, String json) throws Exception {
+		mockMvc.perform(put("/rooms/{id}", id).contentType(MediaType.APPLICATION_JSON).content(json))
+				.andExpect(status().isAccepted()).andExpect(header().string("Location", "/rooms/" + id));
+	}
+
+}
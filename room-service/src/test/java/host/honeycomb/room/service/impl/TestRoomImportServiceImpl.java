@@ -0,0 +1,125 @@
+package host.honeycomb.room.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import host.honeycomb.room.model.RoomImportResult;
+import host.honeycomb.room.repository.RoomRepo;
+import host.honeycomb.room.service.RoomImportService;
+
+@DataJpaTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+		"room.import.batch-size=50", "room.import.chunk-size=100" })
+@Import({ RoomImportServiceImpl.class, JacksonAutoConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TestRoomImportServiceImpl {
+
+	@Autowired
+	private RoomImportService importService;
+
+	@Autowired
+	private RoomRepo repo;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@BeforeEach
+	void emptyTable() {
+		repo.deleteAll();
+	}
+
+	/*
+	 * Here we test that valid JSON rows are imported and that rows with missing or
+	 * malformed fields are reported by position without stopping the import.
+	 */
+	@Test
+	void importJsonReportsBadRows() throws Exception {
+		String json = "[{\"roomNumber\":\"101\",\"weekdayPrice\":100.0,\"weekendPrice\":120.0,\"roomType\":\"single\",\"floor\":\"1\"},"
+				+ "{\"roomNumber\":\"102\",\"weekendPrice\":120.0,\"roomType\":\"single\",\"floor\":\"1\"},"
+				+ "{\"roomNumber\":\"103\",\"weekdayPrice\":\"cheap\",\"weekendPrice\":120.0,\"roomType\":\"single\",\"floor\":\"1\"},"
+				+ "{\"roomNumber\":\"104\",\"weekdayPrice\":100.0,\"weekendPrice\":120.0,\"roomType\":\"single\",\"floor\":\"1\"}]";
+
+		RoomImportResult result = importService.importJson(stream(json));
+
+		assertThat(result.getImported()).isEqualTo(2);
+		assertThat(result.getFailures()).extracting("row", "roomNumber").containsExactly(tuple(2, "102"),
+				tuple(3, "103"));
+		assertThat(repo.count()).isEqualTo(2);
+	}
+
+	/*
+	 * Here we test that truncated JSON keeps the rows read before the damage and
+	 * reports where reading stopped.
+	 */
+	@Test
+	void importTruncatedJsonKeepsEarlierRows() throws Exception {
+		String json = "[{\"roomNumber\":\"101\",\"weekdayPrice\":100.0,\"weekendPrice\":120.0,\"roomType\":\"single\",\"floor\":\"1\"},"
+				+ "{\"roomNumber\":\"102\",\"weekdayPrice\":";
+
+		RoomImportResult result = importService.importJson(stream(json));
+
+		assertThat(result.getImported()).isEqualTo(1);
+		assertThat(result.getFailures()).extracting("row").containsExactly(2);
+	}
+
+	/*
+	 * Here we test that a row the database rejects only fails itself, the rest of
+	 * its chunk is still imported.
+	 */
+	@Test
+	void importCsvIsolatesDatabaseFailures() throws Exception {
+		StringBuilder csv = new StringBuilder("floor,roomType,roomNumber,weekdayPrice,weekendPrice\n");
+		for (int i = 1; i <= 10; i++) {
+			String roomNumber = i == 5 ? String.format("%0300d", 5) : "20" + i;
+			csv.append("2,\"double, sea view\",").append(roomNumber).append(",110.5,140\n");
+		}
+		csv.append("2,double,211,n/a,140\n");
+
+		RoomImportResult result = importService.importCsv(stream(csv.toString()));
+
+		assertThat(result.getImported()).isEqualTo(9);
+		assertThat(result.getFailures()).extracting("row").containsExactlyInAnyOrder(5, 11);
+		assertThat(repo.findByRoomNumber("201").get().getRoomType()).isEqualTo("double, sea view");
+	}
+
+	/*
+	 * Here we test that inserts are sent in JDBC batches: importing 500 rooms
+	 * needs far fewer prepared statements than rows.
+	 */
+	@Test
+	void importUsesJdbcBatches() throws Exception {
+		StringBuilder csv = new StringBuilder("roomNumber,weekdayPrice,weekendPrice,roomType,floor\n");
+		for (int i = 0; i < 500; i++) {
+			csv.append(1000 + i).append(",100,120,single,").append(i % 10).append('\n');
+		}
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		RoomImportResult result = importService.importCsv(stream(csv.toString()));
+
+		assertThat(result.getImported()).isEqualTo(500);
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(500);
+		assertThat(statistics.getPrepareStatementCount()).isLessThan(50);
+	}
+
+	private InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,60 @@
+package host.honeycomb.room.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.repository.RoomRepo;
+import host.honeycomb.room.service.RoomService;
+
+/*
+ * With room.inventory.snapshot=true the RoomService callers get is the
+ * snapshot, which follows committed writes without running any SQL for reads.
+ */
+@SpringBootTest(properties = "room.inventory.snapshot=true")
+class TestRoomInventoryService {
+
+	@Autowired
+	private RoomService service;
+
+	@Autowired
+	private RoomRepo repo;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@AfterEach
+	void deleteRooms() {
+		repo.deleteAll();
+	}
+
+	@Test
+	void testReadsFollowWritesWithoutSql() {
+		assertThat(AopUtils.getTargetClass(service)).isEqualTo(RoomInventoryService.class);
+		Room added = service.addRoom(new Room(0L, "808", 102.00, 135.00, "double", "8"));
+		Room changed = new Room(added.getId(), "809", 112.00, 155.00, "suite", "8");
+		changed.setVersion(added.getVersion());
+		Room updated = service.updateRoom(changed);
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		long statements = statistics.getPrepareStatementCount();
+
+		Room room = service.findRoom(added.getId()).get();
+		assertThat(room.getRoomType()).isEqualTo("suite");
+		assertThat(room.getVersion()).isEqualTo(updated.getVersion()).isEqualTo(added.getVersion() + 1);
+		assertThat(service.findByRoomNumber("809").get().getId()).isEqualTo(added.getId());
+		assertThat(service.findByRoomNumber("808")).isEmpty();
+		assertThat(service.findRoomsByFloor("8")).extracting(Room::getRoomNumber).containsExactly("809");
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+	}
+
+}
@@ -0,0 +1,121 @@
+package host.honeycomb.room.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import host.honeycomb.room.model.Room;
+
+class TestRoomInventorySnapshot {
+
+	@Test
+	@DisplayName("Lookups by id, room number and floor")
+	void testLookups() {
+		RoomInventorySnapshot snapshot = RoomInventorySnapshot.of(Arrays.asList(room(3L, "301", "3", "suite"),
+				room(1L, "101", "1", "double"), room(2L, "102", "1", "single")));
+
+		assertThat(snapshot.size()).isEqualTo(3);
+		assertThat(snapshot.findRoom(2L).getRoomNumber()).isEqualTo("102");
+		assertThat(snapshot.findRoom(4L)).isNull();
+		assertThat(snapshot.findByRoomNumber("301").getId()).isEqualTo(3L);
+		assertThat(snapshot.findByRoomNumber("999")).isNull();
+		assertThat(snapshot.findRoomsByFloor("1")).extracting(Room::getId).containsExactly(1L, 2L);
+		assertThat(snapshot.findRoomsByFloor("9")).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Rooms keep every field, including version and last modified")
+	void testRoomFields() {
+		Room room = room(7L, "707", "7", "suite");
+		room.setVersion(4L);
+		room.setLastModified(Instant.ofEpochMilli(1700000000123L));
+
+		Room copy = RoomInventorySnapshot.of(Collections.singletonList(room)).findRoom(7L);
+
+		assertThat(copy).usingRecursiveComparison().isEqualTo(room);
+		assertThat(copy).isNotSameAs(room);
+	}
+
+	/*
+	 * Here we test that a patched snapshot moves a room between room numbers and
+	 * floors, places added rooms in id order, and leaves the original snapshot
+	 * untouched.
+	 */
+	@Test
+	@DisplayName("Patching updates indexes and keeps the original unchanged")
+	void testWith() {
+		RoomInventorySnapshot original = RoomInventorySnapshot
+				.of(Arrays.asList(room(10L, "101", "1", "double"), room(30L, "301", "3", "suite")));
+
+		RoomInventorySnapshot patched = original.with(Arrays.asList(version(room(30L, "102", "1", "suite"), 1),
+				room(20L, "201", "2", "single"), room(40L, "401", "4", "double")));
+
+		assertThat(patched.size()).isEqualTo(4);
+		assertThat(patched.findByRoomNumber("301")).isNull();
+		assertThat(patched.findByRoomNumber("102").getId()).isEqualTo(30L);
+		assertThat(patched.findRoomsByFloor("1")).extracting(Room::getId).containsExactly(10L, 30L);
+		assertThat(patched.findRoomsByFloor("3")).isEmpty();
+		assertThat(patched.findRoom(20L).getRoomType()).isEqualTo("single");
+
+		assertThat(original.size()).isEqualTo(2);
+		assertThat(original.findByRoomNumber("301").getId()).isEqualTo(30L);
+		assertThat(original.findRoom(20L)).isNull();
+	}
+
+	/*
+	 * Here we test that changes applied out of commit order leave the newest
+	 * version in place, within a batch and across batches.
+	 */
+	@Test
+	@DisplayName("Older versions never replace newer ones")
+	void testWithOutOfOrder() {
+		RoomInventorySnapshot snapshot = RoomInventorySnapshot
+				.of(Collections.singletonList(room(5L, "501", "5", "double")));
+
+		snapshot = snapshot.with(Collections.singletonList(version(room(5L, "502", "5", "double"), 2)));
+		snapshot = snapshot.with(Collections.singletonList(version(room(5L, "503", "5", "double"), 1)));
+		assertThat(snapshot.findRoom(5L).getVersion()).isEqualTo(2);
+		assertThat(snapshot.findByRoomNumber("502").getId()).isEqualTo(5L);
+		assertThat(snapshot.findByRoomNumber("503")).isNull();
+
+		snapshot = snapshot.with(Arrays.asList(version(room(5L, "505", "5", "double"), 4),
+				version(room(5L, "504", "5", "double"), 3)));
+		assertThat(snapshot.findRoom(5L).getRoomNumber()).isEqualTo("505");
+	}
+
+	@Test
+	@DisplayName("Large snapshots find every room")
+	void testManyRooms() {
+		RoomInventorySnapshot snapshot = RoomInventorySnapshot.EMPTY;
+		for (int chunk = 0; chunk < 10; chunk++) {
+			Room[] rooms = new Room[1000];
+			for (int i = 0; i < rooms.length; i++) {
+				int id = chunk * 1000 + i + 1;
+				rooms[i] = room(id, Integer.toString(100000 + id), Integer.toString(id % 50), "double");
+			}
+			snapshot = snapshot.with(Arrays.asList(rooms));
+		}
+
+		assertThat(snapshot.size()).isEqualTo(10000);
+		for (int id = 1; id <= 10000; id++) {
+			assertThat(snapshot.findRoom(id).getRoomNumber()).isEqualTo(Integer.toString(100000 + id));
+			assertThat(snapshot.findByRoomNumber(Integer.toString(100000 + id)).getId()).isEqualTo(id);
+		}
+		assertThat(snapshot.findRoomsByFloor("7")).hasSize(200);
+	}
+
+	private static Room room(long id, String roomNumber, String floor, String roomType) {
+		return new Room(id, roomNumber, 100.0 + id, 120.0 + id, roomType, floor);
+	}
+
+	private static Room version(Room room, long version) {
+		room.setVersion(version);
+		return room;
+	}
+
+}
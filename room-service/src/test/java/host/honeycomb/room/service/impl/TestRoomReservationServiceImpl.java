@@ -0,0 +1,173 @@
+package host.honeycomb.room.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomReservation;
+import host.honeycomb.room.repository.RoomRepo;
+
+@SpringBootTest
+class TestRoomReservationServiceImpl {
+	private static final LocalDate FROM = LocalDate.now().plusDays(3);
+
+	@Autowired
+	private RoomReservationServiceImpl service;
+
+	@Autowired
+	private RoomAvailabilityServiceImpl availability;
+
+	@Autowired
+	private NightClaims claims;
+
+	@Autowired
+	private RoomBookingStore bookings;
+
+	@Autowired
+	private RoomRepo repo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Room room;
+	private Room other;
+
+	@BeforeEach
+	void addRooms() {
+		room = repo.save(new Room(0L, "1301", 90.00, 110.00, "single", "13"));
+		other = repo.save(new Room(0L, "1302", 90.00, 110.00, "single", "13"));
+	}
+
+	@AfterEach
+	void deleteRooms() {
+		jdbcTemplate.update("DELETE FROM room_booking");
+		jdbcTemplate.update("DELETE FROM room_calendar");
+		repo.delete(room);
+		repo.delete(other);
+	}
+
+	@Test
+	@DisplayName("A reservation keeps its nights until confirmed, then they are booked and recorded")
+	void testReserveAndConfirm() {
+		RoomReservation reservation = service.reserve(room.getId(), FROM, FROM.plusDays(3)).get();
+
+		assertThat(service.reserve(room.getId(), FROM.plusDays(2), FROM.plusDays(4))).isEmpty();
+		assertThat(availability.hold(room.getId(), FROM.plusDays(1), FROM.plusDays(2))).isFalse();
+		assertThat(availability.book(room.getId(), FROM.plusDays(1), FROM.plusDays(2))).isFalse();
+		assertThat(availability.getAvailability(room.getId(), FROM, FROM.plusDays(4)).getHeld()).hasSize(3);
+		RoomReservation adjacent = service.reserve(room.getId(), FROM.plusDays(3), FROM.plusDays(4)).get();
+		service.cancel(adjacent.getId());
+
+		assertThat(service.confirm(reservation.getId()).get().getStatus())
+				.isEqualTo(RoomReservation.Status.CONFIRMED);
+		assertThat(service.confirm(reservation.getId()).get().getStatus())
+				.isEqualTo(RoomReservation.Status.CONFIRMED);
+		assertThat(service.cancel(reservation.getId()).get().getStatus())
+				.isEqualTo(RoomReservation.Status.CONFIRMED);
+		assertThat(availability.getAvailability(room.getId(), FROM, FROM.plusDays(3)).getBooked()).hasSize(3);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM room_booking WHERE reservation_id = ?",
+				Integer.class, reservation.getId())).isEqualTo(1);
+		assertThat(service.reserve(room.getId(), FROM.plusDays(2), FROM.plusDays(3))).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Cancelled and expired reservations free their nights")
+	void testCancelAndExpire() {
+		RoomReservation reservation = service.reserve(room.getId(), FROM, FROM.plusDays(2)).get();
+		assertThat(service.cancel(reservation.getId()).get().getStatus())
+				.isEqualTo(RoomReservation.Status.CANCELLED);
+		assertThat(service.confirm(reservation.getId()).get().getStatus())
+				.isEqualTo(RoomReservation.Status.CANCELLED);
+		assertThat(service.getReservation("unknown")).isEmpty();
+
+		RoomReservationServiceImpl expiring = new RoomReservationServiceImpl(availability, claims, bookings,
+				Duration.ZERO, Duration.ofMinutes(1));
+		RoomReservation expired = expiring.reserve(room.getId(), FROM, FROM.plusDays(2)).get();
+		// Runs into the expired reservation, which is swept out of the way and, with no ttl, forgotten
+		RoomReservation next = expiring.reserve(room.getId(), FROM.plusDays(1), FROM.plusDays(2)).get();
+
+		assertThat(expiring.getReservation(expired.getId())).isEmpty();
+		assertThat(expiring.confirm(next.getId()).get().getStatus()).isEqualTo(RoomReservation.Status.EXPIRED);
+		assertThat(availability.getAvailability(room.getId(), FROM, FROM.plusDays(2)).isFree()).isTrue();
+	}
+
+	/*
+	 * Here threads race to reserve overlapping stays on two rooms and confirm
+	 * or cancel what they get. Afterwards the confirmed stays must not
+	 * overlap, and the calendar, room_booking and the counters must all agree
+	 * with them.
+	 */
+	@Test
+	@DisplayName("Racing reservations never double book a night or lose a booking")
+	void testConcurrentReservations() throws Exception {
+		int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+		long[] roomIds = { room.getId(), other.getId() };
+		ConcurrentLinkedQueue<RoomReservation> confirmed = new ConcurrentLinkedQueue<>();
+		CyclicBarrier start = new CyclicBarrier(threads);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				Random random = new Random(t);
+				results.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < 300; i++) {
+						LocalDate from = FROM.plusDays(random.nextInt(40));
+						Optional<RoomReservation> reservation = service.reserve(roomIds[random.nextInt(2)], from,
+								from.plusDays(1 + random.nextInt(4)));
+						if (!reservation.isPresent()) {
+							continue;
+						}
+						if (random.nextInt(4) == 0) {
+							confirmed.add(service.confirm(reservation.get().getId()).get());
+						} else {
+							service.cancel(reservation.get().getId());
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(confirmed).isNotEmpty().allSatisfy(
+				reservation -> assertThat(reservation.getStatus()).isEqualTo(RoomReservation.Status.CONFIRMED));
+		for (long roomId : roomIds) {
+			int nights = 0;
+			for (RoomReservation reservation : confirmed) {
+				if (reservation.getRoomId() == roomId) {
+					nights += reservation.getTo().toEpochDay() - reservation.getFrom().toEpochDay();
+				}
+			}
+			// Overlapping confirmations would book fewer nights than they add up to
+			assertThat(availability.getAvailability(roomId, FROM, FROM.plusDays(44)).getBooked()).hasSize(nights);
+			assertThat(availability.getAvailability(roomId, FROM, FROM.plusDays(44)).getHeld()).isEmpty();
+		}
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM room_booking", Integer.class))
+				.isEqualTo(confirmed.size());
+	}
+
+}
@@ -0,0 +1,205 @@
+package host.honeycomb.room.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import host.honeycomb.room.model.Room;
+import host.honeycomb.room.repository.RoomRepo;
+import host.honeycomb.room.service.RoomService;
+
+@SpringJUnitConfig
+class TestRoomServiceCaching {
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		RoomRepo roomRepo() {
+			return mock(RoomRepo.class);
+		}
+
+		@Bean
+		CacheManager cacheManager() {
+			RoomCacheManager cacheManager = new RoomCacheManager();
+			cacheManager.setCacheNames(
+					Arrays.asList(RoomServiceImpl.ROOMS_BY_ID_CACHE, RoomServiceImpl.ROOMS_BY_NUMBER_CACHE));
+			cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100).recordStats());
+			return cacheManager;
+		}
+
+		@Bean
+		RoomCacheEvictionListener roomCacheEvictionListener(CacheManager cacheManager) {
+			return new RoomCacheEvictionListener(cacheManager);
+		}
+
+		@Bean
+		RoomService roomService(RoomRepo roomRepo, ApplicationEventPublisher eventPublisher) {
+			return new RoomServiceImpl(roomRepo, eventPublisher);
+		}
+	}
+
+	@Autowired
+	private RoomService service;
+
+	@Autowired
+	private RoomRepo repo;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@BeforeEach
+	void clearCaches() {
+		reset(repo);
+		cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+	}
+
+	/*
+	 * Here we test that repeated lookups by id are answered from the cache. The
+	 * repository is hit once and the cache records one miss followed by hits.
+	 */
+	@Test
+	void repeatedLookupByIdHitsRepositoryOnce() {
+		Room room = new Room(1L, "202", 102.00, 135.00, "double", "2");
+		when(repo.findById(1L)).thenReturn(Optional.of(room));
+		CacheStats before = stats(RoomServiceImpl.ROOMS_BY_ID_CACHE);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(service.findRoom(1L)).contains(room);
+		}
+
+		verify(repo, times(1)).findById(1L);
+		CacheStats stats = stats(RoomServiceImpl.ROOMS_BY_ID_CACHE).minus(before);
+		assertThat(stats.missCount()).isEqualTo(1);
+		assertThat(stats.hitCount()).isEqualTo(2);
+	}
+
+	/*
+	 * Here we test that a room which does not exist is not cached, so adding it
+	 * later makes it visible straight away.
+	 */
+	@Test
+	void missingRoomIsNotCached() {
+		when(repo.findById(7L)).thenReturn(Optional.empty());
+
+		assertThat(service.findRoom(7L)).isEmpty();
+		assertThat(service.findRoom(7L)).isEmpty();
+
+		verify(repo, times(2)).findById(7L);
+	}
+
+	/*
+	 * Here we test that renaming a room through updateRoom evicts both the id
+	 * entry and the entry for the old room number.
+	 */
+	@Test
+	void updateRoomEvictsIdAndPreviousRoomNumber() {
+		Room before = new Room(1L, "202", 102.00, 135.00, "double", "2");
+		Room after = new Room(1L, "203", 102.00, 135.00, "double", "2");
+		when(repo.findById(1L)).thenReturn(Optional.of(before));
+		when(repo.findByRoomNumber("202")).thenReturn(Optional.of(before));
+		service.findRoom(1L);
+		service.findByRoomNumber("202");
+
+		when(repo.save(any())).thenReturn(after);
+		service.updateRoom(after);
+
+		assertThat(cacheManager.getCache(RoomServiceImpl.ROOMS_BY_ID_CACHE).get(1L)).isNull();
+		assertThat(cacheManager.getCache(RoomServiceImpl.ROOMS_BY_NUMBER_CACHE).get("202")).isNull();
+
+		when(repo.findById(1L)).thenReturn(Optional.of(after));
+		assertThat(service.findRoom(1L).get().getRoomNumber()).isEqualTo("203");
+	}
+
+	/*
+	 * Here we test that a lookup which read the row before an update committed
+	 * does not put it back in the cache after the update's eviction.
+	 */
+	@Test
+	void lookupRacingUpdateDoesNotCacheOldRoom() throws Exception {
+		Room before = new Room(1L, "202", 102.00, 135.00, "double", "2");
+		before.setVersion(1);
+		Room after = new Room(1L, "202", 110.00, 135.00, "double", "2");
+		after.setVersion(2);
+		AtomicBoolean firstLookup = new AtomicBoolean(true);
+		CountDownLatch loaded = new CountDownLatch(1);
+		CountDownLatch updated = new CountDownLatch(1);
+		when(repo.findById(1L)).thenAnswer(invocation -> {
+			if (firstLookup.compareAndSet(true, false)) {
+				loaded.countDown();
+				updated.await(5, TimeUnit.SECONDS);
+				return Optional.of(before);
+			}
+			return Optional.of(after);
+		});
+		when(repo.save(any())).thenReturn(after);
+
+		CompletableFuture<Optional<Room>> lookup = CompletableFuture.supplyAsync(() -> service.findRoom(1L));
+		assertThat(loaded.await(5, TimeUnit.SECONDS)).isTrue();
+		service.updateRoom(after);
+		updated.countDown();
+
+		assertThat(lookup.get(5, TimeUnit.SECONDS)).contains(before);
+		assertThat(cacheManager.getCache(RoomServiceImpl.ROOMS_BY_ID_CACHE).get(1L)).isNull();
+		assertThat(service.findRoom(1L).get().getVersion()).isEqualTo(2);
+		assertThat(service.findRoom(1L).get().getVersion()).isEqualTo(2);
+		verify(repo, times(3)).findById(1L);
+	}
+
+	/*
+	 * Here we test that committed versions are not kept forever. They expire
+	 * like the rooms, after which an older room can be cached again.
+	 */
+	@Test
+	void committedVersionsExpireWithRooms() {
+		AtomicLong ticker = new AtomicLong();
+		RoomCacheManager roomCacheManager = new RoomCacheManager();
+		roomCacheManager.setCaffeine(Caffeine.newBuilder().expireAfterWrite(10, TimeUnit.MINUTES).ticker(ticker::get)
+				.executor(Runnable::run));
+		VersionedRoomCache cache = (VersionedRoomCache) roomCacheManager.getCache(RoomServiceImpl.ROOMS_BY_ID_CACHE);
+		Room before = new Room(1L, "202", 102.00, 135.00, "double", "2");
+		before.setVersion(1);
+		Room after = new Room(1L, "202", 110.00, 135.00, "double", "2");
+		after.setVersion(2);
+
+		cache.evict(1L, after);
+		cache.put(1L, before);
+		assertThat(cache.get(1L)).isNull();
+
+		ticker.addAndGet(TimeUnit.MINUTES.toNanos(11));
+		cache.put(1L, before);
+		assertThat(cache.get(1L).get()).isEqualTo(before);
+	}
+
+	private CacheStats stats(String cacheName) {
+		return ((CaffeineCache) cacheManager.getCache(cacheName)).getNativeCache().stats();
+	}
+
+}
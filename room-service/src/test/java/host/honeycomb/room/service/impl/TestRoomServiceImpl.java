@@ -1,16 +1,22 @@
 package host.honeycomb.room.service.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +24,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import host.honeycomb.room.model.Room;
+import host.honeycomb.room.model.RoomBatchResult;
 import host.honeycomb.room.repository.RoomRepo;
 import host.honeycomb.room.service.RoomService;
 
@@ -33,7 +40,7 @@ public class TestRoomServiceImpl {
 	public void lookupExistingRoom() {
 		RoomRepo mockRepo = mock(RoomRepo.class);
 		when(mockRepo.findByRoomNumber(anyString())).thenReturn(Optional.of(new Room()));
-		RoomService service = new RoomServiceImpl(mockRepo, null);
+		RoomService service = new RoomServiceImpl(mockRepo);
 
 		Optional<Room> room = service.findByRoomNumber("100");
 
@@ -49,7 +56,7 @@ public class TestRoomServiceImpl {
 	public void throwExceptionForNonExistingRoom() {
 		RoomRepo mockRepo = mock(RoomRepo.class);
 		when(mockRepo.findByRoomNumber(anyString())).thenReturn(null);
-		RoomService service = new RoomServiceImpl(mockRepo, null);
+		RoomService service = new RoomServiceImpl(mockRepo);
 		try {
 			service.findByRoomNumber("100");
 			fail("Exception should had been thrown");
@@ -65,7 +72,7 @@ public class TestRoomServiceImpl {
 	@Test
 	public void throwExceptionInvalidRoomNumberFormat() {
 		RoomRepo mockRepo = mock(RoomRepo.class);
-		RoomService service = new RoomServiceImpl(mockRepo, null);
+		RoomService service = new RoomServiceImpl(mockRepo);
 		try {
 			service.findByRoomNumber("BAD ROOM NUMBER!");
 			fail("Exception should had been thrown");
@@ -81,7 +88,7 @@ public class TestRoomServiceImpl {
 	@Test
 	public void throwExceptionInvalidRoomNumberNull() {
 		RoomRepo mockRepo = mock(RoomRepo.class);
-		RoomService service = new RoomServiceImpl(mockRepo, null);
+		RoomService service = new RoomServiceImpl(mockRepo);
 		try {
 			service.findByRoomNumber(null);
 			fail("Exception should had been thrown");
@@ -97,7 +104,7 @@ public class TestRoomServiceImpl {
 	@Test
 	public void throwExceptionInvalidRoomNumberNegative() {
 		RoomRepo mockRepo = mock(RoomRepo.class);
-		RoomService service = new RoomServiceImpl(mockRepo, null);
+		RoomService service = new RoomServiceImpl(mockRepo);
 		try {
 			service.findByRoomNumber("-100");
 			fail("Exception should had been thrown");
@@ -120,7 +127,7 @@ public class TestRoomServiceImpl {
 		room.setWeekdayPrice(150.99);
 		room.setWeekendPrice(180.99);
 		when(roomRepo.findByRoomNumber("1023")).thenReturn(Optional.of(room));
-		RoomService service = new RoomServiceImpl(roomRepo, null);
+		RoomService service = new RoomServiceImpl(roomRepo);
 
 		//
 		// When
@@ -164,7 +171,7 @@ public class TestRoomServiceImpl {
 		room3.setWeekendPrice(250.99);
 		List<Room> rooms = Arrays.asList(room1, room2, room3);
 		when(roomRepo.findRoomsByFloor("10")).thenReturn(rooms);
-		RoomService service = new RoomServiceImpl(roomRepo, null);
+		RoomService service = new RoomServiceImpl(roomRepo);
 
 		//
 		// When
@@ -178,4 +185,42 @@ public class TestRoomServiceImpl {
 				tuple("Single", "1024"), tuple("Suite", "1025"));
 	}
 
+	/*
+	 * Here we test that a batch lookup is answered with one query per identifier
+	 * type, keyed by the requested identifiers, with duplicates collapsed and
+	 * misses reported explicitly.
+	 */
+	@Test
+	@DisplayName("Testing batch room lookup")
+	public void testFindRooms() {
+		RoomRepo roomRepo = mock(RoomRepo.class);
+		Room room1 = new Room(1L, "202", 102.00, 135.00, "double", "2");
+		Room room2 = new Room(2L, "302", 112.00, 155.00, "deluxe", "3");
+		when(roomRepo.findAllById(new LinkedHashSet<>(Arrays.asList(2L, 7L, 1L)))).thenReturn(Arrays.asList(room1, room2));
+		when(roomRepo.findByRoomNumberIn(new LinkedHashSet<>(Arrays.asList("302", "999"))))
+				.thenReturn(Arrays.asList(room2));
+		RoomService service = new RoomServiceImpl(roomRepo);
+
+		RoomBatchResult result = service.findRooms(Arrays.asList(2L, 7L, 1L, 2L), Arrays.asList("302", "999"));
+
+		assertAll(() -> assertThat(result.getById()).containsExactly(entry(2L, room2), entry(1L, room1)),
+				() -> assertThat(result.getMissingIds()).containsExactly(7L),
+				() -> assertThat(result.getByRoomNumber()).containsExactly(entry("302", room2)),
+				() -> assertThat(result.getMissingRoomNumbers()).containsExactly("999"));
+	}
+
+	@Test
+	@DisplayName("Testing empty batch room lookup")
+	public void testFindRoomsEmpty() {
+		RoomRepo roomRepo = mock(RoomRepo.class);
+		RoomService service = new RoomServiceImpl(roomRepo);
+
+		RoomBatchResult result = service.findRooms(Collections.emptyList(), Collections.emptyList());
+
+		assertThat(result.getById()).isEmpty();
+		assertThat(result.getMissingRoomNumbers()).isEmpty();
+		verify(roomRepo, never()).findAllById(any());
+		verify(roomRepo, never()).findByRoomNumberIn(any());
+	}
+
 }
@@ -0,0 +1,110 @@
+package host.honeycomb.room.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import host.honeycomb.room.exception.RoomServiceClientException;
+
+class TestSingleFlight {
+	private static final int CALLERS = 16;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/*
+	 * The loader is held until every other caller has joined the call in flight,
+	 * so all of them must share the single execution.
+	 */
+	@Test
+	@DisplayName("Concurrent identical loads share one execution")
+	void testConcurrentLoadsCoalesce() throws Exception {
+		SingleFlight<Long, String> lookups = new SingleFlight<>();
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(executor.submit(() -> lookups.load(1L, () -> {
+				loads.incrementAndGet();
+				await(release);
+				return "room-1";
+			})));
+		}
+		while (lookups.coalescedCount() < CALLERS - 1) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+
+		for (Future<String> result : results) {
+			assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("room-1");
+		}
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(lookups.executionCount()).isEqualTo(1);
+		assertThat(lookups.coalescedCount()).isEqualTo(CALLERS - 1);
+	}
+
+	@Test
+	@DisplayName("Waiting callers see the loader's exception")
+	void testFailureIsShared() throws Exception {
+		SingleFlight<Long, String> lookups = new SingleFlight<>();
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<String> first = executor.submit(() -> lookups.load(1L, () -> {
+			await(release);
+			throw new RoomServiceClientException("Room lookup failed.");
+		}));
+		while (lookups.executionCount() < 1) {
+			Thread.sleep(1);
+		}
+		Future<String> second = executor.submit(() -> lookups.load(1L, () -> "unexpected"));
+		while (lookups.coalescedCount() < 1) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+
+		assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(RoomServiceClientException.class);
+		assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(RoomServiceClientException.class)
+				.hasMessageContaining("Room lookup failed.");
+	}
+
+	@Test
+	@DisplayName("Completed loads are not reused")
+	void testSequentialLoadsExecute() {
+		SingleFlight<String, Integer> lookups = new SingleFlight<>();
+		AtomicInteger loads = new AtomicInteger();
+
+		lookups.load("202", loads::incrementAndGet);
+		int second = lookups.load("202", loads::incrementAndGet);
+		lookups.load("302", loads::incrementAndGet);
+
+		assertThat(second).isEqualTo(2);
+		assertThat(lookups.executionCount()).isEqualTo(3);
+		assertThat(lookups.coalescedCount()).isZero();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,155 @@
+package host.honeycomb.room.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import host.honeycomb.room.model.Room;
+
+class TestWriteBehindRoomUpdateQueue {
+	private static final Duration NEVER = Duration.ofHours(1);
+
+	private final RoomBatchWriter writer = mock(RoomBatchWriter.class);
+	private final List<List<Long>> batches = Collections.synchronizedList(new ArrayList<>());
+	private final List<String> roomNumbers = Collections.synchronizedList(new ArrayList<>());
+	private WriteBehindRoomUpdateQueue queue;
+
+	@AfterEach
+	void close() throws InterruptedException {
+		queue.close();
+	}
+
+	@Test
+	@DisplayName("Repeated updates to a room are written once, with the latest values")
+	void testUpdatesCoalesce() throws Exception {
+		queue = start(100, 10, NEVER, Duration.ZERO);
+		assertThat(queue.offer(room(1, "101"))).isTrue();
+		assertThat(queue.offer(room(2, "201"))).isTrue();
+		assertThat(queue.offer(room(1, "102"))).isTrue();
+		assertThat(queue.size()).isEqualTo(2);
+
+		queue.flush();
+		assertThat(batches).containsExactly(ids(1, 2));
+		assertThat(roomNumbers).containsExactly("102", "201");
+	}
+
+	@Test
+	@DisplayName("A batch is written as soon as batch-size rooms are pending")
+	void testFlushesWhenBatchIsFull() throws Exception {
+		queue = start(100, 2, NEVER, Duration.ZERO);
+		queue.offer(room(1, "101"));
+		queue.offer(room(2, "201"));
+		queue.offer(room(3, "301"));
+
+		awaitBatches(1);
+		assertThat(batches).containsExactly(ids(1, 2));
+		assertThat(queue.size()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Pending rooms are written once the oldest has waited flush-interval")
+	void testFlushesAfterInterval() throws Exception {
+		queue = start(100, 10, Duration.ofMillis(50), Duration.ZERO);
+		queue.offer(room(1, "101"));
+
+		awaitBatches(1);
+		assertThat(batches).containsExactly(ids(1));
+	}
+
+	/*
+	 * The writer is held on its first batch so the single pending slot stays
+	 * taken: new rooms are refused, while updates to the pending room still
+	 * replace it.
+	 */
+	@Test
+	@DisplayName("A full queue refuses new rooms after the offer timeout")
+	void testFullQueueRejects() throws Exception {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(writer.write(anyList())).thenAnswer(invocation -> {
+			record(invocation.getArgument(0));
+			writing.countDown();
+			release.await();
+			return Collections.emptyList();
+		});
+		queue = new WriteBehindRoomUpdateQueue(writer, 1, 1, NEVER, Duration.ofMillis(50));
+		queue.start();
+
+		queue.offer(room(1, "101"));
+		assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(queue.offer(room(2, "201"))).isTrue();
+		assertThat(queue.offer(room(3, "301"))).isFalse();
+		assertThat(queue.offer(room(2, "202"))).isTrue();
+
+		release.countDown();
+		queue.flush();
+		assertThat(batches).containsExactly(ids(1), ids(2));
+		assertThat(roomNumbers).containsExactly("101", "202");
+	}
+
+	@Test
+	@DisplayName("Closing the queue writes every accepted update and refuses new ones")
+	void testCloseDrains() throws Exception {
+		queue = start(100, 2, NEVER, Duration.ZERO);
+		for (long id = 1; id <= 5; id++) {
+			queue.offer(room(id, id + "01"));
+		}
+		queue.close();
+
+		assertThat(batches).containsExactly(ids(1, 2), ids(3, 4), ids(5));
+		assertThat(queue.offer(room(6, "601"))).isFalse();
+	}
+
+	private WriteBehindRoomUpdateQueue start(int capacity, int batchSize, Duration flushInterval,
+			Duration offerTimeout) {
+		when(writer.write(anyList())).thenAnswer(invocation -> {
+			record(invocation.getArgument(0));
+			return Collections.emptyList();
+		});
+		WriteBehindRoomUpdateQueue queue = new WriteBehindRoomUpdateQueue(writer, capacity, batchSize,
+				flushInterval, offerTimeout);
+		queue.start();
+		return queue;
+	}
+
+	private void record(List<Room> batch) {
+		List<Long> ids = new ArrayList<>();
+		for (Room room : batch) {
+			ids.add(room.getId());
+			roomNumbers.add(room.getRoomNumber());
+		}
+		batches.add(ids);
+	}
+
+	private void awaitBatches(int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (batches.size() < count && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	private static List<Long> ids(long... ids) {
+		List<Long> list = new ArrayList<>();
+		for (long id : ids) {
+			list.add(id);
+		}
+		return list;
+	}
+
+	private static Room room(long id, String roomNumber) {
+		return new Room(id, roomNumber, 102.00, 135.00, "double", "1");
+	}
+
+}